@@ -0,0 +1,50 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.service.SinglePassAnalysisEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pass engine against the previous per-property analysis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalysisEngineBenchmark {
+
+    @Param({"16", "1024", "1048576"})
+    int size;
+
+    private final SinglePassAnalysisEngine engine = new SinglePassAnalysisEngine();
+    private String input;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkData.text(size, BenchmarkData.Script.LATIN);
+    }
+
+    @Benchmark
+    public LegacyStringAnalysis.Result legacy() {
+        return LegacyStringAnalysis.analyze(input);
+    }
+
+    @Benchmark
+    public AnalyzedString singlePass() {
+        return engine.analyze(input);
+    }
+}
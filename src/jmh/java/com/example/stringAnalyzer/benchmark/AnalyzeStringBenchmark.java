@@ -0,0 +1,51 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.service.StringAnalyzerService;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full StringAnalyzerService.analyzeString (properties plus SHA-256) across sizes and scripts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyzeStringBenchmark {
+
+    @Param({"16", "1024", "65536", "1048576"})
+    int size;
+
+    @Param({"LATIN", "CYRILLIC", "CJK", "EMOJI"})
+    BenchmarkData.Script script;
+
+    private StringAnalyzerService service;
+    private String input;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkData.analyzerService(new HeapStringStorage());
+        input = BenchmarkData.text(size, script);
+    }
+
+    @Benchmark
+    public AnalyzedString analyzeString() throws NoSuchAlgorithmException {
+        return service.analyzeString(input);
+    }
+}
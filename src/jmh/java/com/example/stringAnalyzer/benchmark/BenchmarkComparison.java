@@ -0,0 +1,78 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (e.g. from the base commit and from a change) and prints
+ * the relative change of every benchmark/parameter combination found in both.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <candidate.json> [thresholdPercent]}.
+ * Exits with status 1 when any score got worse by more than the threshold (default 10%).
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <candidate.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> candidate = read(new File(args[1]));
+
+        boolean regressed = false;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "candidate", "change");
+        for (Map.Entry<String, Result> entry : new TreeMap<>(candidate).entrySet()) {
+            Result before = baseline.get(entry.getKey());
+            Result after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", after.score, "new");
+                continue;
+            }
+
+            // Positive means worse, whichever direction the mode counts in
+            double change = (after.score - before.score) / before.score * 100.0;
+            if (after.higherIsBetter) {
+                change = -change;
+            }
+            boolean worse = change > threshold;
+            regressed |= worse;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n",
+                    entry.getKey(), before.score, after.score, change, worse ? "  REGRESSION" : "");
+        }
+
+        System.exit(regressed ? 1 : 0);
+    }
+
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                for (Map.Entry<String, JsonNode> param : params.properties()) {
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+
+            JsonNode metric = run.get("primaryMetric");
+            String mode = run.get("mode").asText();
+            results.put(key.toString(), new Result(metric.get("score").asDouble(), "thrpt".equals(mode)));
+        }
+        return results;
+    }
+
+    private record Result(double score, boolean higherIsBetter) {
+    }
+}
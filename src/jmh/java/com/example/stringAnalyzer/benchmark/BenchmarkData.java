@@ -0,0 +1,115 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.service.QueryResultCache;
+import com.example.stringAnalyzer.service.SinglePassAnalysisEngine;
+import com.example.stringAnalyzer.service.StringAnalyzerService;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.example.stringAnalyzer.storage.OffHeapStringStorage;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic inputs shared by the benchmark suites.
+ */
+public final class BenchmarkData {
+
+    public enum Script {
+        LATIN("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"),
+        CYRILLIC("абвгдеёжзийклмнопрстуфхцчшщъыьэюяАБВГДЕЖЗИЙКЛМНОПРСТУФХЦЧШЩЪЫЬЭЮЯ"),
+        CJK("的一是不了人我在有他这为之大来以个中上们到说国和地也子时道出而要于就下得可你年生"),
+        EMOJI("😀😂😍👍🎉🔥🚀❤");
+
+        private final int[] codePoints;
+
+        Script(String alphabet) {
+            this.codePoints = alphabet.codePoints().toArray();
+        }
+    }
+
+    private BenchmarkData() {
+    }
+
+    // Words of 1-8 code points from the given script separated by single spaces, cut to size chars
+    static String text(int size, Script script) {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder sb = new StringBuilder(size + 8);
+        while (sb.length() < size) {
+            int wordLength = 1 + random.nextInt(8);
+            for (int i = 0; i < wordLength; i++) {
+                sb.appendCodePoint(script.codePoints[random.nextInt(script.codePoints.length)]);
+            }
+            sb.append(' ');
+        }
+        sb.setLength(size);
+        if (Character.isHighSurrogate(sb.charAt(size - 1))) {
+            sb.setCharAt(size - 1, 'x');
+        }
+        return sb.toString();
+    }
+
+    // Implementation selected the way string-analyzer.storage.type does
+    static StringStorage storage(String type) {
+        return switch (type) {
+            case "heap" -> new HeapStringStorage();
+            case "off-heap" -> new OffHeapStringStorage();
+            default -> throw new IllegalArgumentException("Unknown storage type " + type);
+        };
+    }
+
+    // Service wired the way Spring would, without starting a context
+    static StringAnalyzerService analyzerService(StringStorage storage) {
+        StringAnalyzerService service = new StringAnalyzerService();
+        ReflectionTestUtils.setField(service, "storage", storage);
+        ReflectionTestUtils.setField(service, "analysisEngine", new SinglePassAnalysisEngine());
+        // Disabled, so query benchmarks keep measuring the storage
+        ReflectionTestUtils.setField(service, "resultCache", new QueryResultCache(storage, 0, Duration.ZERO));
+        return service;
+    }
+
+    /*
+     * Fills the storage with short analyzed strings: about 1 in 20 is a palindrome, lengths
+     * spread over 1-64 and word counts over 1-8.
+     */
+    static void fill(StringStorage storage, int entries) {
+        StringAnalyzerService service = analyzerService(storage);
+        SplittableRandom random = new SplittableRandom(7);
+        int[] alphabet = Script.LATIN.codePoints;
+
+        StringBuilder sb = new StringBuilder(96);
+        for (int i = 0; i < entries; i++) {
+            sb.setLength(0);
+            int length = 1 + random.nextInt(64);
+            boolean palindrome = random.nextInt(20) == 0;
+            int half = palindrome ? (length + 1) / 2 : length;
+            for (int j = 0; j < half; j++) {
+                sb.appendCodePoint(random.nextInt(8) == 0 && j > 0 ? ' ' : alphabet[random.nextInt(alphabet.length)]);
+            }
+
+            // The entry number keeps values unique; palindromes carry it on both ends
+            String id = Integer.toString(i);
+            if (palindrome) {
+                for (int j = length / 2 - 1; j >= 0; j--) {
+                    sb.append(sb.charAt(j));
+                }
+                sb.insert(0, id + '#').append('#').append(new StringBuilder(id).reverse());
+            } else {
+                sb.append('#').append(id);
+            }
+
+            storage.save(analyze(service, sb.toString()));
+        }
+    }
+
+    private static AnalyzedString analyze(StringAnalyzerService service, String value) {
+        try {
+            return service.analyzeString(value);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
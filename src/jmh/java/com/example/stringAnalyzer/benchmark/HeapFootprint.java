@@ -0,0 +1,110 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.service.StringAnalyzerService;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.example.stringAnalyzer.storage.OffHeapStringStorage;
+
+import java.lang.ref.Reference;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the retained heap per stored string: the analyzed entries alone, a filled
+ * {@link HeapStringStorage} including its map and indexes, and a filled
+ * {@link OffHeapStringStorage} (heap and native memory). Values are Latin text of 8-64 chars.
+ * <p>
+ * Usage: {@code HeapFootprint [entries]} (default 200000). Numbers are most stable with a fixed
+ * heap and the serial collector, e.g. {@code MAVEN_OPTS="-Xms2g -Xmx2g -XX:+UseSerialGC"}.
+ */
+public final class HeapFootprint {
+
+    private HeapFootprint() {
+    }
+
+    public static void main(String[] args) throws NoSuchAlgorithmException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<String> values = values(entries);
+        long valueBytes = retained(() -> new ArrayList<>(values(entries)));
+
+        StringAnalyzerService service = BenchmarkData.analyzerService(new HeapStringStorage());
+        List<AnalyzedString> analyzed = new ArrayList<>(entries);
+        long entryBytes = retained(() -> {
+            for (String value : values) {
+                analyzed.add(service.analyzeString(value));
+            }
+            return analyzed;
+        });
+
+        HeapStringStorage storage = new HeapStringStorage();
+        long storageBytes = retained(() -> {
+            for (AnalyzedString entry : analyzed) {
+                storage.save(entry);
+            }
+            return storage;
+        });
+
+        // Measured on its own, once the analyzed entries are no longer needed
+        OffHeapStringStorage offHeap = new OffHeapStringStorage();
+        analyzed.clear();
+        long offHeapHeapBytes = retained(() -> {
+            for (String value : values) {
+                offHeap.save(service.analyzeString(value));
+            }
+            return offHeap;
+        });
+
+        System.out.printf("entries:                %,d%n", entries);
+        System.out.printf("value strings:          %,.1f bytes/entry%n", (double) valueBytes / entries);
+        System.out.printf("analyzed entry:         %,.1f bytes/entry (excluding the value)%n", (double) entryBytes / entries);
+        System.out.printf("storage map + indexes:  %,.1f bytes/entry%n", (double) storageBytes / entries);
+        System.out.printf("storage estimate:       %,.1f bytes/entry (value, entry, map and indexes)%n",
+                (double) storage.footprint().getEstimatedBytes() / entries);
+        System.out.printf("off-heap storage:       %,.1f bytes/entry on heap, %,.1f bytes/entry native (reserved)%n",
+                (double) offHeapHeapBytes / entries, (double) offHeap.offHeapBytes() / entries);
+    }
+
+    private static List<String> values(int entries) {
+        List<String> values = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            values.add(BenchmarkData.text(8 + i % 57, BenchmarkData.Script.LATIN) + '#' + i);
+        }
+        return values;
+    }
+
+    // Heap still in use after allocating the result, compared to before
+    private static long retained(Allocation allocation) throws NoSuchAlgorithmException {
+        long before = usedAfterGc();
+        Object result = allocation.run();
+        long after = usedAfterGc();
+        Reference.reachabilityFence(result);
+        return after - before;
+    }
+
+    // Collects until the used heap stops shrinking; a single System.gc() can leave garbage
+    // behind that is only reclaimed after reference processing has caught up
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (i > 2 && now >= used) {
+                break;
+            }
+            used = Math.min(used, now);
+        }
+        return used;
+    }
+
+    private interface Allocation {
+        Object run() throws NoSuchAlgorithmException;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.service.StringAnalyzerService;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent inserts of new strings: the previous check-then-save create path against the
+ * atomic StringStorage.saveIfAbsent. Every thread inserts its own pre-analyzed strings into an
+ * emptied storage each iteration, so the measured work is the storage insert alone. Raise the
+ * thread count with {@code -t}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = InsertBenchmark.INSERTS)
+@Measurement(iterations = 10, batchSize = InsertBenchmark.INSERTS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(8)
+public class InsertBenchmark {
+
+    static final int INSERTS = 20_000;
+
+    @State(Scope.Benchmark)
+    public static class Storage {
+
+        @Param({"heap", "off-heap"})
+        String storageType;
+
+        StringStorage storage;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            if (storage == null) {
+                storage = BenchmarkData.storage(storageType);
+            }
+            storage.clear();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Inserts {
+
+        AnalyzedString[] strings;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams thread) throws NoSuchAlgorithmException {
+            StringAnalyzerService service = BenchmarkData.analyzerService(new HeapStringStorage());
+            strings = new AnalyzedString[INSERTS];
+            for (int i = 0; i < INSERTS; i++) {
+                strings[i] = service.analyzeString(BenchmarkData.text(8 + i % 57, BenchmarkData.Script.LATIN)
+                        + '#' + thread.getThreadIndex() + '-' + i);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void rewind() {
+            next = 0;
+        }
+
+        AnalyzedString next() {
+            return strings[next++];
+        }
+    }
+
+    // What createAndSave did before: a lookup, then a save that looks the value up again
+    @Benchmark
+    public boolean checkThenSave(Storage storage, Inserts inserts) {
+        AnalyzedString analyzed = inserts.next();
+        if (storage.storage.existByValue(analyzed.getValue())) {
+            return false;
+        }
+        storage.storage.save(analyzed);
+        return true;
+    }
+
+    @Benchmark
+    public Optional<AnalyzedString> saveIfAbsent(Storage storage, Inserts inserts) {
+        return storage.storage.saveIfAbsent(inserts.next());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The per-property helpers StringAnalyzerService used before the single-pass engine,
+ * kept verbatim as the baseline for comparison.
+ */
+final class LegacyStringAnalysis {
+
+    private LegacyStringAnalysis() {
+    }
+
+    // AnalyzedString no longer holds a map, so the legacy map is returned next to it
+    record Result(AnalyzedString analyzed, Map<String, Integer> characterFrequencyMap) {
+    }
+
+    static Result analyze(String value) {
+        AnalyzedString analyzed = new AnalyzedString(value);
+        analyzed.setLength(value.length());
+        analyzed.setIsPalindrome(isPalindrome(value));
+        analyzed.setUniqueCharacters(countUniqueCharacters(value));
+        analyzed.setWordCount(countWords(value));
+        return new Result(analyzed, buildCharacterFrequencyMap(value));
+    }
+
+    // Check if palindrome (case-insensitive, alphanumeric only)
+    static boolean isPalindrome(String str) {
+        String cleaned = str.toLowerCase().replaceAll("[^a-z0-9]", "");
+        return cleaned.equals(new StringBuilder(cleaned).reverse().toString());
+    }
+
+    // Count unique characters
+    static int countUniqueCharacters(String str) {
+        return (int) str.chars().distinct().count();
+    }
+
+    // Count words (split by whitespace)
+    static int countWords(String str) {
+        if (str == null || str.trim().isEmpty()) {
+            return 0;
+        }
+        return str.trim().split("\\s+").length;
+    }
+
+    // Build character frequency map
+    static Map<String, Integer> buildCharacterFrequencyMap(String str) {
+        Map<String, Integer> frequencyMap = new LinkedHashMap<>();
+        for (char c : str.toCharArray()) {
+            String key = String.valueOf(c);
+            frequencyMap.put(key, frequencyMap.getOrDefault(key, 0) + 1);
+        }
+        return frequencyMap;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.stringAnalyzer.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load against a running instance: every client sends its next request as soon
+ * as the previous one is answered. Clients are virtual threads, so 10k of them are cheap on the
+ * load generator side and the server's threading model is what gets measured. Prints
+ * requests/sec and latency percentiles for the measured window.
+ * <p>
+ * The mix is 70% GET /strings/{value}, 10% POST /strings, 10% paged GET /strings with filters
+ * and 10% GET /strings/stats. Before the run the storage is seeded with strings to look up.
+ * <p>
+ * Usage: {@code LoadTest [baseUrl] [clients] [seconds] [warmupSeconds]}
+ * (defaults: http://localhost:8080 1000 30 10).
+ */
+public final class LoadTest {
+
+    private static final int SEED_STRINGS = 10_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        String[] values = seed(http, baseUrl);
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        // Created strings are unique per run, so repeated runs against one instance do not collide
+        AtomicLong created = new AtomicLong();
+        long runId = System.currentTimeMillis();
+
+        List<Client> running = new ArrayList<>(clients);
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Client client = new Client(http, baseUrl, values, created, runId, i, measureFrom, end);
+            running.add(client);
+            threads.add(Thread.ofVirtual().name("load-client-" + i).start(client));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long requests = 0;
+        long errors = 0;
+        for (Client client : running) {
+            requests += client.count;
+            errors += client.errors;
+        }
+        long[] latencies = new long[(int) requests];
+        int offset = 0;
+        for (Client client : running) {
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            offset += client.count;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("clients:       %,d%n", clients);
+        System.out.printf("requests:      %,d in %d s (%,d errors)%n", requests, seconds, errors);
+        System.out.printf("requests/sec:  %,.0f%n", (double) requests / seconds);
+        System.out.printf("latency p50:   %,.2f ms%n", percentile(latencies, 0.50));
+        System.out.printf("latency p99:   %,.2f ms%n", percentile(latencies, 0.99));
+        System.out.printf("latency p99.9: %,.2f ms%n", percentile(latencies, 0.999));
+        System.out.printf("latency max:   %,.2f ms%n", latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    // Stores strings for the lookups through the batch endpoint; existing ones are reported as duplicates
+    private static String[] seed(HttpClient http, String baseUrl) throws IOException, InterruptedException {
+        String[] values = new String[SEED_STRINGS];
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = BenchmarkData.text(8 + i % 57, BenchmarkData.Script.LATIN) + '#' + i;
+            body.append('"').append(values[i]).append('"').append('\n');
+        }
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/strings/batch"))
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeding failed with status " + response.statusCode());
+        }
+        return values;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static final class Client implements Runnable {
+
+        private final HttpClient http;
+        private final String baseUrl;
+        private final String[] values;
+        private final AtomicLong created;
+        private final long runId;
+        private final SplittableRandom random;
+        private final long measureFrom;
+        private final long end;
+
+        // Latencies in nanoseconds of the requests completed in the measured window
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        Client(HttpClient http, String baseUrl, String[] values, AtomicLong created, long runId, int id, long measureFrom, long end) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.values = values;
+            this.created = created;
+            this.runId = runId;
+            this.random = new SplittableRandom(id);
+            this.measureFrom = measureFrom;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                HttpRequest request = next();
+                boolean ok;
+                try {
+                    ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 300;
+                } catch (IOException e) {
+                    ok = false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long done = System.nanoTime();
+                if (now >= measureFrom && done < end) {
+                    if (ok) {
+                        record(done - now);
+                    } else {
+                        errors++;
+                    }
+                }
+            }
+        }
+
+        private HttpRequest next() {
+            int kind = random.nextInt(10);
+            if (kind < 7) {
+                String value = values[random.nextInt(values.length)];
+                return get("/strings/" + URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20"));
+            }
+            if (kind == 7) {
+                String body = "{\"value\":\"load test " + runId + '-' + created.incrementAndGet() + "\"}";
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/strings"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+            if (kind == 8) {
+                return get("/strings?min_length=" + (1 + random.nextInt(60)) + "&word_count=" + (1 + random.nextInt(4)) + "&limit=20");
+            }
+            return get("/strings/stats");
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+}
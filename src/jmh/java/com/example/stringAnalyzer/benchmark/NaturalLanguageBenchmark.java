@@ -0,0 +1,81 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.dto.NaturalLanguageResponse;
+import com.example.stringAnalyzer.service.NaturalLanguageProcessor;
+import com.example.stringAnalyzer.service.QueryPlan;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NaturalLanguageProcessor.processNaturalLanguageQuery over a corpus of typical phrasings.
+ * Each invocation runs one query, cycling through the corpus. {@code plan} measures the query
+ * parsing alone; a {@code planCacheSize} of 0 parses every query, 1024 serves them from the cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NaturalLanguageBenchmark {
+
+    static final String[] QUERIES = {
+            "all single word palindromic strings",
+            "strings longer than 10 characters",
+            "palindromic strings that contain the first vowel",
+            "strings containing the letter z",
+            "All Single Word Palindromic Strings",
+            "two word strings longer than 20 characters",
+            "single word strings containing the letter q",
+            "palindromes longer than 5",
+            "strings that contain the letter e and are longer than 30 characters",
+            "show me everything",
+    };
+
+    @Param({"10000"})
+    int entries;
+
+    @Param({"0", "1024"})
+    int planCacheSize;
+
+    private NaturalLanguageProcessor processor;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        StringStorage storage = new HeapStringStorage();
+        BenchmarkData.fill(storage, entries);
+
+        processor = new NaturalLanguageProcessor(planCacheSize);
+        ReflectionTestUtils.setField(processor, "storage", storage);
+        ReflectionTestUtils.setField(processor, "analyzerService", BenchmarkData.analyzerService(storage));
+    }
+
+    @Benchmark
+    public NaturalLanguageResponse processNaturalLanguageQuery() {
+        String query = QUERIES[next];
+        next = (next + 1) % QUERIES.length;
+        return processor.processNaturalLanguageQuery(query);
+    }
+
+    @Benchmark
+    public QueryPlan plan() {
+        String query = QUERIES[next];
+        next = (next + 1) % QUERIES.length;
+        return processor.plan(query);
+    }
+}
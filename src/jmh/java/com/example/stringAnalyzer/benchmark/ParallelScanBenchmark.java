@@ -0,0 +1,75 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.example.stringAnalyzer.storage.OffHeapStringStorage;
+import com.example.stringAnalyzer.storage.ParallelScan;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential against fork-join filter scans over growing corpora, to find the size at which
+ * splitting the scan starts to pay off; that is what string-analyzer.storage.scan.parallel-threshold
+ * should be set to. The parallel runs use a threshold of 0, so every scan is split.
+ * {@code parallelism} 0 means one worker per available processor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+@State(Scope.Benchmark)
+public class ParallelScanBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    int entries;
+
+    @Param({"ALL", "PALINDROME", "WORDS_AND_LENGTH"})
+    StorageQueryBenchmark.Selectivity selectivity;
+
+    @Param({"heap", "off-heap"})
+    String storageType;
+
+    @Param({"1", "0"})
+    int parallelism;
+
+    private ParallelScan parallelScan;
+    private StringStorage storage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        parallelScan = parallelism == 1 ? ParallelScan.SEQUENTIAL : new ParallelScan(0, parallelism);
+        storage = BenchmarkData.storage(storageType);
+        if (storage instanceof HeapStringStorage heap) {
+            heap.setParallelScan(parallelScan);
+        } else if (storage instanceof OffHeapStringStorage offHeap) {
+            offHeap.setParallelScan(parallelScan);
+        }
+        BenchmarkData.fill(storage, entries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parallelScan.shutdown();
+    }
+
+    @Benchmark
+    public List<AnalyzedString> findByFilters() {
+        return storage.findByFilters(selectivity.filter);
+    }
+}
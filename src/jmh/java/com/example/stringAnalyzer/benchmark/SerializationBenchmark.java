@@ -0,0 +1,121 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.dto.ResponseFields;
+import com.example.stringAnalyzer.dto.StringListResponse;
+import com.example.stringAnalyzer.exception.InvalidQueryException;
+import com.example.stringAnalyzer.exception.StringAlreadyExistsException;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.service.StringAnalyzerService;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.example.stringAnalyzer.storage.StringStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization of a GET /strings response in each wire format the API offers, from building
+ * the response to the bytes on the wire: JSON, CBOR or Smile, with every field or without the
+ * character frequency map, and uncompressed, gzipped or zstd-compressed. Mappers get the same
+ * defaults Spring Boot configures for the HTTP message converters. {@link WireFormatSizes}
+ * prints the resulting sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    // Everything but the frequency map
+    static final String NO_FREQUENCY_MAP = "id,value,created_at,length,is_palindrome,unique_characters,word_count,sha256_hash";
+
+    @Param({"10", "1000", "10000"})
+    int items;
+
+    @Param({"16", "256"})
+    int valueSize;
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"all", "no_frequency_map"})
+    String fields;
+
+    @Param({"none", "gzip", "zstd"})
+    String compression;
+
+    private ObjectMapper mapper;
+    private ResponseFields selected;
+    private StringAnalyzerService service;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException, StringAlreadyExistsException, InvalidQueryException {
+        mapper = mapper(format);
+        selected = ResponseFields.parse(fields.equals("all") ? null : NO_FREQUENCY_MAP);
+        service = filled(items, valueSize);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return write(mapper, list(service, selected), compression);
+    }
+
+    static ObjectMapper mapper(String format) {
+        return switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+    }
+
+    static StringAnalyzerService filled(int items, int valueSize) throws NoSuchAlgorithmException, StringAlreadyExistsException {
+        StringStorage storage = new HeapStringStorage();
+        StringAnalyzerService service = BenchmarkData.analyzerService(storage);
+        String text = BenchmarkData.text(valueSize * items + items, BenchmarkData.Script.LATIN);
+        for (int i = 0; i < items; i++) {
+            service.createAndSave(text.substring(i * valueSize, (i + 1) * valueSize) + i);
+        }
+        return service;
+    }
+
+    static StringListResponse list(StringAnalyzerService service, ResponseFields fields) {
+        return service.getAllStrings(StringFilter.of(null, null, null, null, null), PageRequest.UNPAGED, fields);
+    }
+
+    // Compression levels are the defaults the server uses
+    static byte[] write(ObjectMapper mapper, StringListResponse response, String compression) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = switch (compression) {
+            case "none" -> bytes;
+            case "gzip" -> new GZIPOutputStream(bytes);
+            case "zstd" -> new ZstdOutputStreamNoFinalizer(bytes, 3);
+            default -> throw new IllegalArgumentException("Unknown compression " + compression);
+        }) {
+            mapper.writeValue(out, response);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.service.Sha256;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SHA-256 hashing and hex encoding of the id. {@code legacy*} is the original per-call
+ * {@code MessageDigest.getInstance} with {@code Integer.toHexString} hex; {@code hash} and
+ * {@code hex} are what the service and {@link AnalyzedString} use now. Run with
+ * {@code -prof gc} to see the allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Sha256Benchmark {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @Param({"16", "1024", "65536", "1048576"})
+    int size;
+
+    @Param({"LATIN", "CJK"})
+    BenchmarkData.Script script;
+
+    private String input;
+    private AnalyzedString analyzed;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkData.text(size, script);
+        analyzed = new AnalyzedString(input);
+        analyzed.setSha256(Sha256.hash(input));
+    }
+
+    @Benchmark
+    public byte[] legacyHash() throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return digest.digest(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public byte[] hash() {
+        return Sha256.hash(input);
+    }
+
+    @Benchmark
+    public String legacyHex() {
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : analyzed.getSha256()) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+
+    // Lookup table into one char[]; HexFormat does the same into the String's own byte array
+    @Benchmark
+    public String tableHex() {
+        byte[] hash = analyzed.getSha256();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[hash[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    @Benchmark
+    public String hex() {
+        return analyzed.getSha256Hash();
+    }
+}
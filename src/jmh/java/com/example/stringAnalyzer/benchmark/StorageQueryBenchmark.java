@@ -0,0 +1,79 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StringStorage.findByFilters at several corpus sizes and filter selectivities, for both
+ * storage implementations.
+ * The 10M case needs a large heap; narrow it with -p entries=10000 for quick runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+@State(Scope.Benchmark)
+public class StorageQueryBenchmark {
+
+    public enum Selectivity {
+        // No filter at all: every entry is returned
+        ALL(StringFilter.NONE),
+        // Roughly half of the corpus
+        LENGTH_RANGE(StringFilter.builder().minLength(32).build()),
+        // About 1 in 20
+        PALINDROME(StringFilter.builder().isPalindrome(true).build()),
+        // Word count bucket combined with a length range
+        WORDS_AND_LENGTH(StringFilter.builder().wordCount(3).minLength(40).maxLength(48).build()),
+        // Rare character intersected with the palindrome bitmap
+        PALINDROME_WITH_CHARACTER(StringFilter.builder().isPalindrome(true).containsCharacter("q").minLength(50).build()),
+        // Case-insensitive substring, in well under 1 in 1000
+        SUBSTRING(StringFilter.builder().contains("abc").build()),
+        // Matches nothing
+        NONE(StringFilter.builder().containsCharacter("~").build());
+
+        final StringFilter filter;
+
+        Selectivity(StringFilter filter) {
+            this.filter = filter;
+        }
+    }
+
+    @Param({"10000", "1000000", "10000000"})
+    int entries;
+
+    @Param
+    Selectivity selectivity;
+
+    @Param({"heap", "off-heap"})
+    String storageType;
+
+    private StringStorage storage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = BenchmarkData.storage(storageType);
+        BenchmarkData.fill(storage, entries);
+    }
+
+    @Benchmark
+    public List<AnalyzedString> findByFilters() {
+        return storage.findByFilters(selectivity.filter);
+    }
+}
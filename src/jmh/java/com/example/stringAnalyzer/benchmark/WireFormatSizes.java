@@ -0,0 +1,45 @@
+package com.example.stringAnalyzer.benchmark;
+
+import com.example.stringAnalyzer.dto.ResponseFields;
+import com.example.stringAnalyzer.dto.StringListResponse;
+import com.example.stringAnalyzer.service.StringAnalyzerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+/**
+ * Prints the bytes per item of a GET /strings response in every combination of format, fields
+ * and compression that {@link SerializationBenchmark} times, for Latin values of the given size.
+ * <p>
+ * Usage: {@code WireFormatSizes [items] [valueSize]} (default 1000 and 64).
+ */
+public final class WireFormatSizes {
+
+    private static final List<String> FORMATS = List.of("json", "cbor", "smile");
+    private static final List<String> COMPRESSIONS = List.of("none", "gzip", "zstd");
+
+    private WireFormatSizes() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int valueSize = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        StringAnalyzerService service = SerializationBenchmark.filled(items, valueSize);
+
+        System.out.printf("items: %,d, value size: %d chars, bytes per item%n%n", items, valueSize);
+        System.out.printf("%-7s %-18s %10s %10s %10s%n", "format", "fields", "none", "gzip", "zstd");
+        for (String fields : List.of("all", "no_frequency_map")) {
+            StringListResponse response = SerializationBenchmark.list(service,
+                    ResponseFields.parse(fields.equals("all") ? null : SerializationBenchmark.NO_FREQUENCY_MAP));
+            for (String format : FORMATS) {
+                ObjectMapper mapper = SerializationBenchmark.mapper(format);
+                System.out.printf("%-7s %-18s", format, fields);
+                for (String compression : COMPRESSIONS) {
+                    byte[] bytes = SerializationBenchmark.write(mapper, response, compression);
+                    System.out.printf(" %10.1f", (double) bytes.length / items);
+                }
+                System.out.println();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.stringAnalyzer.controller;
+
+import com.example.stringAnalyzer.dto.SnapshotResponse;
+import com.example.stringAnalyzer.exception.InvalidQueryException;
+import com.example.stringAnalyzer.storage.StringExports;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Exports the whole corpus to a file in the export directory, or imports one, for seeding or
+ * migrating an instance without analyzing every string again; see {@link StringExports}.
+ * Files are named by a plain file name, never a path. Off unless
+ * {@code string-analyzer.admin.enabled} is set, since an import writes without validation.
+ */
+@RestController
+@RequestMapping("/admin")
+@ConditionalOnProperty(name = "string-analyzer.admin.enabled", havingValue = "true")
+public class AdminController {
+
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,127}");
+
+    @Autowired
+    StringStorage storage;
+
+    @Value("${string-analyzer.admin.export-directory:exports}")
+    Path exportDirectory;
+
+    @PostMapping("/export")
+    public SnapshotResponse export(@RequestParam String name) throws InvalidQueryException, IOException {
+        Path file = resolve(name);
+        long start = System.nanoTime();
+        StringExports.Result result = StringExports.export(storage, file);
+        return new SnapshotResponse(name, result.getStrings(), null, null, result.getBytes(), elapsedMillis(start));
+    }
+
+    @PostMapping("/import")
+    public SnapshotResponse importStrings(@RequestParam String name) throws InvalidQueryException, IOException {
+        Path file = resolve(name);
+        if (!Files.isRegularFile(file)) {
+            throw new InvalidQueryException("No export named " + name);
+        }
+        long start = System.nanoTime();
+        StringExports.Result result = StringExports.importInto(storage, file);
+        return new SnapshotResponse(name, result.getStrings(), result.getInserted(),
+                result.getStrings() - result.getInserted(), result.getBytes(), elapsedMillis(start));
+    }
+
+    private Path resolve(String name) throws InvalidQueryException {
+        if (!FILE_NAME.matcher(name).matches() || name.endsWith(".tmp")) {
+            throw new InvalidQueryException("Invalid export name: " + name);
+        }
+        return exportDirectory.resolve(name);
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.stringAnalyzer.controller;
+
+import com.example.stringAnalyzer.exception.InvalidQueryException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.storage.ShardProtocol;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Exposes this instance's storage as a shard for a sharded instance elsewhere. Bodies are in
+ * {@link ShardProtocol}'s binary form and carry fully analyzed strings, so nothing is analyzed
+ * again here. Writes still go through this instance's storage, so its statistics and caches
+ * stay current. Off unless {@code string-analyzer.storage.shard-endpoints.enabled} is set,
+ * since the endpoints accept strings without validation.
+ */
+@RestController
+@RequestMapping("/internal/shard")
+@ConditionalOnProperty(name = "string-analyzer.storage.shard-endpoints.enabled", havingValue = "true")
+public class ShardController {
+
+    @Autowired
+    StringStorage storage;
+
+    @GetMapping(value = "/string", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] findString(@RequestParam String value) {
+        return ShardProtocol.writeStrings(storage.findByValue(value).stream().toList());
+    }
+
+    // Answers with the string it replaced, if any
+    @PutMapping(value = "/string", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] saveString(@RequestBody byte[] body) {
+        return ShardProtocol.writeStrings(storage.replace(single(body)).stream().toList());
+    }
+
+    // Answers with the string already stored, or nothing when this one was inserted
+    @PostMapping(value = "/string", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] saveStringIfAbsent(@RequestBody byte[] body) {
+        return ShardProtocol.writeStrings(storage.saveIfAbsent(single(body)).stream().toList());
+    }
+
+    // Answers with the removed string, or nothing when the value was not stored
+    @DeleteMapping(value = "/string", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] deleteString(@RequestParam String value) {
+        return ShardProtocol.writeStrings(storage.remove(value).stream().toList());
+    }
+
+    @PostMapping(value = "/strings", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] saveStrings(@RequestBody byte[] body) {
+        return ShardProtocol.writeFlags(storage.saveAll(ShardProtocol.readStrings(body)));
+    }
+
+    @GetMapping(value = "/strings", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] findStrings(@RequestParam(required = false) Boolean is_palindrome,
+                              @RequestParam(required = false) Integer min_length,
+                              @RequestParam(required = false) Integer max_length,
+                              @RequestParam(required = false) Integer word_count,
+                              @RequestParam(required = false) String contains_character,
+                              @RequestParam(required = false) String contains,
+                              @RequestParam(required = false) String starts_with,
+                              @RequestParam(required = false) String ends_with,
+                              @RequestParam(required = false) String sort,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(required = false) Integer limit) throws InvalidQueryException {
+        return ShardProtocol.writePage(storage.findPage(
+                StringFilter.of(is_palindrome, min_length, max_length, word_count, contains_character).toBuilder()
+                        .contains(contains).startsWith(starts_with).endsWith(ends_with).build(),
+                PageRequest.of(sort, cursor, limit)));
+    }
+
+    @GetMapping(value = "/similar", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] findSimilar(@RequestParam String value, @RequestParam double threshold) {
+        return ShardProtocol.writeSimilar(storage.findSimilar(value, threshold));
+    }
+
+    @GetMapping(value = "/count", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String count() {
+        return String.valueOf(storage.count());
+    }
+
+    @DeleteMapping("/strings")
+    public ResponseEntity<Void> clear() {
+        storage.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    private static AnalyzedString single(byte[] body) {
+        List<AnalyzedString> strings = ShardProtocol.readStrings(body);
+        if (strings.size() != 1) {
+            throw new IllegalArgumentException("Expected exactly one string, got " + strings.size());
+        }
+        return strings.get(0);
+    }
+}
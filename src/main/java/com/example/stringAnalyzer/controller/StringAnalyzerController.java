@@ -1,20 +1,37 @@
 package com.example.stringAnalyzer.controller;
 
+import com.example.stringAnalyzer.dto.BatchResponse;
 import com.example.stringAnalyzer.dto.NaturalLanguageResponse;
+import com.example.stringAnalyzer.dto.ResponseFields;
+import com.example.stringAnalyzer.dto.SimilarStringsResponse;
 import com.example.stringAnalyzer.dto.StringListResponse;
 import com.example.stringAnalyzer.dto.StringRequest;
 import com.example.stringAnalyzer.dto.StringResponse;
+import com.example.stringAnalyzer.dto.StringStatsResponse;
 import com.example.stringAnalyzer.exception.InvalidQueryException;
+import com.example.stringAnalyzer.exception.StringAlreadyExistsException;
 import com.example.stringAnalyzer.exception.StringNotFoundException;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import com.example.stringAnalyzer.service.BatchIngestionService;
 import com.example.stringAnalyzer.service.NaturalLanguageProcessor;
 import com.example.stringAnalyzer.service.StringAnalyzerService;
+import com.example.stringAnalyzer.service.StringStatistics;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 
 @CrossOrigin(origins = "*")
@@ -27,12 +44,18 @@ public class StringAnalyzerController {
     @Autowired
     NaturalLanguageProcessor naturalLanguageProcessor;
 
+    @Autowired
+    BatchIngestionService batchIngestionService;
+
+    @Autowired
+    StringStatistics statistics;
+
     public StringAnalyzerController(StringAnalyzerService analyzerService) {
         this.analyzerService = analyzerService;
     }
 
     @PostMapping("/strings")
-    public ResponseEntity<StringResponse> analyzeAndSaveString(@Valid @RequestBody StringRequest request) throws NoSuchAlgorithmException, MethodArgumentNotValidException {
+    public ResponseEntity<StringResponse> analyzeAndSaveString(@Valid @RequestBody StringRequest request) throws NoSuchAlgorithmException, MethodArgumentNotValidException, StringAlreadyExistsException {
 
         StringResponse response = analyzerService.createAndSave(request.getValue());
         return ResponseEntity
@@ -40,36 +63,118 @@ public class StringAnalyzerController {
                 .body(response);
     }
 
+    // The whole body is the value, read and analyzed in chunks as it arrives; meant for values
+    // too large to send inside a JSON document
+    @PostMapping(value = "/strings", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StringResponse> analyzeAndSaveStream(HttpServletRequest request) throws IOException, StringAlreadyExistsException {
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+        StringResponse response = analyzerService.createAndSave(request.getInputStream(), charset, request.getContentLengthLong());
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(response);
+    }
+
+    @PostMapping(value = "/strings/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResponse> analyzeAndSaveBatch(InputStream body) throws IOException {
+
+        BatchResponse response = batchIngestionService.ingest(body);
+        return ResponseEntity.ok(response);
+    }
+
+    // Maintained on every write, so this never scans the stored strings
+    @GetMapping("/strings/stats")
+    public ResponseEntity<StringStatsResponse> getStatistics() {
+        return ResponseEntity.ok(statistics.summary());
+    }
+
     @GetMapping("/strings/{string_value}")
-    public ResponseEntity<StringResponse> getString(@PathVariable("string_value") String value) throws NoSuchAlgorithmException, StringNotFoundException {
-        StringResponse response = analyzerService.findString(value);
+    public ResponseEntity<StringResponse> getString(@PathVariable("string_value") String value,
+                                                    @RequestParam(required = false) String fields) throws NoSuchAlgorithmException, StringNotFoundException, InvalidQueryException {
+        StringResponse response = analyzerService.findString(value, ResponseFields.parse(fields));
 
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(response);
     }
 
+    // Stored strings whose character trigrams overlap the value's by at least threshold
+    // (estimated Jaccard similarity), most similar first
+    @GetMapping("/strings/{string_value}/similar")
+    public ResponseEntity<SimilarStringsResponse> getSimilarStrings(@PathVariable("string_value") String value,
+                                                                    @RequestParam(defaultValue = "0.5") double threshold,
+                                                                    @RequestParam(required = false) String fields) throws InvalidQueryException {
+        return ResponseEntity.ok(analyzerService.findSimilar(value, threshold, ResponseFields.parse(fields)));
+    }
+
     @GetMapping("/strings")
     public ResponseEntity<StringListResponse> getStringWithFilter(@RequestParam (required = false) Boolean is_palindrome,
                                                                   @RequestParam(required = false) Integer min_length,
                                                                   @RequestParam(required = false) Integer max_length,
                                                                   @RequestParam(required = false) Integer word_count,
-                                                                  @RequestParam(required = false) String contains_character){
-
-        StringListResponse response = analyzerService.getAllStrings(is_palindrome, min_length, max_length, word_count, contains_character);
+                                                                  @RequestParam(required = false) String contains_character,
+                                                                  @RequestParam(required = false) String contains,
+                                                                  @RequestParam(required = false) String starts_with,
+                                                                  @RequestParam(required = false) String ends_with,
+                                                                  @RequestParam(required = false) String sort,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limit,
+                                                                  @RequestParam(required = false) String fields) throws InvalidQueryException {
+
+        StringListResponse response = analyzerService.getAllStrings(
+                StringFilter.of(is_palindrome, min_length, max_length, word_count, contains_character).toBuilder()
+                        .contains(contains).startsWith(starts_with).endsWith(ends_with).build(),
+                PageRequest.of(sort, cursor, limit),
+                ResponseFields.parse(fields));
 
         return ResponseEntity.ok(response);
     }
 
+    // Same filters as above, streamed as NDJSON; the match count is sent up front in X-Total-Count
+    // and the cursor of the next page, if any, in X-Next-Cursor
+    @GetMapping(value = "/strings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamStringsWithFilter(@RequestParam (required = false) Boolean is_palindrome,
+                                                                         @RequestParam(required = false) Integer min_length,
+                                                                         @RequestParam(required = false) Integer max_length,
+                                                                         @RequestParam(required = false) Integer word_count,
+                                                                         @RequestParam(required = false) String contains_character,
+                                                                         @RequestParam(required = false) String contains,
+                                                                         @RequestParam(required = false) String starts_with,
+                                                                         @RequestParam(required = false) String ends_with,
+                                                                         @RequestParam(required = false) String sort,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(required = false) Integer limit,
+                                                                         @RequestParam(required = false) String fields) throws InvalidQueryException {
+
+        ResponseFields selected = ResponseFields.parse(fields);
+        StringPage matches = analyzerService.findMatches(
+                StringFilter.of(is_palindrome, min_length, max_length, word_count, contains_character).toBuilder()
+                        .contains(contains).startsWith(starts_with).endsWith(ends_with).build(),
+                PageRequest.of(sort, cursor, limit));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("X-Total-Count", String.valueOf(matches.getItems().size()));
+        if (matches.getNextCursor() != null) {
+            response.header("X-Next-Cursor", matches.getNextCursor());
+        }
+        return response.body(out -> analyzerService.writeAsNdjson(matches.getItems(), out, selected));
+    }
+
     @GetMapping("/strings/filter-by-natural-language")
     public ResponseEntity<NaturalLanguageResponse> filterByNaturalLanguage(
-            @RequestParam String query) throws InvalidQueryException {
+            @RequestParam String query,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) throws InvalidQueryException {
 
         if (query == null || query.trim().isEmpty()) {
             throw new InvalidQueryException("Unable to parse natural language query");
         }
 
-        NaturalLanguageResponse response = naturalLanguageProcessor.processNaturalLanguageQuery(query);
+        NaturalLanguageResponse response = naturalLanguageProcessor.processNaturalLanguageQuery(query, PageRequest.of(sort, cursor, limit), ResponseFields.parse(fields));
 
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,30 @@
+package com.example.stringAnalyzer.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary encodings of the JSON responses, picked with the Accept header: CBOR
+ * ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}). Both mappers come
+ * from Spring Boot's Jackson builder, so field names, dates and modules match the JSON
+ * responses exactly; Spring MVC's own defaults for these formats would skip Boot's settings and
+ * write dates as arrays. They replace those defaults.
+ */
+@Configuration
+public class WireFormats {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
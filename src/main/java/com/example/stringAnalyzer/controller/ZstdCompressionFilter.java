@@ -0,0 +1,267 @@
+package com.example.stringAnalyzer.controller;
+
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compresses responses with zstd for clients that accept it, under the same
+ * {@code server.compression} settings (switch, MIME types, minimum size) the server applies to
+ * gzip. The server leaves a response alone once it has a Content-Encoding, so each response is
+ * compressed once, with zstd when accepted and gzip otherwise.
+ * <p>
+ * Runs outside {@link ResponseSizeFilter}, so response sizes are recorded before compression as
+ * they are for gzip. A body streamed after the handler returns, like NDJSON, ends with the async
+ * dispatch that follows it, so the zstd frame is finished there.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ZstdCompressionFilter extends OncePerRequestFilter {
+
+    private static final String RESPONSE_ATTRIBUTE = ZstdCompressionFilter.class.getName() + ".response";
+
+    private final Compression compression;
+    private final List<MimeType> mimeTypes;
+    private final int level;
+
+    public ZstdCompressionFilter(ServerProperties server,
+                                 @Value("${string-analyzer.compression.zstd-level:3}") int level) {
+        this.compression = server.getCompression();
+        this.mimeTypes = Arrays.stream(compression.getMimeTypes()).map(MimeTypeUtils::parseMimeType).toList();
+        this.level = level;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !compression.getEnabled() || !acceptsZstd(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ZstdResponse zstd = (ZstdResponse) request.getAttribute(RESPONSE_ATTRIBUTE);
+        if (zstd == null) {
+            zstd = new ZstdResponse(request, response);
+            request.setAttribute(RESPONSE_ATTRIBUTE, zstd);
+            chain.doFilter(request, zstd);
+        } else {
+            chain.doFilter(request, response);
+        }
+        zstd.finish();
+    }
+
+    // Any zstd coding whose weight is not zero; a malformed weight counts as not accepting it
+    static boolean acceptsZstd(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("zstd")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("q=") && !positiveWeight(parameter.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean positiveWeight(String weight) {
+        try {
+            double q = Double.parseDouble(weight);
+            return q > 0 && q <= 1;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private final class ZstdResponse extends HttpServletResponseWrapper {
+        private final HttpServletRequest request;
+        // Held back until it is known whether the body is compressed
+        private long contentLength = -1;
+        private Boolean compressing;
+        private ZstdOutputStreamNoFinalizer zstd;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        ZstdResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                if (!decide()) {
+                    outputStream = delegate;
+                } else {
+                    zstd = new ZstdOutputStreamNoFinalizer(delegate, level);
+                    outputStream = new ServletOutputStream() {
+                        @Override
+                        public void write(int b) throws IOException {
+                            zstd.write(b);
+                        }
+
+                        @Override
+                        public void write(byte[] b, int off, int len) throws IOException {
+                            zstd.write(b, off, len);
+                        }
+
+                        @Override
+                        public void flush() throws IOException {
+                            zstd.flush();
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            zstd.close();
+                        }
+
+                        @Override
+                        public boolean isReady() {
+                            return delegate.isReady();
+                        }
+
+                        @Override
+                        public void setWriteListener(WriteListener listener) {
+                            delegate.setWriteListener(listener);
+                        }
+                    };
+                }
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (zstd != null) {
+                zstd.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (compressing == null) {
+                contentLength = length;
+            } else if (!compressing) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        // Made when the body is first asked for, by which time status and content type are set
+        private boolean decide() {
+            compressing = compressible();
+            if (compressing) {
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, "zstd");
+                super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            } else if (contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+            return compressing;
+        }
+
+        private boolean compressible() {
+            int status = getStatus();
+            if (status < 200 || status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED) {
+                return false;
+            }
+            if (containsHeader(HttpHeaders.CONTENT_ENCODING) || getContentType() == null) {
+                return false;
+            }
+            if (contentLength >= 0 && contentLength < compression.getMinResponseSize().toBytes()) {
+                return false;
+            }
+            MimeType type = MimeTypeUtils.parseMimeType(getContentType());
+            for (MimeType compressible : mimeTypes) {
+                if (compressible.equalsTypeAndSubtype(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Ends the zstd frame, or releases a held-back length when no body was written; an async
+        // response is finished by its last dispatch
+        void finish() throws IOException {
+            if (request.isAsyncStarted()) {
+                return;
+            }
+            if (compressing == null && contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+            if (writer != null) {
+                writer.flush();
+            }
+            if (zstd != null) {
+                zstd.close();
+            }
+        }
+    }
+}
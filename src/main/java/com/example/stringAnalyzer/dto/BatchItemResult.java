@@ -0,0 +1,19 @@
+package com.example.stringAnalyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    // Position of the item in the submitted array or NDJSON stream
+    private int index;
+    private BatchItemStatus status;
+    private String id;
+    private String message;
+}
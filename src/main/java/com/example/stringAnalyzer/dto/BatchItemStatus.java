@@ -0,0 +1,15 @@
+package com.example.stringAnalyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum BatchItemStatus {
+
+    @JsonProperty("created")
+    CREATED,
+
+    @JsonProperty("duplicate")
+    DUPLICATE,
+
+    @JsonProperty("invalid")
+    INVALID
+}
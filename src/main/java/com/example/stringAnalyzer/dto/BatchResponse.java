@@ -0,0 +1,18 @@
+package com.example.stringAnalyzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+
+    private List<BatchItemResult> results;
+    private int created;
+    private int duplicates;
+    private int invalid;
+}
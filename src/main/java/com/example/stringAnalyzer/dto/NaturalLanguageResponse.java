@@ -1,5 +1,6 @@
 package com.example.stringAnalyzer.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,4 +18,8 @@ public class NaturalLanguageResponse {
 
     @JsonProperty("interpreted_query")
     private InterpretedQuery interpretedQuery;
+
+    @JsonProperty("next_cursor")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
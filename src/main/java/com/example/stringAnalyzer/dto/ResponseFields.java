@@ -0,0 +1,87 @@
+package com.example.stringAnalyzer.dto;
+
+import com.example.stringAnalyzer.exception.InvalidQueryException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The fields a client asked for with {@code fields=}, as a comma-separated list of {@code id},
+ * {@code value}, {@code createdAt}, {@code properties} (all of them) or single properties such
+ * as {@code length} or {@code characterFrequencyMap}. Each field is named by its key in the
+ * response; the snake_case spelling of the analysis spec ({@code created_at},
+ * {@code is_palindrome}, ...) is accepted too. Fields left out are not built at all, so
+ * leaving out the frequency map also saves building it.
+ */
+public final class ResponseFields {
+
+    public static final ResponseFields ALL = new ResponseFields(EnumSet.allOf(Field.class));
+
+    public enum Field {
+        ID("id", "id"),
+        VALUE("value", "value"),
+        CREATED_AT("createdAt", "created_at"),
+        LENGTH("length", "length"),
+        IS_PALINDROME("palindrome", "is_palindrome"),
+        UNIQUE_CHARACTERS("uniqueCharacters", "unique_characters"),
+        WORD_COUNT("wordCount", "word_count"),
+        SHA256_HASH("sha256Hash", "sha256_hash"),
+        CHARACTER_FREQUENCY_MAP("characterFrequencyMap", "character_frequency_map");
+
+        private static final Set<Field> PROPERTIES = EnumSet.range(LENGTH, CHARACTER_FREQUENCY_MAP);
+
+        // The key in the response, and the spec's name for the same field
+        private final String key;
+        private final String parameter;
+
+        Field(String key, String parameter) {
+            this.key = key;
+            this.parameter = parameter;
+        }
+    }
+
+    private final Set<Field> fields;
+
+    private ResponseFields(Set<Field> fields) {
+        this.fields = fields;
+    }
+
+    // Null or blank selects every field
+    public static ResponseFields parse(String fields) throws InvalidQueryException {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<Field> selected = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.equals("properties")) {
+                selected.addAll(Field.PROPERTIES);
+                continue;
+            }
+            Field field = null;
+            for (Field candidate : Field.values()) {
+                if (candidate.key.equals(trimmed) || candidate.parameter.equals(trimmed)) {
+                    field = candidate;
+                }
+            }
+            if (field == null) {
+                throw new InvalidQueryException("Unknown field '" + trimmed + "'");
+            }
+            selected.add(field);
+        }
+        return new ResponseFields(selected);
+    }
+
+    public boolean includes(Field field) {
+        return fields.contains(field);
+    }
+
+    public boolean includesAnyProperty() {
+        for (Field field : Field.PROPERTIES) {
+            if (fields.contains(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.stringAnalyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarStringResponse {
+
+    @JsonUnwrapped
+    private StringResponse string;
+    private double similarity;
+}
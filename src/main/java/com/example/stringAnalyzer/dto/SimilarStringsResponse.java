@@ -0,0 +1,18 @@
+package com.example.stringAnalyzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarStringsResponse {
+
+    private String value;
+    private double threshold;
+    private List<SimilarStringResponse> data;
+    private Integer count;
+}
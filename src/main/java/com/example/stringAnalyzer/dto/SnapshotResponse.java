@@ -0,0 +1,21 @@
+package com.example.stringAnalyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SnapshotResponse {
+
+    private String file;
+    private long strings;
+    // Only for imports: strings inserted, and strings skipped since their value was stored already
+    private Long imported;
+    private Long duplicates;
+    private long bytes;
+    private long elapsedMillis;
+}
@@ -1,5 +1,7 @@
 package com.example.stringAnalyzer.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,4 +17,8 @@ public class StringListResponse {
     private List<StringResponse> data;
     private Integer count;
     private Map<String, Object> filtersApplied;
+
+    @JsonProperty("next_cursor")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
@@ -1,20 +1,25 @@
 package com.example.stringAnalyzer.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.Map;
 
+// Properties left out with fields= stay null and are not written
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class StringProperties {
 
-    private int length;
-    private boolean isPalindrome;
-    private int uniqueCharacters;
-    private int wordCount;
+    private Integer length;
+    @JsonProperty("palindrome")
+    private Boolean isPalindrome;
+    private Integer uniqueCharacters;
+    private Integer wordCount;
     private String sha256Hash;
     private Map<String, Integer> characterFrequencyMap;
 }
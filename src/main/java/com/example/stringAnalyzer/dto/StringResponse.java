@@ -1,6 +1,8 @@
 package com.example.stringAnalyzer.dto;
 
+import com.example.stringAnalyzer.dto.ResponseFields.Field;
 import com.example.stringAnalyzer.model.AnalyzedString;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -9,10 +11,34 @@ import java.time.LocalDateTime;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class StringResponse {
 
     private String id;
     private String value;
     private StringProperties properties;
    private LocalDateTime createdAt;
-}
\ No newline at end of file
+
+    // Only the selected fields are built; the hex hash is shared by id and sha256_hash
+    public static StringResponse of(AnalyzedString analyzed, ResponseFields fields) {
+        String hash = fields.includes(Field.ID) || fields.includes(Field.SHA256_HASH) ? analyzed.getSha256Hash() : null;
+        StringProperties properties = null;
+        if (fields.includesAnyProperty()) {
+            properties = new StringProperties(
+                    fields.includes(Field.LENGTH) ? analyzed.getLength() : null,
+                    fields.includes(Field.IS_PALINDROME) ? analyzed.getIsPalindrome() : null,
+                    fields.includes(Field.UNIQUE_CHARACTERS) ? analyzed.getUniqueCharacters() : null,
+                    fields.includes(Field.WORD_COUNT) ? analyzed.getWordCount() : null,
+                    fields.includes(Field.SHA256_HASH) ? hash : null,
+                    fields.includes(Field.CHARACTER_FREQUENCY_MAP) ? analyzed.getCharacterFrequencyMap() : null
+            );
+        }
+
+        return new StringResponse(
+                fields.includes(Field.ID) ? hash : null,
+                fields.includes(Field.VALUE) ? analyzed.getValue() : null,
+                properties,
+                fields.includes(Field.CREATED_AT) ? analyzed.getCreatedAt() : null
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.stringAnalyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StringStatsResponse {
+
+    private long count;
+
+    private long palindromes;
+
+    @JsonProperty("palindrome_ratio")
+    private double palindromeRatio;
+
+    @JsonProperty("average_length")
+    private double averageLength;
+
+    @JsonProperty("average_word_count")
+    private double averageWordCount;
+
+    // Keyed by length range, e.g. "8-15"
+    @JsonProperty("length_histogram")
+    private Map<String, Long> lengthHistogram;
+
+    @JsonProperty("word_count_distribution")
+    private Map<String, Long> wordCountDistribution;
+
+    // Occurrences of each character over all stored strings, most frequent first
+    @JsonProperty("character_frequencies")
+    private Map<String, Long> characterFrequencies;
+}
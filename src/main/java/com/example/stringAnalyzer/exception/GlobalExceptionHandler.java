@@ -91,4 +91,43 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
+
+    @ExceptionHandler(ShardUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleShardUnavailable(
+            ShardUnavailableException e) {
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", 503);
+        error.put("error", "Service Unavailable");
+        error.put("message", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    @ExceptionHandler(ValueTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> handleValueTooLarge(
+            ValueTooLargeException e) {
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", 413);
+        error.put("error", "Payload Too Large");
+        error.put("message", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+    }
+
+    @ExceptionHandler(InvalidExportException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidExport(
+            InvalidExportException e) {
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", 422);
+        error.put("error", "Unprocessable Entity");
+        error.put("message", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
 }
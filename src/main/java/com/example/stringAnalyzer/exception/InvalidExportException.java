@@ -0,0 +1,10 @@
+package com.example.stringAnalyzer.exception;
+
+import java.io.IOException;
+
+// A file that is not an export, has an unsupported version or fails its checksums; answered with 422
+public class InvalidExportException extends IOException {
+    public InvalidExportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.stringAnalyzer.exception;
+
+// Unchecked, since it surfaces from StringStorage methods; answered with 503
+public class ShardUnavailableException extends RuntimeException {
+    public ShardUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.stringAnalyzer.exception;
+
+// Unchecked, since it is raised while a streamed value is being read; answered with 413
+public class ValueTooLargeException extends RuntimeException {
+    public ValueTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -3,26 +3,112 @@ package com.example.stringAnalyzer.model;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.Map;
 
+/**
+ * A stored string and its computed properties, laid out to keep per-entry heap small: numbers
+ * are primitives, the SHA-256 hash is kept once as 32 raw bytes (the id is its hex form), the
+ * creation time is two primitives and the character counts stay a packed table. The hex
+ * strings, {@link LocalDateTime} and frequency map are only built when a response asks for them.
+ */
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class AnalyzedString {
 
-    private String id;
+    private static final HexFormat HEX = HexFormat.of();
+
     private String value;
-    private Integer length;
-    private Boolean isPalindrome;
-    private Integer uniqueCharacters;
-    private Integer wordCount;
-    private String sha256Hash;
-    private Map<String, Integer> characterFrequencyMap;
-    private LocalDateTime createdAt;
+    private int length;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean palindrome;
+    private int uniqueCharacters;
+    private int wordCount;
+    @Setter(AccessLevel.NONE)
+    private byte[] sha256;
+    // Creation time as UTC epoch second and nanos
+    @Setter(AccessLevel.NONE)
+    private long createdAtSecond;
+    @Setter(AccessLevel.NONE)
+    private int createdAtNano;
+    private CharacterFrequencyTable characterFrequencies;
+    @Getter(AccessLevel.NONE)
+    private CharacterSignature characterSignature;
+    // Computed at analysis time; strings read back from records get theirs from the storage
+    private MinHash minHash;
 
     public AnalyzedString(String value) {
         this.value = value;
-        this.createdAt = LocalDateTime.now();
+        setCreatedAt(LocalDateTime.now());
+    }
+
+    public String getId() {
+        return getSha256Hash();
+    }
+
+    public String getSha256Hash() {
+        return sha256 == null ? null : HEX.formatHex(sha256);
+    }
+
+    public void setSha256(byte[] sha256) {
+        if (sha256.length != 32) {
+            throw new IllegalArgumentException("SHA-256 hash must be 32 bytes");
+        }
+        this.sha256 = sha256;
+    }
+
+    // Accepts the 64-character hex form used as the public id
+    public void setSha256Hash(String hex) {
+        setSha256(HEX.parseHex(hex));
+    }
+
+    public boolean getIsPalindrome() {
+        return palindrome;
+    }
+
+    public void setIsPalindrome(boolean palindrome) {
+        this.palindrome = palindrome;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return LocalDateTime.ofEpochSecond(createdAtSecond, createdAtNano, ZoneOffset.UTC);
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        setCreatedAt(createdAt.toEpochSecond(ZoneOffset.UTC), createdAt.getNano());
+    }
+
+    public void setCreatedAt(long epochSecond, int nano) {
+        this.createdAtSecond = epochSecond;
+        this.createdAtNano = nano;
+    }
+
+    // Derived from the frequency table on first use when it was not set explicitly
+    public CharacterSignature getCharacterSignature() {
+        CharacterSignature signature = characterSignature;
+        if (signature == null && characterFrequencies != null) {
+            signature = CharacterSignature.of(characterFrequencies);
+            characterSignature = signature;
+        }
+        return signature;
+    }
+
+    // Built on every call; nothing keeps the map once the response is written
+    public Map<String, Integer> getCharacterFrequencyMap() {
+        return characterFrequencies == null ? null : characterFrequencies.toMap();
+    }
+
+    // Orders by creation time and then by hash without materializing either
+    static int compareCreatedAt(AnalyzedString a, AnalyzedString b) {
+        int bySecond = Long.compare(a.createdAtSecond, b.createdAtSecond);
+        return bySecond != 0 ? bySecond : Integer.compare(a.createdAtNano, b.createdAtNano);
+    }
+
+    static int compareId(AnalyzedString a, AnalyzedString b) {
+        return Arrays.compareUnsigned(a.sha256, b.sha256);
     }
 }
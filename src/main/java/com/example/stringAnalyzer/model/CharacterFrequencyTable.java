@@ -0,0 +1,135 @@
+package com.example.stringAnalyzer.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Occurrence count per code point in order of first appearance, packed into a single primitive
+ * array of (code point, count) pairs.
+ */
+public final class CharacterFrequencyTable {
+
+    private final int[] pairs;
+
+    // pairs holds code point i at 2 * i and its count at 2 * i + 1
+    public CharacterFrequencyTable(int[] pairs) {
+        if ((pairs.length & 1) != 0) {
+            throw new IllegalArgumentException("Frequency table needs (code point, count) pairs");
+        }
+        this.pairs = pairs;
+    }
+
+    public int size() {
+        return pairs.length >> 1;
+    }
+
+    public int codePointAt(int index) {
+        return pairs[index << 1];
+    }
+
+    public int countAt(int index) {
+        return pairs[(index << 1) + 1];
+    }
+
+    public Map<String, Integer> toMap() {
+        int size = size();
+        Map<String, Integer> frequencyMap = new LinkedHashMap<>(Math.max(16, size * 4 / 3 + 1));
+        for (int i = 0; i < pairs.length; i += 2) {
+            frequencyMap.put(Character.toString(pairs[i]), pairs[i + 1]);
+        }
+        return frequencyMap;
+    }
+
+    /**
+     * Accumulates counts without boxing: ASCII goes through a direct lookup table and every
+     * other code point through a small open-addressing hash table.
+     */
+    public static final class Counter {
+
+        private static final int ASCII = 128;
+
+        private final int[] asciiIndex = new int[ASCII];
+        private int[] keys = new int[16];
+        private int[] indexes = new int[16];
+        private int used;
+
+        private int[] codePoints = new int[16];
+        private int[] counts = new int[16];
+        private int size;
+
+        public void add(int codePoint) {
+            if (codePoint < ASCII) {
+                int index = asciiIndex[codePoint];
+                if (index == 0) {
+                    asciiIndex[codePoint] = append(codePoint) + 1;
+                } else {
+                    counts[index - 1]++;
+                }
+                return;
+            }
+
+            int mask = keys.length - 1;
+            int slot = mix(codePoint) & mask;
+            while (indexes[slot] != 0) {
+                if (keys[slot] == codePoint) {
+                    counts[indexes[slot] - 1]++;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = codePoint;
+            indexes[slot] = append(codePoint) + 1;
+            if (++used * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        public int distinct() {
+            return size;
+        }
+
+        public CharacterFrequencyTable build() {
+            int[] pairs = new int[size * 2];
+            for (int i = 0; i < size; i++) {
+                pairs[2 * i] = codePoints[i];
+                pairs[2 * i + 1] = counts[i];
+            }
+            return new CharacterFrequencyTable(pairs);
+        }
+
+        private int append(int codePoint) {
+            if (size == codePoints.length) {
+                codePoints = Arrays.copyOf(codePoints, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            codePoints[size] = codePoint;
+            counts[size] = 1;
+            return size++;
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys;
+            int[] oldIndexes = indexes;
+            keys = new int[oldKeys.length * 2];
+            indexes = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldIndexes[i] != 0) {
+                    int slot = mix(oldKeys[i]) & mask;
+                    while (indexes[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    indexes[slot] = oldIndexes[i];
+                }
+            }
+        }
+
+        private static int mix(int codePoint) {
+            int h = codePoint * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
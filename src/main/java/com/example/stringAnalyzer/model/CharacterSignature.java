@@ -0,0 +1,113 @@
+package com.example.stringAnalyzer.model;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of the (lower-cased) characters that occur in a string. ASCII is kept in two 64-bit
+ * masks and anything above goes into a small sorted array, so a containment check is a bit
+ * test or a binary search and never allocates.
+ */
+@EqualsAndHashCode
+public final class CharacterSignature {
+
+    private static final int[] NO_CODE_POINTS = new int[0];
+
+    private final long lowMask;
+    private final long highMask;
+    private final int[] otherCodePoints;
+
+    private CharacterSignature(long lowMask, long highMask, int[] otherCodePoints) {
+        this.lowMask = lowMask;
+        this.highMask = highMask;
+        this.otherCodePoints = otherCodePoints;
+    }
+
+    public static CharacterSignature of(String value) {
+        Builder builder = new Builder();
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = value.codePointAt(i);
+            i += Character.charCount(codePoint);
+            builder.add(codePoint);
+        }
+        return builder.build();
+    }
+
+    // Derives the signature from already counted characters instead of rescanning the string
+    public static CharacterSignature of(CharacterFrequencyTable frequencies) {
+        Builder builder = new Builder();
+        for (int i = 0; i < frequencies.size(); i++) {
+            builder.add(frequencies.codePointAt(i));
+        }
+        return builder.build();
+    }
+
+    // Characters are compared case-insensitively, like the original toLowerCase().contains(...)
+    public static int normalize(int codePoint) {
+        return Character.toLowerCase(codePoint);
+    }
+
+    public boolean contains(int codePoint) {
+        int c = normalize(codePoint);
+        if (c < 64) {
+            return (lowMask & (1L << c)) != 0;
+        }
+        if (c < 128) {
+            return (highMask & (1L << (c - 64))) != 0;
+        }
+        return Arrays.binarySearch(otherCodePoints, c) >= 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (long mask = lowMask; mask != 0; mask &= mask - 1) {
+            action.accept(Long.numberOfTrailingZeros(mask));
+        }
+        for (long mask = highMask; mask != 0; mask &= mask - 1) {
+            action.accept(64 + Long.numberOfTrailingZeros(mask));
+        }
+        for (int c : otherCodePoints) {
+            action.accept(c);
+        }
+    }
+
+    private static final class Builder {
+        private long low;
+        private long high;
+        private int[] others = NO_CODE_POINTS;
+        private int otherCount;
+
+        void add(int codePoint) {
+            int c = normalize(codePoint);
+            if (c < 64) {
+                low |= 1L << c;
+            } else if (c < 128) {
+                high |= 1L << (c - 64);
+            } else {
+                if (otherCount == others.length) {
+                    others = Arrays.copyOf(others, Math.max(4, otherCount * 2));
+                }
+                others[otherCount++] = c;
+            }
+        }
+
+        CharacterSignature build() {
+            return new CharacterSignature(low, high, distinctSorted(others, otherCount));
+        }
+    }
+
+    private static int[] distinctSorted(int[] codePoints, int count) {
+        if (count == 0) {
+            return NO_CODE_POINTS;
+        }
+        Arrays.sort(codePoints, 0, count);
+        int distinct = 1;
+        for (int i = 1; i < count; i++) {
+            if (codePoints[i] != codePoints[distinct - 1]) {
+                codePoints[distinct++] = codePoints[i];
+            }
+        }
+        return Arrays.copyOf(codePoints, distinct);
+    }
+}
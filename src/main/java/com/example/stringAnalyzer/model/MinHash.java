@@ -0,0 +1,142 @@
+package com.example.stringAnalyzer.model;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.Arrays;
+
+/**
+ * MinHash sketch of a string, for estimating how similar two strings are without comparing
+ * them: the share of equal bins of two sketches estimates the Jaccard similarity of the
+ * strings' shingle sets. Shingles are the case-folded runs of three chars; a shorter string is
+ * a single shingle.
+ * <p>
+ * Built with one permutation hashing: each shingle is hashed once and lands in one of the bins,
+ * which keeps the smallest hash it gets. A sketch therefore costs one pass over the string
+ * whatever its size. A bin no shingle fell into takes the value of the next filled bin to its
+ * right, mixed with the distance, so short strings still compare bin by bin.
+ * <p>
+ * A bin keeps 16 bits of its minimum. Two different minima then agree once in 65536 compares,
+ * far below the sampling error of the sketch, and a sketch of 64 bins fits in 128 bytes.
+ */
+@EqualsAndHashCode
+public final class MinHash {
+
+    public static final int DEFAULT_SIZE = 64;
+    public static final int MAX_SIZE = 1024;
+
+    private static final long EMPTY = Long.MAX_VALUE;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private final char[] bins;
+
+    private MinHash(char[] bins) {
+        this.bins = bins;
+    }
+
+    public static MinHash of(String value, int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Sketch size must be between 1 and " + MAX_SIZE + ", got " + size);
+        }
+        long[] minima = new long[size];
+        Arrays.fill(minima, EMPTY);
+        int length = value.length();
+        if (length < 3) {
+            long shingle = (long) length << 48;
+            for (int i = 0; i < length; i++) {
+                shingle |= (long) fold(value.charAt(i)) << (16 * i);
+            }
+            add(minima, shingle);
+        } else {
+            long shingle = ((long) fold(value.charAt(0)) << 16) | fold(value.charAt(1));
+            for (int i = 2; i < length; i++) {
+                shingle = ((shingle << 16) | fold(value.charAt(i))) & 0xFFFF_FFFF_FFFFL;
+                add(minima, shingle);
+            }
+        }
+
+        // Walks right to left from a filled bin, so every empty bin knows its nearest filled
+        // bin to the right and the distance to it; there is always at least one shingle
+        char[] bins = new char[size];
+        int filled = 0;
+        while (minima[filled] == EMPTY) {
+            filled++;
+        }
+        long nearest = minima[filled];
+        int distance = 0;
+        for (int step = 0; step < size; step++) {
+            int i = Math.floorMod(filled - step, size);
+            if (minima[i] != EMPTY) {
+                nearest = minima[i];
+                distance = 0;
+            } else {
+                distance++;
+            }
+            bins[i] = (char) mix(nearest + distance * GOLDEN);
+        }
+        return new MinHash(bins);
+    }
+
+    // A sketch from bins written out by bins(); the array is kept as it is
+    public static MinHash ofBins(char[] bins) {
+        if (bins.length < 1 || bins.length > MAX_SIZE) {
+            throw new IllegalArgumentException("Sketch size must be between 1 and " + MAX_SIZE + ", got " + bins.length);
+        }
+        return new MinHash(bins);
+    }
+
+    public int size() {
+        return bins.length;
+    }
+
+    public char[] bins() {
+        return bins.clone();
+    }
+
+    // Estimated Jaccard similarity, from 0 to 1
+    public double similarity(MinHash other) {
+        if (other.bins.length != bins.length) {
+            throw new IllegalArgumentException("Sketches of " + bins.length + " and " + other.bins.length + " bins cannot be compared");
+        }
+        int equal = 0;
+        for (int i = 0; i < bins.length; i++) {
+            if (bins[i] == other.bins[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / bins.length;
+    }
+
+    // Hash of the rows bins of one band; sketches with equal bands always get equal hashes
+    public int band(int band, int rows) {
+        long h = band;
+        for (int i = band * rows, end = i + rows; i < end; i++) {
+            h = mix(h * GOLDEN + bins[i]);
+        }
+        return (int) h;
+    }
+
+    // The high half of the hash picks the bin, the low half competes for its minimum
+    private static void add(long[] minima, long shingle) {
+        long h = mix(shingle);
+        int bin = (int) (((h >>> 32) * minima.length) >>> 32);
+        long low = h & 0xFFFF_FFFFL;
+        if (low < minima[bin]) {
+            minima[bin] = low;
+        }
+    }
+
+    // Same folding as a case-insensitive String.regionMatches
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    // Finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
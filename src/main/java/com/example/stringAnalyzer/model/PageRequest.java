@@ -0,0 +1,95 @@
+package com.example.stringAnalyzer.model;
+
+import com.example.stringAnalyzer.exception.InvalidQueryException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Sort order, page size and position for a paged query. The cursor handed to clients is an
+ * opaque token carrying the sort keys of the last returned string, so the next page starts
+ * right after it in the ordered index instead of skipping over the earlier pages.
+ */
+@Value
+public class PageRequest {
+
+    public static final PageRequest UNPAGED = new PageRequest(null, false, null, null);
+
+    private static final String CURSOR_VERSION = "v1";
+
+    SortField sort;
+    boolean descending;
+    Integer limit;
+    // Last string of the previous page; only its sort keys are set
+    AnalyzedString after;
+
+    // sort is a field name, optionally prefixed with '-' for descending order.
+    // A limit or cursor without an explicit sort pages by creation time.
+    public static PageRequest of(String sort, String cursor, Integer limit) throws InvalidQueryException {
+        if (sort == null && cursor == null && limit == null) {
+            return UNPAGED;
+        }
+        if (limit != null && limit <= 0) {
+            throw new InvalidQueryException("limit must be a positive number");
+        }
+
+        boolean descending = sort != null && sort.startsWith("-");
+        SortField field = sort == null ? SortField.CREATED_AT : SortField.fromParameter(descending ? sort.substring(1) : sort);
+        if (field == null) {
+            throw new InvalidQueryException("Invalid sort field: " + sort);
+        }
+
+        AnalyzedString after = cursor == null ? null : decodeCursor(cursor, field, descending);
+        return new PageRequest(field, descending, limit, after);
+    }
+
+    // First page of the given order and size, for walking every page
+    public static PageRequest first(SortField sort, int limit) {
+        return new PageRequest(sort, false, limit, null);
+    }
+
+    public boolean isUnpaged() {
+        return sort == null;
+    }
+
+    // The next page of the same order and size, for walking every page without cursor tokens
+    public PageRequest after(AnalyzedString last) {
+        return new PageRequest(sort, descending, limit, last);
+    }
+
+    public String cursorAfter(AnalyzedString last) {
+        String token = String.join("|", CURSOR_VERSION, sortParameter(sort, descending),
+                String.valueOf(last.getLength()), String.valueOf(last.getWordCount()),
+                last.getCreatedAt().toString(), last.getId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static AnalyzedString decodeCursor(String cursor, SortField sort, boolean descending) throws InvalidQueryException {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = token.split("\\|", -1);
+            if (parts.length != 6 || !CURSOR_VERSION.equals(parts[0])) {
+                throw new InvalidQueryException("Invalid cursor");
+            }
+            if (!sortParameter(sort, descending).equals(parts[1])) {
+                throw new InvalidQueryException("Cursor does not belong to sort order " + sortParameter(sort, descending));
+            }
+
+            AnalyzedString position = new AnalyzedString();
+            position.setLength(Integer.parseInt(parts[2]));
+            position.setWordCount(Integer.parseInt(parts[3]));
+            position.setCreatedAt(LocalDateTime.parse(parts[4]));
+            position.setSha256Hash(parts[5]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidQueryException("Invalid cursor");
+        }
+    }
+
+    private static String sortParameter(SortField sort, boolean descending) {
+        return (descending ? "-" : "") + sort.getParameter();
+    }
+}
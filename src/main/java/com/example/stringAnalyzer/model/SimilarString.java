@@ -0,0 +1,18 @@
+package com.example.stringAnalyzer.model;
+
+import lombok.Value;
+
+import java.util.Comparator;
+
+@Value
+public class SimilarString {
+
+    // Most similar first, ties by id so merged shard results come in a stable order
+    public static final Comparator<SimilarString> ORDER = Comparator
+            .comparingDouble(SimilarString::getSimilarity).reversed()
+            .thenComparing(SimilarString::getString, AnalyzedString::compareId);
+
+    AnalyzedString string;
+    // Estimated Jaccard similarity to the probe, from 0 to 1
+    double similarity;
+}
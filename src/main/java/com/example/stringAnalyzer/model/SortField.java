@@ -0,0 +1,41 @@
+package com.example.stringAnalyzer.model;
+
+import java.util.Comparator;
+
+/**
+ * Orders available for paging through stored strings. Every order is total: ties on the sort
+ * key are broken by creation time and then by id, so a cursor always points at one position.
+ */
+public enum SortField {
+
+    LENGTH("length", Comparator.comparingInt(AnalyzedString::getLength)),
+    CREATED_AT("created_at", (a, b) -> 0),
+    WORD_COUNT("word_count", Comparator.comparingInt(AnalyzedString::getWordCount));
+
+    private final String parameter;
+    private final Comparator<AnalyzedString> order;
+
+    SortField(String parameter, Comparator<AnalyzedString> key) {
+        this.parameter = parameter;
+        this.order = key
+                .thenComparing(AnalyzedString::compareCreatedAt)
+                .thenComparing(AnalyzedString::compareId);
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public Comparator<AnalyzedString> order() {
+        return order;
+    }
+
+    public static SortField fromParameter(String parameter) {
+        for (SortField field : values()) {
+            if (field.parameter.equals(parameter)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
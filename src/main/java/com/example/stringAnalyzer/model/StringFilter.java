@@ -0,0 +1,125 @@
+package com.example.stringAnalyzer.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Filter criteria for stored strings. A null criterion is not applied. Character and substring
+ * criteria ignore case.
+ */
+@Value
+@Builder(toBuilder = true)
+public class StringFilter {
+
+    public static final StringFilter NONE = StringFilter.builder().build();
+
+    Boolean isPalindrome;
+    Integer minLength;
+    Integer maxLength;
+    Integer wordCount;
+    String containsCharacter;
+    String contains;
+    String startsWith;
+    String endsWith;
+
+    public static StringFilter of(Boolean isPalindrome, Integer minLength, Integer maxLength, Integer wordCount, String containsCharacter) {
+        return StringFilter.builder()
+                .isPalindrome(isPalindrome)
+                .minLength(minLength)
+                .maxLength(maxLength)
+                .wordCount(wordCount)
+                .containsCharacter(containsCharacter)
+                .build();
+    }
+
+    public static StringFilter fromMap(Map<String, Object> filters) {
+        return StringFilter.builder()
+                .isPalindrome((Boolean) filters.get("is_palindrome"))
+                .minLength((Integer) filters.get("min_length"))
+                .maxLength((Integer) filters.get("max_length"))
+                .wordCount((Integer) filters.get("word_count"))
+                .containsCharacter((String) filters.get("contains_character"))
+                .contains((String) filters.get("contains"))
+                .startsWith((String) filters.get("starts_with"))
+                .endsWith((String) filters.get("ends_with"))
+                .build();
+    }
+
+    public boolean hasContainsCharacter() {
+        return containsCharacter != null && !containsCharacter.isEmpty();
+    }
+
+    public boolean hasContains() {
+        return contains != null && !contains.isEmpty();
+    }
+
+    public boolean hasStartsWith() {
+        return startsWith != null && !startsWith.isEmpty();
+    }
+
+    public boolean hasEndsWith() {
+        return endsWith != null && !endsWith.isEmpty();
+    }
+
+    public boolean matches(AnalyzedString s) {
+        return (isPalindrome == null || s.getIsPalindrome() == isPalindrome)
+                && (minLength == null || s.getLength() >= minLength)
+                && (maxLength == null || s.getLength() <= maxLength)
+                && (wordCount == null || s.getWordCount() == wordCount)
+                && (!hasContainsCharacter() || containsCharacterIn(s))
+                && (!hasContains() || containsIgnoreCase(s.getValue(), contains))
+                && (!hasStartsWith() || s.getValue().regionMatches(true, 0, startsWith, 0, startsWith.length()))
+                && (!hasEndsWith() || s.getValue().regionMatches(true, s.getValue().length() - endsWith.length(), endsWith, 0, endsWith.length()));
+    }
+
+    private boolean containsCharacterIn(AnalyzedString s) {
+        int first = containsCharacter.codePointAt(0);
+        if (Character.charCount(first) == containsCharacter.length()) {
+            return s.getCharacterSignature().contains(first);
+        }
+        return containsIgnoreCase(s.getValue(), containsCharacter);
+    }
+
+    private static boolean containsIgnoreCase(String value, String part) {
+        for (int i = 0; i + part.length() <= value.length(); i++) {
+            if (value.regionMatches(true, i, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> filters = new HashMap<>();
+
+        if (isPalindrome != null) {
+            filters.put("is_palindrome", isPalindrome);
+        }
+        if (minLength != null) {
+            filters.put("min_length", minLength);
+        }
+        if (maxLength != null) {
+            filters.put("max_length", maxLength);
+        }
+        if (wordCount != null) {
+            filters.put("word_count", wordCount);
+        }
+        if (containsCharacter != null) {
+            filters.put("contains_character", containsCharacter);
+        }
+        if (contains != null) {
+            filters.put("contains", contains);
+        }
+        if (startsWith != null) {
+            filters.put("starts_with", startsWith);
+        }
+        if (endsWith != null) {
+            filters.put("ends_with", endsWith);
+        }
+
+        return filters;
+    }
+}
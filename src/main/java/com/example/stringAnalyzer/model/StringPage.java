@@ -0,0 +1,13 @@
+package com.example.stringAnalyzer.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class StringPage {
+
+    List<AnalyzedString> items;
+    // Null when there are no further matches
+    String nextCursor;
+}
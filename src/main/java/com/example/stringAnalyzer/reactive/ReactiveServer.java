@@ -0,0 +1,132 @@
+package com.example.stringAnalyzer.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+
+/**
+ * Serves the API a second time, reactively, from Netty on its own port. The application itself
+ * stays a servlet application; this server shares its storage, services and Jackson settings,
+ * so a string created through either API is visible through both. Off unless
+ * {@code string-analyzer.reactive.enabled} is set.
+ * <p>
+ * Responses are compressed under the same {@code server.compression} settings as the servlet
+ * API. Actuator metrics only cover the servlet API.
+ */
+@Component
+@ConditionalOnProperty(name = "string-analyzer.reactive.enabled", havingValue = "true")
+public class ReactiveServer implements SmartLifecycle {
+
+    // Only an explicit NDJSON Accept; a wildcard gets the JSON list, as with the servlet API
+    private static final RequestPredicate ACCEPTS_NDJSON = request -> request.headers().accept().stream()
+            .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+
+    private final ReactiveStringHandler handler;
+    private final ObjectMapper objectMapper;
+    private final ServerProperties server;
+    private final int port;
+    private final DataSize maxInMemorySize;
+
+    private volatile DisposableServer running;
+
+    public ReactiveServer(ReactiveStringHandler handler, ObjectMapper objectMapper, ServerProperties server,
+                          @Value("${string-analyzer.reactive.port:8081}") int port,
+                          @Value("${string-analyzer.reactive.max-in-memory-size:16MB}") DataSize maxInMemorySize) {
+        this.handler = handler;
+        this.objectMapper = objectMapper;
+        this.server = server;
+        this.port = port;
+        this.maxInMemorySize = maxInMemorySize;
+    }
+
+    // Fixed routes come before /strings/{string_value}, which would match them too
+    RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .POST("/strings/batch", contentType(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON), handler::analyzeAndSaveBatch)
+                .POST("/strings", contentType(MediaType.TEXT_PLAIN), handler::analyzeAndSaveStream)
+                .POST("/strings", handler::analyzeAndSaveString)
+                .GET("/strings/stats", handler::getStatistics)
+                .GET("/strings/filter-by-natural-language", handler::filterByNaturalLanguage)
+                .GET("/strings/{string_value}/similar", handler::getSimilarStrings)
+                .GET("/strings/{string_value}", handler::getString)
+                .GET("/strings", ACCEPTS_NDJSON, handler::streamStringsWithFilter)
+                .GET("/strings", handler::getStringsWithFilter)
+                .DELETE("/strings/{string_value}", handler::deleteString)
+                .onError(Throwable.class, (error, request) -> handler.error(error))
+                .build();
+    }
+
+    HttpHandler httpHandler() {
+        int limit = (int) Math.min(maxInMemorySize.toBytes(), Integer.MAX_VALUE);
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                    codecs.defaultCodecs().maxInMemorySize(limit);
+                })
+                .build();
+
+        // Same as @CrossOrigin(origins = "*") on the servlet controller
+        CorsConfiguration cors = new CorsConfiguration().applyPermitDefaultValues();
+        cors.addAllowedMethod(HttpMethod.DELETE);
+        UrlBasedCorsConfigurationSource corsSource = new UrlBasedCorsConfigurationSource();
+        corsSource.registerCorsConfiguration("/strings/**", cors);
+        corsSource.registerCorsConfiguration("/strings", cors);
+
+        return WebHttpHandlerBuilder
+                .webHandler(RouterFunctions.toWebHandler(routes(), strategies))
+                .filter(new CorsWebFilter(corsSource))
+                .build();
+    }
+
+    public int getPort() {
+        DisposableServer current = running;
+        return current != null ? current.port() : port;
+    }
+
+    @Override
+    public void start() {
+        HttpServer http = HttpServer.create().port(port);
+        if (server.getCompression().getEnabled()) {
+            http = http.compress((int) server.getCompression().getMinResponseSize().toBytes());
+        }
+        running = http.handle(new ReactorHttpHandlerAdapter(httpHandler())).bindNow();
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer current = running;
+        if (current != null) {
+            current.disposeNow();
+            running = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running != null;
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.stringAnalyzer.reactive;
+
+import com.example.stringAnalyzer.dto.BatchItemResult;
+import com.example.stringAnalyzer.dto.ResponseFields;
+import com.example.stringAnalyzer.dto.StringListResponse;
+import com.example.stringAnalyzer.dto.StringRequest;
+import com.example.stringAnalyzer.dto.StringResponse;
+import com.example.stringAnalyzer.exception.InvalidQueryException;
+import com.example.stringAnalyzer.exception.ShardUnavailableException;
+import com.example.stringAnalyzer.exception.StringAlreadyExistsException;
+import com.example.stringAnalyzer.exception.StringNotFoundException;
+import com.example.stringAnalyzer.exception.ValueTooLargeException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import com.example.stringAnalyzer.service.BatchIngestionService;
+import com.example.stringAnalyzer.service.NaturalLanguageProcessor;
+import com.example.stringAnalyzer.service.StringAnalyzerService;
+import com.example.stringAnalyzer.service.StringStatistics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Handlers of the reactive API, with the routes, parameters and bodies of
+ * {@code StringAnalyzerController}. Storage and analysis calls block, so each runs on the
+ * bounded elastic scheduler and no event loop thread ever waits on them.
+ * <p>
+ * A GET /strings without {@code limit} streams every match: pages of {@code chunk-size} strings
+ * are read from the storage's sorted index only when the client has taken the previous ones, so
+ * a slow client holds one page in memory and no thread. Batch ingestion reads the body as a
+ * stream of values and ingests a chunk before reading more of it.
+ */
+@Component
+@ConditionalOnProperty(name = "string-analyzer.reactive.enabled", havingValue = "true")
+public class ReactiveStringHandler {
+
+    private static final ConversionService CONVERSIONS = DefaultConversionService.getSharedInstance();
+    private static final DataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+    private static final byte[] NEWLINE = {'\n'};
+
+    @Autowired
+    StringAnalyzerService analyzerService;
+
+    @Autowired
+    NaturalLanguageProcessor naturalLanguageProcessor;
+
+    @Autowired
+    BatchIngestionService batchIngestionService;
+
+    @Autowired
+    StringStatistics statistics;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${string-analyzer.reactive.chunk-size:256}")
+    int chunkSize = 256;
+
+    public Mono<ServerResponse> analyzeAndSaveString(ServerRequest request) {
+        return request.bodyToMono(StringRequest.class)
+                .filter(body -> body.getValue() != null)
+                .switchIfEmpty(Mono.error(new MissingValueException()))
+                .flatMap(body -> blocking(() -> analyzerService.createAndSave(body.getValue())))
+                .flatMap(response -> ServerResponse.status(HttpStatus.CREATED).bodyValue(response));
+    }
+
+    // The whole body is the value, analyzed as it arrives; the analysis pulls a few buffers at a time
+    public Mono<ServerResponse> analyzeAndSaveStream(ServerRequest request) {
+        Charset charset = request.headers().contentType()
+                .map(MediaType::getCharset)
+                .orElse(StandardCharsets.UTF_8);
+        long contentLength = request.headers().contentLength().orElse(-1);
+        return blocking(() -> {
+                    try (InputStream body = DataBufferUtils.subscriberInputStream(request.body(BodyExtractors.toDataBuffers()), 4)) {
+                        return analyzerService.createAndSave(body, charset, contentLength);
+                    }
+                })
+                .flatMap(response -> ServerResponse.status(HttpStatus.CREATED).bodyValue(response));
+    }
+
+    // Values are ingested a chunk at a time, and the next chunk is only read once the last one is stored
+    public Mono<ServerResponse> analyzeAndSaveBatch(ServerRequest request) {
+        int size = batchIngestionService.getChunkSize();
+        AtomicInteger received = new AtomicInteger();
+        AtomicReference<String> malformed = new AtomicReference<>();
+
+        return request.bodyToFlux(JsonNode.class)
+                .doOnNext(node -> received.incrementAndGet())
+                // Everything read so far is still ingested, as with the servlet endpoint
+                .onErrorResume(e -> NestedExceptionUtils.getMostSpecificCause(e) instanceof JsonProcessingException, e -> {
+                    malformed.set(((JsonProcessingException) NestedExceptionUtils.getMostSpecificCause(e)).getOriginalMessage());
+                    return Mono.empty();
+                })
+                .buffer(size)
+                .index()
+                .concatMap(chunk -> blocking(() -> batchIngestionService.ingestChunk(chunk.getT2(), (int) (chunk.getT1() * size))), 1)
+                .collect(ArrayList<BatchItemResult>::new, List::addAll)
+                .map(results -> {
+                    if (malformed.get() != null) {
+                        results.add(BatchIngestionService.malformed(received.get(), malformed.get()));
+                    }
+                    return BatchIngestionService.summarize(results);
+                })
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    public Mono<ServerResponse> getStatistics(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(statistics.summary());
+    }
+
+    public Mono<ServerResponse> getString(ServerRequest request) {
+        return blocking(() -> analyzerService.findString(request.pathVariable("string_value"), fields(request)))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    public Mono<ServerResponse> getSimilarStrings(ServerRequest request) {
+        return blocking(() -> analyzerService.findSimilar(request.pathVariable("string_value"),
+                        param(request, "threshold", Double.class, 0.5), fields(request)))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    // A page when limit is set, as with the servlet endpoint; otherwise every match, streamed
+    public Mono<ServerResponse> getStringsWithFilter(ServerRequest request) {
+        return blocking(() -> new Query(request, chunkSize))
+                .flatMap(query -> {
+                    if (query.page.getLimit() != null) {
+                        return blocking(() -> analyzerService.getAllStrings(query.filter, query.page, query.fields))
+                                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+                    }
+                    AtomicInteger count = new AtomicInteger();
+                    Flux<DataBuffer> body = Flux.concat(
+                            Mono.fromCallable(() -> listHead()),
+                            responses(query).map(response -> encode(count.getAndIncrement() == 0 ? null : ",", response)),
+                            Mono.fromCallable(() -> listTail(count.get(), query.filter)));
+                    return ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(BodyInserters.fromDataBuffers(body));
+                });
+    }
+
+    // NDJSON; a limited page carries its next cursor in X-Next-Cursor. A stream of every match has
+    // no X-Total-Count, since the count is only known at its end
+    public Mono<ServerResponse> streamStringsWithFilter(ServerRequest request) {
+        return blocking(() -> new Query(request, chunkSize))
+                .flatMap(query -> {
+                    if (query.page.getLimit() != null) {
+                        return blocking(() -> analyzerService.findMatches(query.filter, query.page))
+                                .flatMap(page -> {
+                                    ServerResponse.BodyBuilder response = ServerResponse.ok()
+                                            .contentType(MediaType.APPLICATION_NDJSON)
+                                            .header("X-Total-Count", String.valueOf(page.getItems().size()));
+                                    if (page.getNextCursor() != null) {
+                                        response.header("X-Next-Cursor", page.getNextCursor());
+                                    }
+                                    return response.body(BodyInserters.fromDataBuffers(Flux.fromIterable(page.getItems())
+                                            .map(analyzed -> encodeLine(StringResponse.of(analyzed, query.fields)))));
+                                });
+                    }
+                    return ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .body(BodyInserters.fromDataBuffers(responses(query).map(this::encodeLine)));
+                });
+    }
+
+    public Mono<ServerResponse> filterByNaturalLanguage(ServerRequest request) {
+        return blocking(() -> {
+                    String query = request.queryParam("query").orElse(null);
+                    if (query == null || query.trim().isEmpty()) {
+                        throw new InvalidQueryException("Unable to parse natural language query");
+                    }
+                    return naturalLanguageProcessor.processNaturalLanguageQuery(query, page(request), fields(request));
+                })
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    public Mono<ServerResponse> deleteString(ServerRequest request) {
+        return blocking(() -> {
+                    analyzerService.deleteString(request.pathVariable("string_value"));
+                    return true;
+                })
+                .flatMap(deleted -> ServerResponse.noContent().build());
+    }
+
+    /**
+     * Every match of the query in sort order, read from storage one page of {@code chunkSize}
+     * strings at a time. The generator only reads a page when the one before it has been taken
+     * downstream, so demand from the client's connection paces the storage reads.
+     */
+    Flux<StringResponse> responses(Query query) {
+        return Flux.<List<AnalyzedString>, PageRequest>generate(() -> query.firstChunk, (page, sink) -> {
+                    if (page == null) {
+                        sink.complete();
+                        return null;
+                    }
+                    StringPage result = analyzerService.scanMatches(query.filter, page);
+                    List<AnalyzedString> items = result.getItems();
+                    if (items.isEmpty()) {
+                        sink.complete();
+                        return null;
+                    }
+                    sink.next(items);
+                    return result.getNextCursor() == null ? null : page.after(items.get(items.size() - 1));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .concatMapIterable(items -> items, 1)
+                .map(analyzed -> StringResponse.of(analyzed, query.fields));
+    }
+
+    // Maps failures to the same status codes and bodies as the servlet API's exception handler
+    public Mono<ServerResponse> error(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof StringAlreadyExistsException) {
+                return error(HttpStatus.CONFLICT, cause.getMessage());
+            }
+            if (cause instanceof StringNotFoundException) {
+                return error(HttpStatus.NOT_FOUND, cause.getMessage());
+            }
+            if (cause instanceof InvalidQueryException) {
+                return error(HttpStatus.BAD_REQUEST, cause.getMessage());
+            }
+            if (cause instanceof MissingValueException) {
+                return error(HttpStatus.BAD_REQUEST, "Invalid request body or missing 'value' field");
+            }
+            if (cause instanceof ConversionException) {
+                return error(HttpStatus.BAD_REQUEST, "Invalid query parameter values or types");
+            }
+            if (cause instanceof ShardUnavailableException) {
+                return error(HttpStatus.SERVICE_UNAVAILABLE, cause.getMessage());
+            }
+            if (cause instanceof ValueTooLargeException || cause instanceof DataBufferLimitException) {
+                return error(HttpStatus.PAYLOAD_TOO_LARGE, cause.getMessage());
+            }
+            if (cause instanceof IllegalArgumentException) {
+                return error(HttpStatus.UNPROCESSABLE_ENTITY, cause.getMessage());
+            }
+        }
+        return Mono.error(error);
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", status.value());
+        error.put("error", status.getReasonPhrase());
+        error.put("message", message);
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(error);
+    }
+
+    private static <T> Mono<T> blocking(BlockingCall<T> call) {
+        return Mono.fromCallable(() -> {
+                    try {
+                        return call.call();
+                    } catch (StringNotFoundException e) {
+                        // A Throwable, which a Callable cannot throw; error() finds it as the cause
+                        throw new RuntimeException(e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // The list response is written around the streamed items: the opening up to the data array,
+    // then the items, then the fields after it, taken from the mapper so the names always match
+    private DataBuffer listHead() throws Exception {
+        return BUFFERS.wrap(listJson(0, Map.of()).substring(0, listDataEnd()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private DataBuffer listTail(int count, StringFilter filter) throws Exception {
+        return BUFFERS.wrap(listJson(count, filter.toMap()).substring(listDataEnd()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String listJson(int count, Map<String, Object> filters) throws Exception {
+        return objectMapper.writeValueAsString(new StringListResponse(Collections.emptyList(), count, filters, null));
+    }
+
+    // Position of the closing bracket of the empty data array, which is the first field
+    private int listDataEnd() throws Exception {
+        String empty = listJson(0, Map.of());
+        int end = empty.indexOf("[]") + 1;
+        if (end == 0) {
+            throw new IllegalStateException("Unexpected list response layout: " + empty);
+        }
+        return end;
+    }
+
+    private DataBuffer encode(String separator, StringResponse response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            DataBuffer buffer = BUFFERS.allocateBuffer(json.length + 1);
+            if (separator != null) {
+                buffer.write(separator, StandardCharsets.UTF_8);
+            }
+            return buffer.write(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not write response", e);
+        }
+    }
+
+    private DataBuffer encodeLine(StringResponse response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            return BUFFERS.allocateBuffer(json.length + 1).write(json).write(NEWLINE);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not write response", e);
+        }
+    }
+
+    private static <T> T param(ServerRequest request, String name, Class<T> type, T defaultValue) {
+        return request.queryParam(name).map(value -> CONVERSIONS.convert(value, type)).orElse(defaultValue);
+    }
+
+    private static PageRequest page(ServerRequest request) throws InvalidQueryException {
+        return PageRequest.of(request.queryParam("sort").orElse(null), request.queryParam("cursor").orElse(null),
+                param(request, "limit", Integer.class, null));
+    }
+
+    private static ResponseFields fields(ServerRequest request) throws InvalidQueryException {
+        return ResponseFields.parse(request.queryParam("fields").orElse(null));
+    }
+
+    // The query parameters of GET /strings
+    static final class Query {
+        final StringFilter filter;
+        final PageRequest page;
+        final ResponseFields fields;
+        // Same order and start as the request, in pages of the chunk size
+        final PageRequest firstChunk;
+
+        Query(ServerRequest request, int chunkSize) throws InvalidQueryException {
+            this.filter = StringFilter.of(
+                            param(request, "is_palindrome", Boolean.class, null),
+                            param(request, "min_length", Integer.class, null),
+                            param(request, "max_length", Integer.class, null),
+                            param(request, "word_count", Integer.class, null),
+                            request.queryParam("contains_character").orElse(null)).toBuilder()
+                    .contains(request.queryParam("contains").orElse(null))
+                    .startsWith(request.queryParam("starts_with").orElse(null))
+                    .endsWith(request.queryParam("ends_with").orElse(null))
+                    .build();
+            this.page = page(request);
+            this.fields = fields(request);
+            this.firstChunk = PageRequest.of(request.queryParam("sort").orElse(null), request.queryParam("cursor").orElse(null), chunkSize);
+        }
+    }
+
+    private interface BlockingCall<T> {
+        T call() throws Exception, StringNotFoundException;
+    }
+
+    // A JSON body without a value, as with a failed @Valid check on the servlet endpoint
+    private static final class MissingValueException extends RuntimeException {
+    }
+}
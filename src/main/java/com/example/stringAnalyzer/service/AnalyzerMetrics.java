@@ -0,0 +1,97 @@
+package com.example.stringAnalyzer.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters on the request hot path, published with percentile histograms so latency can be
+ * broken down per stage from the Prometheus endpoint:
+ * <ul>
+ * <li>{@code strings.create} by {@code stage}: analysis, hashing and storage insert,</li>
+ * <li>{@code strings.nl.plan} for a natural language query from normalizing to plan, and
+ * {@code strings.nl.parse} for the parses on plan cache misses,</li>
+ * <li>{@code strings.response.size}, the body bytes written per method and route.</li>
+ * </ul>
+ * Cache hit rates and storage sizes are published by {@link CacheMetrics} and
+ * {@code StorageMetrics}.
+ */
+@Component
+public class AnalyzerMetrics {
+
+    /** Records into a registry nobody reads; for services built outside Spring. */
+    public static final AnalyzerMetrics NONE = new AnalyzerMetrics(new CompositeMeterRegistry());
+
+    private final MeterRegistry registry;
+    private final Timer analysis;
+    private final Timer hashing;
+    private final Timer insert;
+    private final Timer nlPlan;
+    private final Timer nlParse;
+    // Built on first use per route; the registry lookup is too costly for every response
+    private final Map<Route, DistributionSummary> responseSizes = new ConcurrentHashMap<>();
+
+    public AnalyzerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.analysis = createStage(registry, "analysis");
+        this.hashing = createStage(registry, "hashing");
+        this.insert = createStage(registry, "insert");
+        this.nlPlan = Timer.builder("strings.nl.plan")
+                .description("Natural language query planning, including plan cache lookups")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.nlParse = Timer.builder("strings.nl.parse")
+                .description("Natural language query parses on plan cache misses")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    void recordAnalysis(long nanos) {
+        analysis.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordHashing(long nanos) {
+        hashing.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordInsert(long nanos) {
+        insert.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    Timer nlPlan() {
+        return nlPlan;
+    }
+
+    Timer nlParse() {
+        return nlParse;
+    }
+
+    // uri is the matched route pattern, so the number of series stays bounded
+    public void recordResponseSize(String method, String uri, long bytes) {
+        responseSizes.computeIfAbsent(new Route(method, uri), route -> DistributionSummary.builder("strings.response.size")
+                        .description("Response body bytes written")
+                        .baseUnit("bytes")
+                        .tag("method", route.method)
+                        .tag("uri", route.uri)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(bytes);
+    }
+
+    private static Timer createStage(MeterRegistry registry, String stage) {
+        return Timer.builder("strings.create")
+                .description("Time spent per stage of creating a string")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private record Route(String method, String uri) {
+    }
+}
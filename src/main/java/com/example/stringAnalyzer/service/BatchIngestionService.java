@@ -0,0 +1,215 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.dto.BatchItemResult;
+import com.example.stringAnalyzer.dto.BatchItemStatus;
+import com.example.stringAnalyzer.dto.BatchResponse;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.storage.StringStorage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk ingestion for POST /strings/batch. The body is read as a stream of JSON values, either
+ * one array or NDJSON, and handled in chunks: each chunk is analyzed on a bounded worker pool
+ * and then inserted into storage with a single batched call.
+ */
+@Service
+public class BatchIngestionService {
+
+    @Autowired
+    StringAnalyzerService analyzerService;
+
+    @Autowired
+    StringStorage storage;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final int chunkSize;
+    private final ThreadPoolExecutor workers;
+
+    public BatchIngestionService(
+            @Value("${string-analyzer.batch.workers:0}") int workerCount,
+            @Value("${string-analyzer.batch.chunk-size:1024}") int chunkSize) {
+        int threads = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.chunkSize = chunkSize;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chunkSize),
+                r -> {
+                    Thread thread = new Thread(r, "batch-analysis-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // A full queue makes the submitting request thread analyze the item itself
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public BatchResponse ingest(InputStream body) throws IOException {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<JsonNode> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        try (MappingIterator<JsonNode> values = objectMapper.readerFor(JsonNode.class).readValues(body)) {
+            while (values.hasNextValue()) {
+                chunk.add(values.nextValue());
+                if (chunk.size() == chunkSize) {
+                    results.addAll(ingestChunk(chunk, index));
+                    index += chunk.size();
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Everything read so far is still ingested; the rest of the body is reported as one invalid item
+            results.add(malformed(index + chunk.size(), e.getOriginalMessage()));
+        }
+        results.addAll(ingestChunk(chunk, index));
+
+        return summarize(results);
+    }
+
+    /**
+     * Ingests one chunk of the submitted values, whose first one is at position {@code firstIndex}.
+     * Lets a caller that receives the values as a stream ingest them as they arrive.
+     */
+    public List<BatchItemResult> ingestChunk(List<JsonNode> nodes, int firstIndex) {
+        List<BatchItemResult> results = new ArrayList<>(nodes.size());
+        List<Item> items = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            JsonNode node = nodes.get(i);
+            String value = extractValue(node);
+            if (value == null) {
+                results.add(new BatchItemResult(firstIndex + i, BatchItemStatus.INVALID, null,
+                        node != null && node.isObject() && !node.hasNonNull("value")
+                                ? "Missing 'value' field"
+                                : "Invalid data type for 'value' (must be string)"));
+            } else {
+                items.add(new Item(firstIndex + i, value));
+            }
+        }
+        flush(items, results);
+        return results;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // Stands for the unreadable rest of a body, from the given position on
+    public static BatchItemResult malformed(int index, String message) {
+        return new BatchItemResult(index, BatchItemStatus.INVALID, null, "Malformed JSON: " + message);
+    }
+
+    // Results in submission order, with the count of each status
+    public static BatchResponse summarize(List<BatchItemResult> results) {
+        results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        int created = 0;
+        int duplicates = 0;
+        int invalid = 0;
+        for (BatchItemResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+            }
+        }
+        return new BatchResponse(results, created, duplicates, invalid);
+    }
+
+    // Accepts either a bare JSON string or an object shaped like StringRequest
+    private static String extractValue(JsonNode node) {
+        if (node == null) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.asText();
+        }
+        if (node.isObject()) {
+            JsonNode value = node.get("value");
+            return value != null && value.isTextual() ? value.asText() : null;
+        }
+        return null;
+    }
+
+    private void flush(List<Item> chunk, List<BatchItemResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<Item> fresh = new ArrayList<>(chunk.size());
+        for (Item item : chunk) {
+            // Known duplicates skip the analysis altogether
+            AnalyzedString existing = storage.findByValue(item.value).orElse(null);
+            if (existing != null) {
+                results.add(new BatchItemResult(item.index, BatchItemStatus.DUPLICATE, existing.getId(), "String already exist"));
+            } else {
+                fresh.add(item);
+            }
+        }
+
+        List<Future<AnalyzedString>> futures = new ArrayList<>(fresh.size());
+        for (Item item : fresh) {
+            futures.add(workers.submit(() -> analyzerService.analyzeString(item.value)));
+        }
+
+        List<Item> accepted = new ArrayList<>(fresh.size());
+        List<AnalyzedString> analyzed = new ArrayList<>(fresh.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                analyzed.add(await(futures.get(i)));
+                accepted.add(fresh.get(i));
+            } catch (IllegalArgumentException e) {
+                // A value the engine rejects, such as one with an unpaired surrogate
+                results.add(new BatchItemResult(fresh.get(i).index, BatchItemStatus.INVALID, null, e.getMessage()));
+            }
+        }
+
+        boolean[] inserted = storage.saveAll(analyzed);
+        for (int i = 0; i < inserted.length; i++) {
+            AnalyzedString analyzedString = analyzed.get(i);
+            results.add(inserted[i]
+                    ? new BatchItemResult(accepted.get(i).index, BatchItemStatus.CREATED, analyzedString.getId(), null)
+                    : new BatchItemResult(accepted.get(i).index, BatchItemStatus.DUPLICATE, analyzedString.getId(), "String already exist"));
+        }
+    }
+
+    private static AnalyzedString await(Future<AnalyzedString> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch ingestion interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException invalid) {
+                throw invalid;
+            }
+            throw new IllegalStateException("String analysis failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    private record Item(int index, String value) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.stringAnalyzer.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the counters the plan cache and the result cache already keep, read when the
+ * registry is scraped: {@code strings.cache.requests} by {@code cache} and {@code result}
+ * (hit or miss), {@code strings.cache.evictions}, {@code strings.cache.size}, and
+ * {@code strings.cache.invalidations} for the result cache.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private final QueryPlanCache planCache;
+    private final QueryResultCache resultCache;
+
+    public CacheMetrics(NaturalLanguageProcessor naturalLanguageProcessor, QueryResultCache resultCache) {
+        this.planCache = naturalLanguageProcessor.getPlanCache();
+        this.resultCache = resultCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "nl_plan", planCache,
+                QueryPlanCache::hits, QueryPlanCache::misses, QueryPlanCache::evictions, QueryPlanCache::size);
+        bind(registry, "query_result", resultCache,
+                QueryResultCache::hits, QueryResultCache::misses, QueryResultCache::evictions, QueryResultCache::size);
+        FunctionCounter.builder("strings.cache.invalidations", resultCache, QueryResultCache::invalidations)
+                .description("Cached results dropped because a write matched their filter")
+                .tag("cache", "query_result")
+                .register(registry);
+    }
+
+    private static <C> void bind(MeterRegistry registry, String name, C cache,
+                                 ToDoubleFunction<C> hits, ToDoubleFunction<C> misses,
+                                 ToDoubleFunction<C> evictions, ToDoubleFunction<C> size) {
+        FunctionCounter.builder("strings.cache.requests", cache, hits)
+                .description("Cache lookups by outcome")
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("strings.cache.requests", cache, misses)
+                .description("Cache lookups by outcome")
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("strings.cache.evictions", cache, evictions)
+                .description("Entries evicted to make room or on expiry")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("strings.cache.size", cache, size)
+                .description("Entries currently cached")
+                .tag("cache", name)
+                .register(registry);
+    }
+}
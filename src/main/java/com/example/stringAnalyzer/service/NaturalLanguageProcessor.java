@@ -2,71 +2,57 @@ package com.example.stringAnalyzer.service;
 
 import com.example.stringAnalyzer.dto.InterpretedQuery;
 import com.example.stringAnalyzer.dto.NaturalLanguageResponse;
-import com.example.stringAnalyzer.dto.StringProperties;
+import com.example.stringAnalyzer.dto.ResponseFields;
 import com.example.stringAnalyzer.dto.StringResponse;
-import com.example.stringAnalyzer.model.AnalyzedString;
-import com.example.stringAnalyzer.storage.StringStorage;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.StringPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class NaturalLanguageProcessor {
     @Autowired
-    private StringStorage storage;
+    private StringAnalyzerService analyzerService;
 
     @Autowired
-    private StringAnalyzerService analyzerService;
+    private AnalyzerMetrics metrics = AnalyzerMetrics.NONE;
+
+    private final QueryPlanCache planCache;
+
+    public NaturalLanguageProcessor() {
+        this(1024);
+    }
+
+    @Autowired
+    public NaturalLanguageProcessor(@Value("${string-analyzer.nl.plan-cache-size:1024}") int planCacheSize) {
+        this.planCache = new QueryPlanCache(planCacheSize);
+    }
 
     public NaturalLanguageResponse processNaturalLanguageQuery(String query) {
+        return processNaturalLanguageQuery(query, PageRequest.UNPAGED);
+    }
 
-        query = query.toLowerCase().trim();
-
-        Map<String, Object> parsedFilters = new HashMap<>();
-
-        // Parse palindrome queries
-        if (query.contains("palindrome")) {
-            parsedFilters.put("is_palindrome", true);
-        }
-
-        // Parse word count
-        if (query.contains("single word")) {
-            parsedFilters.put("word_count", 1);
-        } else if (query.contains("two word")) {
-            parsedFilters.put("word_count", 2);
-        }
-
-        // Parse length - "longer than X characters"
-        Pattern longerThanPattern = Pattern.compile("longer than (\\d+)");
-        Matcher matcher = longerThanPattern.matcher(query);
-        if (matcher.find()) {
-            int length = Integer.parseInt(matcher.group(1));
-            parsedFilters.put("min_length", length + 1);
-        }
-
-        // Parse character containment
-        Pattern containsPattern = Pattern.compile("contain(?:ing)?.*?letter\\s+([a-z])");
-        Matcher containsMatcher = containsPattern.matcher(query);
-        if (containsMatcher.find()) {
-            parsedFilters.put("contains_character", containsMatcher.group(1));
-        }
-
-        // Special case: "first vowel" = 'a'
-        if (query.contains("first vowel")) {
-            parsedFilters.put("contains_character", "a");
-        }
+    public NaturalLanguageResponse processNaturalLanguageQuery(String query, PageRequest page) {
+        return processNaturalLanguageQuery(query, page, ResponseFields.ALL);
+    }
+
+    public NaturalLanguageResponse processNaturalLanguageQuery(String query, PageRequest page, ResponseFields fields) {
+
+        long started = System.nanoTime();
+        query = QueryGrammar.normalize(query);
+        QueryPlan plan = planCache.get(query, this::parse);
+        metrics.nlPlan().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
 
         // Apply filters
-        List<AnalyzedString> results = applyFilters(parsedFilters);
+        StringPage results = analyzerService.findMatches(plan.getFilter(), page);
 
         // Convert to response
-        List<StringResponse> data = results.stream()
-                .map(this::convertToResponse)
+        List<StringResponse> data = results.getItems().stream()
+                .map(analyzed -> StringResponse.of(analyzed, fields))
                 .toList();
 
         // Build response
@@ -74,51 +60,24 @@ public class NaturalLanguageProcessor {
         response.setData(data);
         response.setCount(data.size());
         response.setInterpretedQuery(
-                new InterpretedQuery(query ,parsedFilters)
+                new InterpretedQuery(query, plan.getParsedFilters())
         );
+        response.setNextCursor(results.getNextCursor());
 
         return response;
     }
 
-    // Apply parsed filters to storage
-    private List<AnalyzedString> applyFilters(Map<String, Object> filters) {
-        Boolean isPalindrome = (Boolean) filters.get("is_palindrome");
-        Integer minLength = (Integer) filters.get("min_length");
-        Integer maxLength = (Integer) filters.get("max_length");
-        Integer wordCount = (Integer) filters.get("word_count");
-        String containsCharacter = (String) filters.get("contains_character");
-
-        // Get from storage
-        List<AnalyzedString> results = storage.findByFilters(
-                isPalindrome, minLength, maxLength, wordCount
-        );
-
-        // Post-filter for character containment
-        if (containsCharacter != null && !containsCharacter.isEmpty()) {
-            results = results.stream()
-                    .filter(s -> s.getValue().toLowerCase()
-                            .contains(containsCharacter.toLowerCase()))
-                    .toList();
-        }
-
-        return results;
+    // Repeated phrasings are answered from the cache without being parsed again
+    public QueryPlan plan(String query) {
+        return planCache.get(QueryGrammar.normalize(query), this::parse);
     }
 
-    private StringResponse convertToResponse(AnalyzedString analyzed) {
-        StringProperties properties = new StringProperties(
-                analyzed.getLength(),
-                analyzed.getIsPalindrome(),
-                analyzed.getUniqueCharacters(),
-                analyzed.getWordCount(),
-                analyzed.getSha256Hash(),
-                analyzed.getCharacterFrequencyMap()
-        );
+    // Only runs on plan cache misses, so its timer counts the parses the cache did not save
+    private QueryPlan parse(String normalized) {
+        return metrics.nlParse().record(() -> QueryGrammar.parse(normalized));
+    }
 
-        return new StringResponse(
-                analyzed.getId(),
-                analyzed.getValue(),
-                properties,
-                analyzed.getCreatedAt()
-        );
+    public QueryPlanCache getPlanCache() {
+        return planCache;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.model.StringFilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser for natural language queries. The query is split into lowercase words once and the
+ * phrases below are matched against the word list, without regular expressions:
+ * <ul>
+ *     <li>a word starting with {@code palindrom} - {@code is_palindrome=true}</li>
+ *     <li>{@code single word} / {@code two word(s)} - {@code word_count=1} / {@code 2}</li>
+ *     <li>{@code longer than N} - {@code min_length=N+1}</li>
+ *     <li>{@code contain(s|ing) ... letter X} - {@code contains_character=X}</li>
+ *     <li>{@code first vowel} - {@code contains_character=a}</li>
+ * </ul>
+ */
+final class QueryGrammar {
+
+    private QueryGrammar() {
+    }
+
+    /**
+     * Lowercases the query, trims it and collapses whitespace runs to one space, so phrasings
+     * that only differ in case or spacing share a cache entry.
+     */
+    static String normalize(String query) {
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(Character.toLowerCase(c));
+        }
+        return normalized.toString();
+    }
+
+    // Expects a normalized query
+    static QueryPlan parse(String query) {
+        String[] words = words(query);
+
+        Boolean palindrome = null;
+        Integer wordCount = null;
+        Integer minLength = null;
+        String containsCharacter = null;
+        boolean firstVowel = false;
+
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            if (word.startsWith("palindrom")) {
+                palindrome = true;
+            } else if (word.equals("single") && isWord(words, i + 1)) {
+                wordCount = 1;
+            } else if (word.equals("two") && isWord(words, i + 1) && wordCount == null) {
+                wordCount = 2;
+            } else if (word.equals("longer") && minLength == null) {
+                int n = numberAfterThan(words, i);
+                if (n >= 0) {
+                    minLength = n == Integer.MAX_VALUE ? n : n + 1;
+                }
+            } else if (word.startsWith("contain") && containsCharacter == null) {
+                containsCharacter = letterAfter(words, i + 1);
+            } else if (word.equals("first") && i + 1 < words.length && words[i + 1].equals("vowel")) {
+                firstVowel = true;
+            }
+        }
+        if (firstVowel) {
+            containsCharacter = "a";
+        }
+
+        StringFilter filter = StringFilter.of(palindrome, minLength, null, wordCount, containsCharacter);
+
+        Map<String, Object> parsedFilters = new LinkedHashMap<>();
+        putIfSet(parsedFilters, "is_palindrome", palindrome);
+        putIfSet(parsedFilters, "word_count", wordCount);
+        putIfSet(parsedFilters, "min_length", minLength);
+        putIfSet(parsedFilters, "contains_character", containsCharacter);
+
+        return new QueryPlan(filter, Collections.unmodifiableMap(parsedFilters));
+    }
+
+    // Words are runs of letters or digits; everything else separates them
+    private static String[] words(String query) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= query.length(); i++) {
+            boolean partOfWord = i < query.length() && Character.isLetterOrDigit(query.charAt(i));
+            if (partOfWord && start < 0) {
+                start = i;
+            } else if (!partOfWord && start >= 0) {
+                words.add(query.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private static boolean isWord(String[] words, int i) {
+        return i < words.length && words[i].startsWith("word");
+    }
+
+    // "longer than N": returns N, capped at Integer.MAX_VALUE, or -1 when absent
+    private static int numberAfterThan(String[] words, int i) {
+        if (i + 2 >= words.length || !words[i + 1].equals("than")) {
+            return -1;
+        }
+        String number = words[i + 2];
+        long n = 0;
+        for (int j = 0; j < number.length(); j++) {
+            char c = number.charAt(j);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            n = Math.min(n * 10 + (c - '0'), Integer.MAX_VALUE);
+        }
+        return (int) n;
+    }
+
+    // The single letter following "letter" somewhere after position i, if any
+    private static String letterAfter(String[] words, int i) {
+        for (; i + 1 < words.length; i++) {
+            if (words[i].equals("letter")) {
+                String letter = words[i + 1];
+                return letter.length() == 1 && letter.charAt(0) >= 'a' && letter.charAt(0) <= 'z' ? letter : null;
+            }
+        }
+        return null;
+    }
+
+    private static void putIfSet(Map<String, Object> filters, String name, Object value) {
+        if (value != null) {
+            filters.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.model.StringFilter;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * The parsed form of a natural language query: the filter to run and the filters reported back
+ * as {@code parsed_filters}. Plans are immutable, so one instance is shared by every request
+ * that asks the same question.
+ */
+@Value
+public class QueryPlan {
+
+    StringFilter filter;
+    Map<String, Object> parsedFilters;
+}
@@ -0,0 +1,90 @@
+package com.example.stringAnalyzer.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded least-recently-used cache of query plans keyed by normalized query text, with hit,
+ * miss and eviction counts. Plans are built outside the lock, so two requests missing on the
+ * same query at once may both parse it; the second result simply replaces the first.
+ */
+public class QueryPlanCache {
+
+    private final int capacity;
+    private final Map<String, QueryPlan> plans;
+    private final Lock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // A capacity of 0 disables caching; every lookup is then a miss
+    public QueryPlanCache(int capacity) {
+        this.capacity = capacity;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QueryPlan> eldest) {
+                if (size() > QueryPlanCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    QueryPlan get(String query, Function<String, QueryPlan> planner) {
+        QueryPlan plan;
+        lock.lock();
+        try {
+            plan = plans.get(query);
+        } finally {
+            lock.unlock();
+        }
+        if (plan != null) {
+            hits.increment();
+            return plan;
+        }
+
+        misses.increment();
+        plan = planner.apply(query);
+        if (capacity > 0) {
+            lock.lock();
+            try {
+                plans.put(query, plan);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return plan;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return plans.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.SortField;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import com.example.stringAnalyzer.storage.StorageListener;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Results of filter queries, keyed by the filter and the page asked for. Entries are evicted
+ * least-recently-used once the cache is full, and expire after a fixed time to live.
+ * <p>
+ * Writes invalidate precisely: a saved or deleted string only evicts the entries whose filter
+ * it matches, since every other cached result is unaffected by it. A query that was running
+ * while a write happened may have missed that write, so the most recent changes are kept in a
+ * short log and a result is only stored when no change since the query started matches it.
+ */
+@Component
+public class QueryResultCache implements StorageListener {
+
+    // Changes remembered for queries in flight; a query older than this is not cached
+    private static final int CHANGE_LOG_SIZE = 1024;
+
+    private final int capacity;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private final Lock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // A capacity of 0 disables caching
+    @Autowired
+    public QueryResultCache(
+            StringStorage storage,
+            @Value("${string-analyzer.cache.results.size:1024}") int capacity,
+            @Value("${string-analyzer.cache.results.ttl:30s}") Duration ttl) {
+        this.capacity = capacity;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > QueryResultCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        storage.addListener(this);
+    }
+
+    public StringPage get(StringFilter filter, PageRequest page, Supplier<StringPage> query) {
+        if (capacity == 0) {
+            misses.increment();
+            return query.get();
+        }
+
+        Key key = Key.of(filter, page);
+        long started;
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.expiresAt < 0) {
+                    hits.increment();
+                    return entry.page;
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+            started = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        StringPage result = query.get();
+
+        lock.lock();
+        try {
+            if (unchangedSince(started, filter)) {
+                entries.put(key, new Entry(result, System.nanoTime() + ttlNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    @Override
+    public void saved(List<AnalyzedString> strings, long storageGeneration) {
+        lock.lock();
+        try {
+            for (AnalyzedString string : strings) {
+                record(new Change(++generation, string));
+            }
+            entries.keySet().removeIf(key -> {
+                for (AnalyzedString string : strings) {
+                    if (key.filter.matches(string)) {
+                        invalidations.increment();
+                        return true;
+                    }
+                }
+                return false;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleted(AnalyzedString removed, long storageGeneration) {
+        saved(List.of(removed), storageGeneration);
+    }
+
+    @Override
+    public void cleared(long storageGeneration) {
+        lock.lock();
+        try {
+            // A change without a string matches every filter
+            record(new Change(++generation, null));
+            invalidations.add(entries.size());
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // Entries dropped because the cache was full or they expired
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    // Entries dropped because a write matched their filter
+    public long invalidations() {
+        return invalidations.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Change change) {
+        if (changes.size() == CHANGE_LOG_SIZE) {
+            changes.removeFirst();
+        }
+        changes.addLast(change);
+    }
+
+    // Whether no change after the given generation could affect the result of the filter
+    private boolean unchangedSince(long started, StringFilter filter) {
+        if (generation - started > changes.size()) {
+            return false;
+        }
+        Iterator<Change> newestFirst = changes.descendingIterator();
+        while (newestFirst.hasNext()) {
+            Change change = newestFirst.next();
+            if (change.generation <= started) {
+                break;
+            }
+            if (change.string == null || filter.matches(change.string)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // PageRequest holds the decoded cursor position, which has no value equality, so the key
+    // uses the cursor token instead
+    private record Key(StringFilter filter, SortField sort, boolean descending, Integer limit, String cursor) {
+
+        static Key of(StringFilter filter, PageRequest page) {
+            String cursor = page.getAfter() == null ? null : page.cursorAfter(page.getAfter());
+            return new Key(filter, page.getSort(), page.isDescending(), page.getLimit(), cursor);
+        }
+    }
+
+    private record Entry(StringPage page, long expiresAt) {
+    }
+
+    private record Change(long generation, AnalyzedString string) {
+    }
+}
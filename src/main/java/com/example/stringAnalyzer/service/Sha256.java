@@ -0,0 +1,117 @@
+package com.example.stringAnalyzer.service;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * SHA-256 of the UTF-8 form of a string, with reused digests.
+ * <p>
+ * Digests and their encode buffers sit in a small striped pool instead of thread-locals: request
+ * threads may be virtual threads, which are never reused, so a thread-local would be created and
+ * dropped per request. A caller takes the slot for its thread with a single atomic swap and puts
+ * it back afterwards; when the slot is empty (another thread on the same stripe is hashing) a
+ * fresh hasher is cloned from a prototype rather than waiting.
+ * <p>
+ * Short values are hashed from {@link String#getBytes}, which is an intrinsic. Longer ones are
+ * encoded to UTF-8 in fixed-size chunks straight into the digest, so no byte array of the
+ * whole value is built.
+ */
+public final class Sha256 {
+
+    // Values up to this many chars are encoded in one go; longer ones in chunks of this size
+    static final int CHUNK = 8192;
+
+    private static final MessageDigest PROTOTYPE;
+    private static final AtomicReferenceArray<Hasher> POOL;
+
+    static {
+        try {
+            PROTOTYPE = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        int stripes = Integer.highestOneBit(Math.max(8, Runtime.getRuntime().availableProcessors() * 4 - 1) << 1);
+        POOL = new AtomicReferenceArray<>(stripes);
+    }
+
+    private Sha256() {
+    }
+
+    public static byte[] hash(String value) {
+        int stripe = (int) mix(Thread.currentThread().threadId()) & (POOL.length() - 1);
+        Hasher hasher = POOL.getAndSet(stripe, null);
+        if (hasher == null) {
+            hasher = new Hasher();
+        }
+        byte[] hash = hasher.hash(value);
+        POOL.lazySet(stripe, hasher);
+        return hash;
+    }
+
+    // A digest of its own, for input that arrives in pieces
+    static MessageDigest newDigest() {
+        try {
+            return (MessageDigest) PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be cloned", e);
+        }
+    }
+
+    // Thread ids are sequential; spread them so neighbours do not share a stripe pattern
+    private static long mix(long id) {
+        id *= 0x9E3779B97F4A7C15L;
+        return id ^ (id >>> 32);
+    }
+
+    private static final class Hasher {
+
+        private final MessageDigest digest;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                // Same output as String.getBytes for unpaired surrogates
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // Allocated on the first long value; array-backed so the encoder takes its fast path
+        private char[] chars;
+        private CharBuffer in;
+        private ByteBuffer out;
+
+        Hasher() {
+            digest = newDigest();
+        }
+
+        byte[] hash(String value) {
+            int length = value.length();
+            if (length <= CHUNK) {
+                return digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            }
+            if (chars == null) {
+                chars = new char[CHUNK];
+                in = CharBuffer.wrap(chars);
+                out = ByteBuffer.allocate(CHUNK * 3);
+            }
+
+            for (int from = 0; from < length; ) {
+                int to = Math.min(from + CHUNK, length);
+                // Keep surrogate pairs within one chunk
+                if (to < length && Character.isHighSurrogate(value.charAt(to - 1))) {
+                    to--;
+                }
+                value.getChars(from, to, chars, 0);
+                in.clear().limit(to - from);
+                out.clear();
+                encoder.reset();
+                encoder.encode(in, out, true);
+                encoder.flush(out);
+                digest.update(out.flip());
+                from = to;
+            }
+            return digest.digest();
+        }
+    }
+}
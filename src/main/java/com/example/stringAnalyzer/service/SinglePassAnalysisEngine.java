@@ -0,0 +1,92 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.CharacterFrequencyTable;
+import com.example.stringAnalyzer.model.CharacterSignature;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default analysis engine. Frequencies, unique characters and word count come out of a single
+ * forward pass over the code points; the palindrome check is a two-pointer scan that stops at
+ * the first mismatch. No regex, no lower-cased copies and no boxed counters.
+ * <p>
+ * A value with an unpaired surrogate, which a JSON string can carry as an escaped code unit,
+ * is rejected with an {@link IllegalArgumentException}.
+ */
+@Component
+public class SinglePassAnalysisEngine implements StringAnalysisEngine {
+
+    @Override
+    public AnalyzedString analyze(String value) {
+        CharacterFrequencyTable.Counter counter = new CharacterFrequencyTable.Counter();
+        int words = 0;
+        boolean inWord = false;
+
+        int n = value.length();
+        for (int i = 0; i < n; ) {
+            char c = value.charAt(i++);
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i < n && Character.isLowSurrogate(value.charAt(i))) {
+                codePoint = Character.toCodePoint(c, value.charAt(i++));
+            } else if (Character.isSurrogate(c)) {
+                // Has no UTF-8 encoding: stored, hashed or exported it would turn into '?'
+                throw new IllegalArgumentException("Value contains an unpaired surrogate at index " + (i - 1));
+            }
+
+            counter.add(codePoint);
+
+            if (isWordSeparator(codePoint)) {
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                words++;
+            }
+        }
+
+        CharacterFrequencyTable frequencies = counter.build();
+
+        AnalyzedString analyzed = new AnalyzedString(value);
+        analyzed.setLength(n);
+        analyzed.setIsPalindrome(isPalindrome(value));
+        analyzed.setUniqueCharacters(frequencies.size());
+        analyzed.setWordCount(words);
+        analyzed.setCharacterFrequencies(frequencies);
+        analyzed.setCharacterSignature(CharacterSignature.of(frequencies));
+        return analyzed;
+    }
+
+    // Case-insensitive, alphanumeric only: same result as lower-casing, dropping [^a-z0-9] and reversing
+    static boolean isPalindrome(String value) {
+        int left = 0;
+        int right = value.length() - 1;
+        while (left < right) {
+            char l = foldAlphanumeric(value.charAt(left));
+            if (l == 0) {
+                left++;
+                continue;
+            }
+            char r = foldAlphanumeric(value.charAt(right));
+            if (r == 0) {
+                right--;
+                continue;
+            }
+            if (l != r) {
+                return false;
+            }
+            left++;
+            right--;
+        }
+        return true;
+    }
+
+    // Lower-cased char if it lands in [a-z0-9], otherwise 0
+    private static char foldAlphanumeric(char c) {
+        char lower = c < 128 ? (c >= 'A' && c <= 'Z' ? (char) (c + 32) : c) : Character.toLowerCase(c);
+        return (lower >= 'a' && lower <= 'z') || (lower >= '0' && lower <= '9') ? lower : 0;
+    }
+
+    // Same characters as the regex \s used by the previous split("\\s+")
+    static boolean isWordSeparator(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.exception.ValueTooLargeException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.CharacterFrequencyTable;
+import com.example.stringAnalyzer.model.CharacterSignature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Analyzes a value while it is read from a stream, one chunk at a time. Each decoded chunk
+ * updates the character counts and word count and is appended to the value; UTF-8 input goes
+ * into the SHA-256 digest as the raw bytes arrive, since valid UTF-8 is exactly what
+ * {@link Sha256#hash} would encode again. No whole-body buffer, parsed document or encoded
+ * copy of the value is ever built.
+ * <p>
+ * The value itself still has to be kept, as it is the storage key; it is assembled in a builder
+ * sized from the expected length, so it is copied once into the final string rather than on
+ * every growth. The presize is capped, since the length is only declared by the client: a body
+ * that never arrives reserves at most {@link #MAX_PRESIZE} chars, and longer values grow the
+ * builder as their bytes come in. The palindrome check runs on that string once the stream ends, as a two-pointer
+ * scan that needs no further memory.
+ */
+final class StreamingAnalysis {
+
+    static final int CHUNK = 64 * 1024;
+    static final int MAX_PRESIZE = 16 * CHUNK;
+
+    private final CharacterFrequencyTable.Counter counter = new CharacterFrequencyTable.Counter();
+    private final StringBuilder value;
+    private int words;
+    private boolean inWord;
+    // High surrogate at the end of the previous chunk, waiting for its low half
+    private char pendingHigh;
+
+    private StreamingAnalysis(long expectedBytes) {
+        // No byte decodes to more than one char
+        this.value = new StringBuilder(expectedBytes >= 0 ? (int) Math.min(expectedBytes, MAX_PRESIZE) : CHUNK);
+    }
+
+    /**
+     * Reads {@code in} to the end as text in {@code charset} and analyzes it, including its
+     * SHA-256. {@code expectedBytes} is the declared body length, or -1 when unknown.
+     *
+     * @throws IllegalArgumentException when the input is not valid in {@code charset}
+     * @throws ValueTooLargeException when the input is longer than {@code maxBytes}
+     */
+    static AnalyzedString analyze(InputStream in, Charset charset, long expectedBytes, long maxBytes) throws IOException {
+        return analyze(in, charset, expectedBytes, maxBytes, CHUNK);
+    }
+
+    static AnalyzedString analyze(InputStream in, Charset charset, long expectedBytes, long maxBytes, int chunkSize) throws IOException {
+        // A declared length over the limit is refused before reading, and the limit is checked
+        // again while reading for bodies without one
+        long limit = Math.min(maxBytes, Integer.MAX_VALUE - 8);
+        if (expectedBytes > limit) {
+            throw tooLarge(limit);
+        }
+        StreamingAnalysis analysis = new StreamingAnalysis(expectedBytes);
+        MessageDigest digest = charset.equals(StandardCharsets.UTF_8) ? Sha256.newDigest() : null;
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        byte[] bytes = new byte[chunkSize];
+        ByteBuffer pending = ByteBuffer.wrap(bytes, 0, 0);
+        CharBuffer chars = CharBuffer.allocate(chunkSize);
+        long total = 0;
+        for (int read; (read = in.read(bytes, pending.limit(), bytes.length - pending.limit())) >= 0; ) {
+            total += read;
+            if (total > limit) {
+                throw tooLarge(limit);
+            }
+            if (digest != null) {
+                digest.update(bytes, pending.limit(), read);
+            }
+            pending.limit(pending.limit() + read);
+            analysis.decode(decoder, pending, chars, false);
+            // Keep the undecoded tail of a split character at the front for the next read
+            pending.compact().flip();
+        }
+        analysis.decode(decoder, pending, chars, true);
+        check(decoder.flush(chars));
+        analysis.accept(chars.flip());
+
+        AnalyzedString analyzed = analysis.finish();
+        analyzed.setSha256(digest != null ? digest.digest() : Sha256.hash(analyzed.getValue()));
+        return analyzed;
+    }
+
+    private void decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer out, boolean endOfInput) {
+        while (true) {
+            CoderResult result = decoder.decode(in, out, endOfInput);
+            check(result);
+            accept(out.flip());
+            out.clear();
+            if (result.isUnderflow()) {
+                return;
+            }
+        }
+    }
+
+    private static ValueTooLargeException tooLarge(long limit) {
+        return new ValueTooLargeException("Streamed values are limited to " + limit + " bytes");
+    }
+
+    private static void check(CoderResult result) {
+        if (result.isError()) {
+            try {
+                result.throwException();
+            } catch (CharacterCodingException e) {
+                throw new IllegalArgumentException("Request body is not valid text in the declared charset", e);
+            }
+        }
+    }
+
+    // Same counting as SinglePassAnalysisEngine, carried across chunk boundaries
+    private void accept(CharBuffer chunk) {
+        char[] array = chunk.array();
+        int end = chunk.arrayOffset() + chunk.limit();
+        for (int i = chunk.arrayOffset() + chunk.position(); i < end; i++) {
+            char c = array[i];
+            if (pendingHigh != 0) {
+                char high = pendingHigh;
+                pendingHigh = 0;
+                if (Character.isLowSurrogate(c)) {
+                    count(Character.toCodePoint(high, c));
+                    continue;
+                }
+                count(high);
+            }
+            if (Character.isHighSurrogate(c)) {
+                pendingHigh = c;
+            } else {
+                count(c);
+            }
+        }
+        value.append(array, chunk.arrayOffset() + chunk.position(), chunk.remaining());
+    }
+
+    private void count(int codePoint) {
+        counter.add(codePoint);
+        if (SinglePassAnalysisEngine.isWordSeparator(codePoint)) {
+            inWord = false;
+        } else if (!inWord) {
+            inWord = true;
+            words++;
+        }
+    }
+
+    private AnalyzedString finish() {
+        if (pendingHigh != 0) {
+            count(pendingHigh);
+            pendingHigh = 0;
+        }
+        String text = value.toString();
+
+        CharacterFrequencyTable frequencies = counter.build();
+        AnalyzedString analyzed = new AnalyzedString(text);
+        analyzed.setLength(text.length());
+        analyzed.setIsPalindrome(SinglePassAnalysisEngine.isPalindrome(text));
+        analyzed.setUniqueCharacters(frequencies.size());
+        analyzed.setWordCount(words);
+        analyzed.setCharacterFrequencies(frequencies);
+        analyzed.setCharacterSignature(CharacterSignature.of(frequencies));
+        return analyzed;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+
+/**
+ * Computes the content-derived properties of a string: length, palindrome flag, unique
+ * characters, word count, character frequencies and character signature.
+ * Hashing and ids are left to the caller.
+ */
+public interface StringAnalysisEngine {
+
+    AnalyzedString analyze(String value);
+}
@@ -1,22 +1,32 @@
 package com.example.stringAnalyzer.service;
 
+import com.example.stringAnalyzer.dto.SimilarStringResponse;
+import com.example.stringAnalyzer.dto.SimilarStringsResponse;
 import com.example.stringAnalyzer.dto.StringListResponse;
-import com.example.stringAnalyzer.dto.StringProperties;
+import com.example.stringAnalyzer.dto.ResponseFields;
 import com.example.stringAnalyzer.dto.StringResponse;
+import com.example.stringAnalyzer.exception.InvalidQueryException;
 import com.example.stringAnalyzer.exception.StringAlreadyExistsException;
 import com.example.stringAnalyzer.exception.StringNotFoundException;
 import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.MinHash;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
 import com.example.stringAnalyzer.storage.StringStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 @Service
 public class StringAnalyzerService {
@@ -24,26 +34,61 @@ public class StringAnalyzerService {
     @Autowired
     StringStorage storage;
 
-    public StringResponse createAndSave(String value) throws NoSuchAlgorithmException {
-        if (storage.existByValue(value)){
-            try {
-                throw new StringAlreadyExistsException("String already exist");
-            } catch (StringAlreadyExistsException e) {
-                throw new RuntimeException(e);
-            }
+    @Autowired
+    StringAnalysisEngine analysisEngine;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    QueryResultCache resultCache;
+
+    @Autowired
+    AnalyzerMetrics metrics = AnalyzerMetrics.NONE;
+
+    @Value("${string-analyzer.strings.max-streamed-size:256MB}")
+    DataSize maxStreamedSize = DataSize.ofMegabytes(256);
+
+    @Value("${string-analyzer.similarity.sketch-size:64}")
+    int sketchSize = MinHash.DEFAULT_SIZE;
+
+    // Analyzes first and then inserts only if absent, in one storage operation; of two concurrent
+    // requests for the same value exactly one is created and the other gets a conflict
+    public StringResponse createAndSave(String value) throws NoSuchAlgorithmException, StringAlreadyExistsException {
+        return save(analyzeString(value));
+    }
+
+    // Same as above for a value streamed as the raw request body; the value is analyzed while it
+    // is read, so the body is never buffered or parsed as a whole
+    public StringResponse createAndSave(InputStream body, Charset charset, long contentLength) throws IOException, StringAlreadyExistsException {
+        long started = System.nanoTime();
+        AnalyzedString analyzedString = StreamingAnalysis.analyze(body, charset, contentLength, maxStreamedSize.toBytes());
+        analyzedString.setMinHash(MinHash.of(analyzedString.getValue(), sketchSize));
+        metrics.recordAnalysis(System.nanoTime() - started);
+        return save(analyzedString);
+    }
+
+    private StringResponse save(AnalyzedString analyzedString) throws StringAlreadyExistsException {
+        long started = System.nanoTime();
+        boolean exists = storage.saveIfAbsent(analyzedString).isPresent();
+        metrics.recordInsert(System.nanoTime() - started);
+        if (exists) {
+            throw new StringAlreadyExistsException("String already exist");
         }
-        AnalyzedString analyzedString = analyzeString(value);
-        storage.save(analyzeString(value));
-        return convertToResponse(analyzedString);
+        return StringResponse.of(analyzedString, ResponseFields.ALL);
     }
 
     public StringResponse findString(String value) throws NoSuchAlgorithmException, StringNotFoundException {
+        return findString(value, ResponseFields.ALL);
+    }
+
+    public StringResponse findString(String value, ResponseFields fields) throws NoSuchAlgorithmException, StringNotFoundException {
         AnalyzedString analyzedString = null;
 
             analyzedString = storage.findByValue(value)
                     .orElseThrow(() -> new StringNotFoundException("String does not exist"));
 
-        return convertToResponse(analyzedString);
+        return StringResponse.of(analyzedString, fields);
     }
 
     public StringListResponse getAllStrings(
@@ -53,137 +98,91 @@ public class StringAnalyzerService {
             Integer wordCount,
             String containsCharacter
     ){
-        List<AnalyzedString> result = storage.findByFilters(isPalindrome, minLength, maxLength, wordCount);
+        return getAllStrings(StringFilter.of(isPalindrome, minLength, maxLength, wordCount, containsCharacter), PageRequest.UNPAGED);
+    }
 
-        if (containsCharacter != null) {
-            result = result.stream()
-                    .filter(s -> s.getValue().toLowerCase()
-                            .contains(containsCharacter.toLowerCase()))
-                    .toList();
-        }
+    public StringListResponse getAllStrings(StringFilter filter, PageRequest page) {
+        return getAllStrings(filter, page, ResponseFields.ALL);
+    }
 
-        List<StringResponse> data = result.stream()
-                .map(this::convertToResponse)
-                .toList();
+    public StringListResponse getAllStrings(StringFilter filter, PageRequest page, ResponseFields fields) {
+        StringPage result = findMatches(filter, page);
 
-        Map<String, Object> filtersApplied = buildFiltersMap(isPalindrome, minLength, maxLength, wordCount, containsCharacter
-        );
+        List<StringResponse> data = result.getItems().stream()
+                .map(analyzed -> StringResponse.of(analyzed, fields))
+                .toList();
 
-        return new StringListResponse(data, data.size(), filtersApplied);
+        return new StringListResponse(data, data.size(), filter.toMap(), result.getNextCursor());
     }
 
-    public void deleteString(String value) {
-        boolean deleted = storage.deleteByValue(value);
-        if (!deleted) {
-            try {
-                throw new StringNotFoundException("String not found");
-            } catch (StringNotFoundException e) {
-                throw new RuntimeException(e);
-            }
-        }
+    // Repeated filter combinations are answered from the result cache until a write affects them
+    public StringPage findMatches(StringFilter filter, PageRequest page) {
+        return resultCache.get(filter, page, () -> storage.findPage(filter, page));
     }
 
-    private AnalyzedString analyzeString(String value) throws NoSuchAlgorithmException {
-        AnalyzedString analyzed = new AnalyzedString(value);
-
-        String hash = calculateSHA256(value);
-        analyzed.setId(hash);
-        analyzed.setSha256Hash(hash);
-        analyzed.setLength(value.length());
-        analyzed.setIsPalindrome(isPalindrome(value));
-        analyzed.setUniqueCharacters(countUniqueCharacters(value));
-        analyzed.setWordCount(countWords(value));
-        analyzed.setCharacterFrequencyMap(buildCharacterFrequencyMap(value));
-
-        return analyzed;
+    // Skips the result cache; meant for walking all matches page by page, whose pages would only
+    // push out the entries worth keeping
+    public StringPage scanMatches(StringFilter filter, PageRequest page) {
+        return storage.findPage(filter, page);
     }
 
-    // Calculate SHA-256 hash
-    private String calculateSHA256(String input) throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) hexString.append('0');
-            hexString.append(hex);
-        }
-        return hexString.toString();
+    // Writes one StringResponse per line, converting each match only when it is written,
+    // so memory does not grow with the number of matches
+    public void writeAsNdjson(List<AnalyzedString> matches, OutputStream out) throws IOException {
+        writeAsNdjson(matches, out, ResponseFields.ALL);
     }
 
-    // Check if palindrome (case-insensitive, alphanumeric only)
-    private boolean isPalindrome(String str) {
-        String cleaned = str.toLowerCase().replaceAll("[^a-z0-9]", "");
-        return cleaned.equals(new StringBuilder(cleaned).reverse().toString());
+    public void writeAsNdjson(List<AnalyzedString> matches, OutputStream out, ResponseFields fields) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            for (AnalyzedString analyzed : matches) {
+                writer.write(StringResponse.of(analyzed, fields));
+            }
+            writer.flush();
+            out.write('\n');
+        }
     }
 
-    // Count unique characters
-    private int countUniqueCharacters(String str) {
-        return (int) str.chars().distinct().count();
+    // The value does not have to be stored itself; it is never among its own results
+    public SimilarStringsResponse findSimilar(String value, double threshold) throws InvalidQueryException {
+        return findSimilar(value, threshold, ResponseFields.ALL);
     }
 
-    // Count words (split by whitespace)
-    private int countWords(String str) {
-        if (str == null || str.trim().isEmpty()) {
-            return 0;
+    public SimilarStringsResponse findSimilar(String value, double threshold, ResponseFields fields) throws InvalidQueryException {
+        if (!(threshold > 0 && threshold <= 1)) {
+            throw new InvalidQueryException("threshold must be greater than 0 and at most 1");
         }
-        return str.trim().split("\\s+").length;
+        List<SimilarStringResponse> data = storage.findSimilar(value, threshold).stream()
+                .map(similar -> new SimilarStringResponse(StringResponse.of(similar.getString(), fields), similar.getSimilarity()))
+                .toList();
+        return new SimilarStringsResponse(value, threshold, data, data.size());
     }
 
-    // Build character frequency map
-    private Map<String, Integer> buildCharacterFrequencyMap(String str) {
-        Map<String, Integer> frequencyMap = new LinkedHashMap<>();
-        for (char c : str.toCharArray()) {
-            String key = String.valueOf(c);
-            frequencyMap.put(key, frequencyMap.getOrDefault(key, 0) + 1);
+    public void deleteString(String value) {
+        boolean deleted = storage.deleteByValue(value);
+        if (!deleted) {
+            try {
+                throw new StringNotFoundException("String not found");
+            } catch (StringNotFoundException e) {
+                throw new RuntimeException(e);
+            }
         }
-        return frequencyMap;
     }
 
-    private Map<String, Object> buildFiltersMap(
-            Boolean isPalindrome,
-            Integer minLength,
-            Integer maxLength,
-            Integer wordCount,
-            String containsCharacter) {
+    public AnalyzedString analyzeString(String value) throws NoSuchAlgorithmException {
+        long started = System.nanoTime();
+        AnalyzedString analyzed = analysisEngine.analyze(value);
+        analyzed.setMinHash(MinHash.of(value, sketchSize));
+        long hashingStarted = System.nanoTime();
+        metrics.recordAnalysis(hashingStarted - started);
 
-        Map<String, Object> filters = new HashMap<>();
+        analyzed.setSha256(calculateSHA256(value));
+        metrics.recordHashing(System.nanoTime() - hashingStarted);
 
-        if (isPalindrome != null) {
-            filters.put("is_palindrome", isPalindrome);
-        }
-        if (minLength != null) {
-            filters.put("min_length", minLength);
-        }
-        if (maxLength != null) {
-            filters.put("max_length", maxLength);
-        }
-        if (wordCount != null) {
-            filters.put("word_count", wordCount);
-        }
-        if (containsCharacter != null) {
-            filters.put("contains_character", containsCharacter);
-        }
+        return analyzed;
+    }
 
-        return filters;
-    }
-
-    private StringResponse convertToResponse(AnalyzedString analyzed) {
-        StringProperties properties = new StringProperties(
-                analyzed.getLength(),
-                analyzed.getIsPalindrome(),
-                analyzed.getUniqueCharacters(),
-                analyzed.getWordCount(),
-                analyzed.getSha256Hash(),
-                analyzed.getCharacterFrequencyMap()
-        );
-
-        return new StringResponse(
-                analyzed.getId(),
-                analyzed.getValue(),
-                properties,
-                analyzed.getCreatedAt()
-        );
+    // Calculate SHA-256 hash; the hex id is derived from these bytes when a response needs it
+    private byte[] calculateSHA256(String input) {
+        return Sha256.hash(input);
     }
 }
\ No newline at end of file
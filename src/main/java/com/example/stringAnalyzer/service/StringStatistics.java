@@ -0,0 +1,264 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.dto.StringStatsResponse;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.CharacterFrequencyTable;
+import com.example.stringAnalyzer.storage.StorageListener;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Corpus statistics for GET /strings/stats, kept up to date by the storage on every write
+ * instead of being computed by scanning. All counters are {@link LongAdder}s, so concurrent
+ * writers do not contend and additions from racing saves and deletes commute. Reading costs
+ * one pass over the fixed histogram buckets and the distinct characters seen.
+ * <p>
+ * Only a clear does not commute with the other changes. Changes are reported with the storage
+ * generation they were applied in, so ones reported late from before the last clear are dropped,
+ * and the first one from after a clear resets the counters even if the clear itself is reported
+ * later. A sharded storage gets one set of counters per shard, since each shard has its own
+ * generations.
+ */
+@Component
+public class StringStatistics implements StorageListener {
+
+    // Word counts below this are counted exactly, larger ones share the last bucket
+    private static final int EXACT_WORD_COUNTS = 64;
+
+    private final List<Counters> parts = new CopyOnWriteArrayList<>();
+    // Used when the storage reports as a whole
+    private final Counters counters = newPart();
+
+    public StringStatistics(StringStorage storage) {
+        storage.addListener(this);
+    }
+
+    @Override
+    public void saved(List<AnalyzedString> strings, long generation) {
+        counters.saved(strings, generation);
+    }
+
+    @Override
+    public void deleted(AnalyzedString removed, long generation) {
+        counters.deleted(removed, generation);
+    }
+
+    @Override
+    public void cleared(long generation) {
+        counters.cleared(generation);
+    }
+
+    @Override
+    public StorageListener forPart() {
+        return newPart();
+    }
+
+    public StringStatsResponse summary() {
+        long strings = 0;
+        long palindromeCount = 0;
+        long totalLength = 0;
+        long totalWords = 0;
+        long[] lengths = new long[Integer.SIZE];
+        long[] wordCounts = new long[EXACT_WORD_COUNTS + 1];
+        long[] asciiCharacters = new long[128];
+        Map<Integer, Long> otherCharacters = new HashMap<>();
+        for (Counters part : parts) {
+            strings += part.count.sum();
+            palindromeCount += part.palindromes.sum();
+            totalLength += part.totalLength.sum();
+            totalWords += part.totalWords.sum();
+            sum(part.lengths, lengths);
+            sum(part.wordCounts, wordCounts);
+            sum(part.asciiCharacters, asciiCharacters);
+            part.otherCharacters.forEach((c, adder) -> otherCharacters.merge(c, adder.sum(), Long::sum));
+        }
+
+        Map<String, Long> lengthHistogram = new LinkedHashMap<>();
+        for (int b = 0; b < lengths.length; b++) {
+            if (lengths[b] != 0) {
+                lengthHistogram.put(lengthBucket(b), lengths[b]);
+            }
+        }
+
+        Map<String, Long> wordCountDistribution = new LinkedHashMap<>();
+        for (int w = 0; w < wordCounts.length; w++) {
+            if (wordCounts[w] != 0) {
+                wordCountDistribution.put(w == EXACT_WORD_COUNTS ? w + "+" : String.valueOf(w), wordCounts[w]);
+            }
+        }
+
+        return new StringStatsResponse(
+                strings,
+                palindromeCount,
+                strings == 0 ? 0 : (double) palindromeCount / strings,
+                strings == 0 ? 0 : (double) totalLength / strings,
+                strings == 0 ? 0 : (double) totalWords / strings,
+                lengthHistogram,
+                wordCountDistribution,
+                characterFrequencies(asciiCharacters, otherCharacters));
+    }
+
+    private Counters newPart() {
+        Counters part = new Counters();
+        parts.add(part);
+        return part;
+    }
+
+    // Most frequent first
+    private static Map<String, Long> characterFrequencies(long[] asciiCharacters, Map<Integer, Long> otherCharacters) {
+        List<Map.Entry<Integer, Long>> counts = new ArrayList<>();
+        for (int c = 0; c < asciiCharacters.length; c++) {
+            if (asciiCharacters[c] > 0) {
+                counts.add(Map.entry(c, asciiCharacters[c]));
+            }
+        }
+        otherCharacters.forEach((c, n) -> {
+            if (n > 0) {
+                counts.add(Map.entry(c, n));
+            }
+        });
+        counts.sort(Map.Entry.<Integer, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Long> frequencies = new LinkedHashMap<>(Math.max(16, counts.size() * 4 / 3 + 1));
+        for (Map.Entry<Integer, Long> entry : counts) {
+            frequencies.put(Character.toString(entry.getKey()), entry.getValue());
+        }
+        return frequencies;
+    }
+
+    private static String lengthBucket(int bucket) {
+        if (bucket <= 1) {
+            return String.valueOf(bucket);
+        }
+        long low = 1L << (bucket - 1);
+        return low + "-" + ((low << 1) - 1);
+    }
+
+    private static void sum(LongAdder[] adders, long[] into) {
+        for (int i = 0; i < adders.length; i++) {
+            into[i] += adders[i].sum();
+        }
+    }
+
+    private static LongAdder[] adders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static void reset(LongAdder[] adders) {
+        for (LongAdder adder : adders) {
+            adder.reset();
+        }
+    }
+
+    // The counters for one storage, or one shard of a sharded storage
+    private static final class Counters implements StorageListener {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder palindromes = new LongAdder();
+        private final LongAdder totalLength = new LongAdder();
+        private final LongAdder totalWords = new LongAdder();
+        // Bucket 0 holds empty strings, bucket b lengths from 2^(b-1) to 2^b - 1
+        private final LongAdder[] lengths = adders(Integer.SIZE);
+        private final LongAdder[] wordCounts = adders(EXACT_WORD_COUNTS + 1);
+        private final LongAdder[] asciiCharacters = adders(128);
+        private final Map<Integer, LongAdder> otherCharacters = new ConcurrentHashMap<>();
+
+        // Changes are counted under the read lock, so they still run concurrently; a reset
+        // takes the write lock so that no change is counted half before and half after it
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // Generation of the last clear the counters were reset for; only ever grows
+        private volatile long generation;
+
+        @Override
+        public void saved(List<AnalyzedString> strings, long generation) {
+            advance(generation);
+            lock.readLock().lock();
+            try {
+                if (generation == this.generation) {
+                    for (AnalyzedString string : strings) {
+                        add(string, 1);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void deleted(AnalyzedString removed, long generation) {
+            advance(generation);
+            lock.readLock().lock();
+            try {
+                if (generation == this.generation) {
+                    add(removed, -1);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void cleared(long generation) {
+            advance(generation);
+        }
+
+        // Resets the counters the first time a generation is seen, from its clear or from a change
+        private void advance(long generation) {
+            if (generation <= this.generation) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (generation > this.generation) {
+                    count.reset();
+                    palindromes.reset();
+                    totalLength.reset();
+                    totalWords.reset();
+                    reset(lengths);
+                    reset(wordCounts);
+                    reset(asciiCharacters);
+                    otherCharacters.clear();
+                    this.generation = generation;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void add(AnalyzedString string, int delta) {
+            count.add(delta);
+            if (string.getIsPalindrome()) {
+                palindromes.add(delta);
+            }
+            int length = string.getLength();
+            totalLength.add((long) delta * length);
+            totalWords.add((long) delta * string.getWordCount());
+            lengths[Integer.SIZE - Integer.numberOfLeadingZeros(length)].add(delta);
+            wordCounts[Math.min(string.getWordCount(), EXACT_WORD_COUNTS)].add(delta);
+
+            CharacterFrequencyTable frequencies = string.getCharacterFrequencies();
+            for (int i = 0; i < frequencies.size(); i++) {
+                int codePoint = frequencies.codePointAt(i);
+                LongAdder adder = codePoint < asciiCharacters.length
+                        ? asciiCharacters[codePoint]
+                        : otherCharacters.computeIfAbsent(codePoint, c -> new LongAdder());
+                adder.add((long) delta * frequencies.countAt(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.CharacterFrequencyTable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary form of an analyzed string, used by the journal and the snapshots. It carries every
+ * computed property, so reading a string back never runs the analysis again.
+ * <pre>
+ * int    value length in bytes, followed by the UTF-8 value
+ * byte[] 32-byte SHA-256 hash
+ * long   createdAt epoch second (UTC), int nanos
+ * int    length, byte palindrome, int unique characters, int word count
+ * int    distinct characters, followed by (int code point, int count) pairs
+ * </pre>
+ */
+final class AnalyzedStringCodec {
+
+    private static final int HASH_BYTES = 32;
+
+    private AnalyzedStringCodec() {
+    }
+
+    // Lossless, since the analysis engine rejects values with unpaired surrogates
+    static byte[] valueBytes(AnalyzedString analyzedString) {
+        return analyzedString.getValue().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int encodedSize(byte[] value, AnalyzedString analyzedString) {
+        return 4 + value.length + HASH_BYTES + 8 + 4 + 4 + 1 + 4 + 4
+                + 4 + analyzedString.getCharacterFrequencies().size() * 8;
+    }
+
+    static void encode(byte[] value, AnalyzedString analyzedString, ByteBuffer out) {
+        out.putInt(value.length).put(value);
+        out.put(analyzedString.getSha256());
+
+        out.putLong(analyzedString.getCreatedAtSecond()).putInt(analyzedString.getCreatedAtNano());
+
+        out.putInt(analyzedString.getLength())
+                .put((byte) (analyzedString.getIsPalindrome() ? 1 : 0))
+                .putInt(analyzedString.getUniqueCharacters())
+                .putInt(analyzedString.getWordCount());
+
+        CharacterFrequencyTable frequencies = analyzedString.getCharacterFrequencies();
+        out.putInt(frequencies.size());
+        for (int i = 0; i < frequencies.size(); i++) {
+            out.putInt(frequencies.codePointAt(i)).putInt(frequencies.countAt(i));
+        }
+    }
+
+    static AnalyzedString decode(ByteBuffer in) {
+        byte[] value = new byte[in.getInt()];
+        in.get(value);
+        byte[] hash = new byte[HASH_BYTES];
+        in.get(hash);
+
+        AnalyzedString analyzed = new AnalyzedString();
+        analyzed.setValue(new String(value, StandardCharsets.UTF_8));
+        analyzed.setSha256(hash);
+        analyzed.setCreatedAt(in.getLong(), in.getInt());
+        analyzed.setLength(in.getInt());
+        analyzed.setIsPalindrome(in.get() != 0);
+        analyzed.setUniqueCharacters(in.getInt());
+        analyzed.setWordCount(in.getInt());
+
+        int[] pairs = new int[in.getInt() * 2];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = in.getInt();
+        }
+        analyzed.setCharacterFrequencies(new CharacterFrequencyTable(pairs));
+        return analyzed;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.service.Sha256;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consistent hashing ring over a fixed set of shards. Each shard is placed at a number of
+ * virtual points derived from its name, and a key belongs to the first point at or after its
+ * own position, wrapping around. Adding or removing one shard only moves the keys between it
+ * and its neighbours, and with enough virtual points the keys spread evenly.
+ * <p>
+ * Positions are the first 8 bytes of a SHA-256, so a stored string is placed by the hash it
+ * already carries as its id.
+ */
+final class HashRing<T> {
+
+    private final long[] points;
+    private final int[] owners;
+    private final List<T> shards;
+
+    HashRing(List<String> names, List<T> shards, int virtualNodes) {
+        if (names.isEmpty() || names.size() != shards.size()) {
+            throw new IllegalArgumentException("A ring needs at least one shard and a name per shard");
+        }
+        this.shards = List.copyOf(shards);
+
+        int count = names.size() * virtualNodes;
+        long[] positions = new long[count];
+        int[] shardOf = new int[count];
+        Integer[] order = new Integer[count];
+        for (int shard = 0, i = 0; shard < names.size(); shard++) {
+            for (int v = 0; v < virtualNodes; v++, i++) {
+                positions[i] = position(Sha256.hash(names.get(shard) + '#' + v));
+                shardOf[i] = shard;
+                order[i] = i;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compareUnsigned(positions[a], positions[b]));
+
+        this.points = new long[count];
+        this.owners = new int[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = positions[order[i]];
+            owners[i] = shardOf[order[i]];
+        }
+    }
+
+    T shardFor(byte[] sha256) {
+        return shards.get(indexFor(sha256));
+    }
+
+    int indexFor(byte[] sha256) {
+        long key = position(sha256);
+        // First point at or after the key in unsigned order; past the last one wraps to the first
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[middle], key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return owners[low == points.length ? 0 : low];
+    }
+
+    List<T> shards() {
+        return shards;
+    }
+
+    private static long position(byte[] sha256) {
+        long position = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            position = (position << 8) | (sha256[i] & 0xff);
+        }
+        return position;
+    }
+}
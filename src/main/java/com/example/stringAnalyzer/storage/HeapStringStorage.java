@@ -0,0 +1,366 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.SimilarString;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@ConditionalOnProperty(name = "string-analyzer.storage.type", havingValue = "heap", matchIfMissing = true)
+public class HeapStringStorage implements JournaledStorage {
+
+    private final Map<String, AnalyzedString> storage = new ConcurrentHashMap<>();
+
+    // Secondary indexes used by findByFilters; point lookups go straight to the map
+    private final StringIndex index = new StringIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Set when persistence is enabled. Records are queued while the write lock is held, so the
+    // journal order matches the order of the changes; the durability wait happens after unlocking.
+    private volatile StringJournal journal;
+
+    private final List<StorageListener> listeners = new CopyOnWriteArrayList<>();
+    // Incremented by every clear; read and written under the write lock, so each change is
+    // reported with the generation it was applied in
+    private long generation;
+
+    private ParallelScan parallelScan = ParallelScan.SEQUENTIAL;
+
+    @Override
+    public void save(AnalyzedString analyzedString) {
+        replace(analyzedString);
+    }
+
+    @Override
+    public Optional<AnalyzedString> replace(AnalyzedString analyzedString) {
+        CompletableFuture<Void> durable = null;
+        AnalyzedString previous;
+        long[] trigrams = index.trigramKeys(analyzedString.getValue());
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = this.generation;
+            previous = storage.put(analyzedString.getValue(), analyzedString);
+            if (previous != null) {
+                index.remove(previous);
+            }
+            index.add(analyzedString, trigrams);
+            if (journal != null) {
+                durable = journal.appendSave(analyzedString);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (previous != null) {
+            notifyDeleted(previous, generation);
+        }
+        notifySaved(List.of(analyzedString), generation);
+        awaitDurable(durable);
+        return Optional.ofNullable(previous);
+    }
+
+    @Override
+    public Optional<AnalyzedString> saveIfAbsent(AnalyzedString analyzedString) {
+        CompletableFuture<Void> durable = null;
+        AnalyzedString existing;
+        AnalyzedString stored = storage.get(analyzedString.getValue());
+        if (stored != null) {
+            // Not even the trigram keys are built for a duplicate
+            return Optional.of(stored);
+        }
+        long[] trigrams = index.trigramKeys(analyzedString.getValue());
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = this.generation;
+            existing = storage.putIfAbsent(analyzedString.getValue(), analyzedString);
+            if (existing == null) {
+                index.add(analyzedString, trigrams);
+                if (journal != null) {
+                    durable = journal.appendSave(analyzedString);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (existing == null) {
+            notifySaved(List.of(analyzedString), generation);
+            awaitDurable(durable);
+        }
+        return Optional.ofNullable(existing);
+    }
+
+    // All inserts happen under one lock acquisition; the trigram keys are built before it
+    @Override
+    public boolean[] saveAll(List<AnalyzedString> analyzedStrings) {
+        boolean[] inserted = new boolean[analyzedStrings.size()];
+        long[][] trigrams = new long[inserted.length][];
+        for (int i = 0; i < inserted.length; i++) {
+            String value = analyzedStrings.get(i).getValue();
+            if (!storage.containsKey(value)) {
+                trigrams[i] = index.trigramKeys(value);
+            }
+        }
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = this.generation;
+            for (int i = 0; i < inserted.length; i++) {
+                AnalyzedString analyzedString = analyzedStrings.get(i);
+                if (storage.putIfAbsent(analyzedString.getValue(), analyzedString) == null) {
+                    index.add(analyzedString, trigrams[i]);
+                    inserted[i] = true;
+                    if (journal != null) {
+                        durable.add(journal.appendSave(analyzedString));
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        notifySaved(inserted, analyzedStrings, generation);
+        awaitDurable(CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)));
+        return inserted;
+    }
+
+    @Override
+    public boolean existByValue(String value) {
+        return storage.containsKey(value);
+    }
+
+    @Override
+    public Optional<AnalyzedString> findByValue(String value) {
+        return Optional.ofNullable(storage.get(value));
+    }
+
+    @Override
+    public List<AnalyzedString> findByFilters(StringFilter filter) {
+        lock.readLock().lock();
+        try {
+            return index.query(filter, parallelScan);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public StringPage findPage(StringFilter filter, PageRequest page) {
+        if (page.isUnpaged()) {
+            return new StringPage(findByFilters(filter), null);
+        }
+        lock.readLock().lock();
+        try {
+            return index.page(filter, page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SimilarString> findSimilar(String value, double threshold) {
+        lock.readLock().lock();
+        try {
+            return index.similar(value, threshold);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteByValue(String value) {
+        return remove(value).isPresent();
+    }
+
+    @Override
+    public Optional<AnalyzedString> remove(String value) {
+        CompletableFuture<Void> durable = null;
+        AnalyzedString analyzedString;
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = this.generation;
+            analyzedString = storage.remove(value);
+
+            if (analyzedString == null) {
+                return Optional.empty();
+            }
+            index.remove(analyzedString);
+            if (journal != null) {
+                durable = journal.appendDelete(value);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        notifyDeleted(analyzedString, generation);
+        awaitDurable(durable);
+        return Optional.of(analyzedString);
+    }
+
+    @Override
+    public int count() {
+        return storage.size();
+    }
+
+    @Override
+    public void clear() {
+        CompletableFuture<Void> durable = null;
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = ++this.generation;
+            storage.clear();
+            index.clear();
+            if (journal != null) {
+                durable = journal.appendClear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (StorageListener listener : listeners) {
+            listener.cleared(generation);
+        }
+        awaitDurable(durable);
+    }
+
+    @Override
+    public StorageFootprint footprint() {
+        lock.readLock().lock();
+        try {
+            return index.footprint();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void attachJournal(StringJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void detachJournal() {
+        this.journal = null;
+    }
+
+    // Like a checkpoint: the references are copied under the lock and handed over after it
+    @Override
+    public void forEachStored(StoredStringConsumer consumer) throws IOException {
+        List<AnalyzedString> entries;
+        lock.readLock().lock();
+        try {
+            entries = new ArrayList<>(storage.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (AnalyzedString entry : entries) {
+            consumer.accept(entry);
+        }
+    }
+
+    // Copying the references is cheap, so the snapshot is written after the lock is released
+    @Override
+    public long checkpoint(CheckpointWriter writer) throws IOException {
+        List<AnalyzedString> entries;
+        CompletableFuture<Long> nextSegment;
+        lock.readLock().lock();
+        try {
+            nextSegment = journal.roll();
+            entries = new ArrayList<>(storage.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+        long segmentId = nextSegment.join();
+        writer.write(segmentId, entries.size(), entries);
+        return segmentId;
+    }
+
+    // Large filter scans are split across this pool's workers
+    @Autowired
+    public void setParallelScan(ParallelScan parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+
+    // Longest value given trigram keys for substring lookups; longer ones are scanned
+    @Autowired
+    public void setTrigramMaxLength(@Value("${string-analyzer.storage.trigram-max-length:4096}") int maxLength) {
+        lock.writeLock().lock();
+        try {
+            index.configureTrigrams(maxLength);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Sketch size and LSH band count for similarity lookups
+    @Autowired
+    public void setSimilarity(@Value("${string-analyzer.similarity.sketch-size:64}") int sketchSize,
+                              @Value("${string-analyzer.similarity.bands:16}") int bands) {
+        lock.writeLock().lock();
+        try {
+            index.configureSimilarity(sketchSize, bands);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addListener(StorageListener listener) {
+        listeners.add(listener);
+    }
+
+    private void notifyDeleted(AnalyzedString removed, long generation) {
+        for (StorageListener listener : listeners) {
+            listener.deleted(removed, generation);
+        }
+    }
+
+    private void notifySaved(List<AnalyzedString> saved, long generation) {
+        for (StorageListener listener : listeners) {
+            listener.saved(saved, generation);
+        }
+    }
+
+    private void notifySaved(boolean[] inserted, List<AnalyzedString> analyzedStrings, long generation) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        List<AnalyzedString> saved = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i]) {
+                saved.add(analyzedStrings.get(i));
+            }
+        }
+        if (!saved.isEmpty()) {
+            notifySaved(saved, generation);
+        }
+    }
+
+    private static void awaitDurable(CompletableFuture<Void> durable) {
+        if (durable == null) {
+            return;
+        }
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+
+import java.io.IOException;
+
+/**
+ * Hooks {@link StoragePersistence} needs from a storage implementation. Changes must be queued
+ * on the attached journal in the same order they are applied.
+ */
+interface JournaledStorage extends StringStorage {
+
+    void attachJournal(StringJournal journal);
+
+    void detachJournal();
+
+    /**
+     * Rolls the journal and hands the writer the stored strings exactly as produced by every
+     * segment before the new one. Returns that segment id.
+     */
+    long checkpoint(CheckpointWriter writer) throws IOException;
+
+    interface CheckpointWriter {
+        void write(long segmentId, int count, Iterable<AnalyzedString> entries) throws IOException;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.MinHash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Locality-sensitive hashing buckets over the {@link MinHash} sketches of the stored strings,
+ * by slot. A sketch is cut into bands of {@code rows} bins, and each band has its own hash table
+ * from band hash to the chain of slots sharing it. Strings of similarity {@code s} share some
+ * band with probability {@code 1 - (1 - s^rows)^bands}, so a lookup only visits the slots in
+ * the probe's buckets: likely matches plus a few false candidates, never the whole corpus.
+ * <p>
+ * Each band is three int arrays: chain heads by bucket, and next slot and band hash by slot.
+ * There are as many buckets as slots, so chains stay about one long. Removing a slot unlinks
+ * it from its chains, so freed slots are reused at once. For the off-heap storage the arrays
+ * are direct buffers and the index adds nothing per entry to the heap.
+ * <p>
+ * Not thread-safe; the owning storage guards it with its lock.
+ */
+final class LshIndex {
+
+    static final int DEFAULT_BANDS = 16;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Keeps the byte size of a direct buffer within an int; more slots than the off-heap storage has
+    private static final int MAX_CAPACITY = 1 << 28;
+
+    private final int sketchSize;
+    private final int bands;
+    private final int rows;
+    private final boolean direct;
+
+    // Slots and buckets per band, a power of two
+    private int capacity;
+    // Bucket to first slot + 1 of its chain, 0 when empty
+    private IntBuffer[] heads;
+    // Slot to the next slot + 1 in its chain, 0 at the end
+    private IntBuffer[] next;
+    // Slot to its band hash
+    private IntBuffer[] keys;
+
+    LshIndex(int sketchSize, int bands, boolean direct) {
+        if (sketchSize < 1 || sketchSize > MinHash.MAX_SIZE) {
+            throw new IllegalArgumentException("Sketch size must be between 1 and " + MinHash.MAX_SIZE + ", got " + sketchSize);
+        }
+        if (bands < 1 || sketchSize % bands != 0) {
+            throw new IllegalArgumentException("Sketch size " + sketchSize + " is not a multiple of " + bands + " bands");
+        }
+        this.sketchSize = sketchSize;
+        this.bands = bands;
+        this.rows = sketchSize / bands;
+        this.direct = direct;
+        clear();
+    }
+
+    int sketchSize() {
+        return sketchSize;
+    }
+
+    // The string's own sketch when it has one of this size, otherwise one built from its value
+    MinHash sketchOf(AnalyzedString analyzedString) {
+        MinHash sketch = analyzedString.getMinHash();
+        return sketch != null && sketch.size() == sketchSize ? sketch : MinHash.of(analyzedString.getValue(), sketchSize);
+    }
+
+    void add(int slot, MinHash sketch) {
+        if (slot >= capacity) {
+            grow(slot + 1);
+        }
+        int mask = capacity - 1;
+        for (int b = 0; b < bands; b++) {
+            int key = sketch.band(b, rows);
+            keys[b].put(slot, key);
+            next[b].put(slot, heads[b].get(key & mask));
+            heads[b].put(key & mask, slot + 1);
+        }
+    }
+
+    void remove(int slot) {
+        int mask = capacity - 1;
+        for (int b = 0; b < bands; b++) {
+            int bucket = keys[b].get(slot) & mask;
+            int previous = 0;
+            int current = heads[b].get(bucket);
+            while (current != 0 && current != slot + 1) {
+                previous = current;
+                current = next[b].get(current - 1);
+            }
+            if (current == 0) {
+                continue;
+            }
+            if (previous == 0) {
+                heads[b].put(bucket, next[b].get(slot));
+            } else {
+                next[b].put(previous - 1, next[b].get(slot));
+            }
+        }
+    }
+
+    void clear() {
+        capacity = INITIAL_CAPACITY;
+        heads = new IntBuffer[bands];
+        next = new IntBuffer[bands];
+        keys = new IntBuffer[bands];
+        for (int b = 0; b < bands; b++) {
+            heads[b] = allocate(capacity);
+            next[b] = allocate(capacity);
+            keys[b] = allocate(capacity);
+        }
+    }
+
+    // Distinct slots sharing at least one band with the sketch, in ascending order
+    int[] candidates(MinHash probe) {
+        int mask = capacity - 1;
+        int[] slots = new int[16];
+        int count = 0;
+        for (int b = 0; b < bands; b++) {
+            int key = probe.band(b, rows);
+            for (int current = heads[b].get(key & mask); current != 0; current = next[b].get(current - 1)) {
+                if (keys[b].get(current - 1) == key) {
+                    if (count == slots.length) {
+                        slots = Arrays.copyOf(slots, count * 2);
+                    }
+                    slots[count++] = current - 1;
+                }
+            }
+        }
+        Arrays.sort(slots, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || slots[i] != slots[distinct - 1]) {
+                slots[distinct++] = slots[i];
+            }
+        }
+        return Arrays.copyOf(slots, distinct);
+    }
+
+    long bytes() {
+        return 3L * Integer.BYTES * bands * capacity;
+    }
+
+    int buckets() {
+        return bands * capacity;
+    }
+
+    // Doubles the arrays and moves every chained slot to its bucket in the larger table
+    private void grow(int slots) {
+        if (slots > MAX_CAPACITY) {
+            throw new IllegalStateException("Similarity index is full");
+        }
+        int grown = capacity;
+        while (grown < slots) {
+            grown *= 2;
+        }
+        int mask = grown - 1;
+        for (int b = 0; b < bands; b++) {
+            IntBuffer oldHeads = heads[b];
+            IntBuffer oldNext = next[b];
+            heads[b] = allocate(grown);
+            next[b] = allocate(grown);
+            keys[b] = copy(keys[b], grown);
+            for (int bucket = 0; bucket < capacity; bucket++) {
+                for (int current = oldHeads.get(bucket); current != 0; current = oldNext.get(current - 1)) {
+                    int moved = keys[b].get(current - 1) & mask;
+                    next[b].put(current - 1, heads[b].get(moved));
+                    heads[b].put(moved, current);
+                }
+            }
+        }
+        capacity = grown;
+    }
+
+    private IntBuffer copy(IntBuffer from, int size) {
+        IntBuffer to = allocate(size);
+        to.put(0, from, 0, from.capacity());
+        return to;
+    }
+
+    private IntBuffer allocate(int size) {
+        return direct
+                ? ByteBuffer.allocateDirect(size * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer()
+                : IntBuffer.allocate(size);
+    }
+}
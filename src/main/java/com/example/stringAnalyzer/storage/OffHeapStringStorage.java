@@ -0,0 +1,1002 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.CharacterFrequencyTable;
+import com.example.stringAnalyzer.model.CharacterSignature;
+import com.example.stringAnalyzer.model.MinHash;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.SimilarString;
+import com.example.stringAnalyzer.model.SortField;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Storage that keeps the corpus in native memory, so the GC never traces or copies it:
+ * <ul>
+ * <li>a record arena of chunked direct buffers holding each string's {@link AnalyzedStringCodec} record,</li>
+ * <li>one packed column per filterable property, indexed by slot, that filter scans read directly,</li>
+ * <li>an open-addressing hash table from value to slot,</li>
+ * <li>LSH buckets over the strings' MinHash sketches (see {@link LshIndex}).</li>
+ * </ul>
+ * The heap only holds the buffer objects and a free-slot stack; {@link AnalyzedString} objects are
+ * built for results only. Paged queries scan the columns and keep the best page in a bounded
+ * heap instead of maintaining ordered indexes.
+ * <p>
+ * Built on direct {@link ByteBuffer}s rather than FFM memory segments, which are still a preview
+ * API in Java 21. Freed buffers are released when the GC collects them.
+ */
+@Component
+@ConditionalOnProperty(name = "string-analyzer.storage.type", havingValue = "off-heap")
+public class OffHeapStringStorage implements JournaledStorage {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+    private static final int INITIAL_SLOTS = 1024;
+    // Long columns are addressed with int offsets inside a single buffer
+    private static final int MAX_SLOTS = Integer.MAX_VALUE / Long.BYTES;
+
+    private static final byte LIVE = 1;
+    private static final byte PALINDROME = 2;
+    private static final byte NON_ASCII = 4;
+
+    // Offsets inside an AnalyzedStringCodec record, after the value bytes
+    private static final int HASH_OFFSET = 4;
+    private static final int HASH_BYTES = 32;
+
+    private final int chunkSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int capacity;
+    private Column flags;
+    private Column lengths;
+    private Column wordCounts;
+    private Column createdSeconds;
+    private Column createdNanos;
+    // Lower-cased ASCII characters present, same bits as CharacterSignature
+    private Column asciiLow;
+    private Column asciiHigh;
+    private Column records;
+
+    private int highWaterMark;
+    private int[] freeSlots;
+    private int freeCount;
+    private int size;
+
+    private HashIndex index;
+    private Arena arena;
+    // Sketches are not kept; candidates get theirs rebuilt from their value
+    private LshIndex similarity = new LshIndex(MinHash.DEFAULT_SIZE, LshIndex.DEFAULT_BANDS, true);
+
+    private volatile StringJournal journal;
+
+    private final List<StorageListener> listeners = new CopyOnWriteArrayList<>();
+    // Incremented by every clear; read and written under the write lock, so each change is
+    // reported with the generation it was applied in
+    private long generation;
+
+    private ParallelScan parallelScan = ParallelScan.SEQUENTIAL;
+
+    public OffHeapStringStorage() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    @Autowired
+    public OffHeapStringStorage(@Value("${string-analyzer.storage.off-heap.chunk-size:67108864}") int chunkSize) {
+        this.chunkSize = chunkSize;
+        reset();
+    }
+
+    @Override
+    public void save(AnalyzedString analyzedString) {
+        replace(analyzedString);
+    }
+
+    @Override
+    public Optional<AnalyzedString> replace(AnalyzedString analyzedString) {
+        CompletableFuture<Void> durable = null;
+        byte[] value = AnalyzedStringCodec.valueBytes(analyzedString);
+        AnalyzedString previous = null;
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = this.generation;
+            int position = index.find(analyzedString.getValue(), value);
+            if (position >= 0) {
+                // Only exists in native memory; built for the caller and listeners
+                previous = materialize(index.slotAt(position));
+                release(position);
+            }
+            insert(analyzedString, value);
+            if (journal != null) {
+                durable = journal.appendSave(analyzedString);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (previous != null) {
+            notifyDeleted(previous, generation);
+        }
+        notifySaved(List.of(analyzedString), generation);
+        awaitDurable(durable);
+        return Optional.ofNullable(previous);
+    }
+
+    @Override
+    public Optional<AnalyzedString> saveIfAbsent(AnalyzedString analyzedString) {
+        CompletableFuture<Void> durable = null;
+        byte[] value = AnalyzedStringCodec.valueBytes(analyzedString);
+        AnalyzedString existing = null;
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = this.generation;
+            int position = index.find(analyzedString.getValue(), value);
+            if (position >= 0) {
+                existing = materialize(index.slotAt(position));
+            } else {
+                insert(analyzedString, value);
+                if (journal != null) {
+                    durable = journal.appendSave(analyzedString);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (existing == null) {
+            notifySaved(List.of(analyzedString), generation);
+            awaitDurable(durable);
+        }
+        return Optional.ofNullable(existing);
+    }
+
+    @Override
+    public boolean[] saveAll(List<AnalyzedString> analyzedStrings) {
+        boolean[] inserted = new boolean[analyzedStrings.size()];
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = this.generation;
+            for (int i = 0; i < inserted.length; i++) {
+                AnalyzedString analyzedString = analyzedStrings.get(i);
+                byte[] value = AnalyzedStringCodec.valueBytes(analyzedString);
+                if (index.find(analyzedString.getValue(), value) < 0) {
+                    insert(analyzedString, value);
+                    inserted[i] = true;
+                    if (journal != null) {
+                        durable.add(journal.appendSave(analyzedString));
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        notifySaved(inserted, analyzedStrings, generation);
+        awaitDurable(CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)));
+        return inserted;
+    }
+
+    @Override
+    public boolean existByValue(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            return index.find(value, bytes) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<AnalyzedString> findByValue(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int position = index.find(value, bytes);
+            return position < 0 ? Optional.empty() : Optional.of(materialize(index.slotAt(position)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<AnalyzedString> findByFilters(StringFilter filter) {
+        Scan scan = new Scan(filter);
+        lock.readLock().lock();
+        try {
+            return parallelScan.collect(highWaterMark, (from, to, out) -> {
+                for (int slot = from; slot < to; slot++) {
+                    if (scan.matchesColumns(slot)) {
+                        AnalyzedString candidate = materialize(slot);
+                        if (!scan.recheck || filter.matches(candidate)) {
+                            out.add(candidate);
+                        }
+                    }
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public StringPage findPage(StringFilter filter, PageRequest page) {
+        if (page.isUnpaged()) {
+            return new StringPage(findByFilters(filter), null);
+        }
+
+        Scan scan = new Scan(filter);
+        SortField sort = page.getSort();
+        Comparator<Integer> ascending = (a, b) -> compareSlots(sort, a, b);
+        Comparator<Integer> order = page.isDescending() ? ascending.reversed() : ascending;
+        AnalyzedString after = page.getAfter();
+        Integer limit = page.getLimit();
+
+        lock.readLock().lock();
+        try {
+            // Each segment keeps its first limit + 1 slots in page order; the extra one tells
+            // whether there is more. The survivors of all segments are then sorted together.
+            List<Integer> slots = parallelScan.collect(highWaterMark, (from, to, out) -> {
+                PriorityQueue<Integer> best = new PriorityQueue<>(order.reversed());
+                for (int slot = from; slot < to; slot++) {
+                    if (!scan.matchesColumns(slot)) {
+                        continue;
+                    }
+                    if (after != null) {
+                        int position = compareToPosition(sort, slot, after);
+                        if (page.isDescending() ? position >= 0 : position <= 0) {
+                            continue;
+                        }
+                    }
+                    if (scan.recheck && !filter.matches(materialize(slot))) {
+                        continue;
+                    }
+                    if (limit == null) {
+                        out.add(slot);
+                    } else {
+                        best.add(slot);
+                        if (best.size() > limit + 1) {
+                            best.poll();
+                        }
+                    }
+                }
+                out.addAll(best);
+            });
+
+            slots.sort(order);
+            boolean more = limit != null && slots.size() > limit;
+            List<AnalyzedString> items = new ArrayList<>(more ? limit : slots.size());
+            for (int i = 0; i < slots.size() && (limit == null || i < limit); i++) {
+                items.add(materialize(slots.get(i)));
+            }
+            String nextCursor = more ? page.cursorAfter(items.get(items.size() - 1)) : null;
+            return new StringPage(items, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SimilarString> findSimilar(String value, double threshold) {
+        MinHash probe = MinHash.of(value, similarity.sketchSize());
+        lock.readLock().lock();
+        try {
+            List<SimilarString> result = new ArrayList<>();
+            for (int slot : similarity.candidates(probe)) {
+                AnalyzedString candidate = materialize(slot);
+                double estimate = probe.similarity(similarity.sketchOf(candidate));
+                if (estimate >= threshold && !candidate.getValue().equals(value)) {
+                    result.add(new SimilarString(candidate, estimate));
+                }
+            }
+            result.sort(SimilarString.ORDER);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteByValue(String value) {
+        return remove(value).isPresent();
+    }
+
+    @Override
+    public Optional<AnalyzedString> remove(String value) {
+        CompletableFuture<Void> durable = null;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        AnalyzedString removed;
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = this.generation;
+            int position = index.find(value, bytes);
+            if (position < 0) {
+                return Optional.empty();
+            }
+            // Only exists in native memory; built for the caller and listeners
+            removed = materialize(index.slotAt(position));
+            release(position);
+            if (journal != null) {
+                durable = journal.appendDelete(value);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        notifyDeleted(removed, generation);
+        awaitDurable(durable);
+        return Optional.of(removed);
+    }
+
+    @Override
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        CompletableFuture<Void> durable = null;
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = ++this.generation;
+            reset();
+            if (journal != null) {
+                durable = journal.appendClear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (StorageListener listener : listeners) {
+            listener.cleared(generation);
+        }
+        awaitDurable(durable);
+    }
+
+    // Native memory reserved by the columns, the hash table and the record arena
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return reservedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only the native memory; the heap keeps a few objects per storage, not per entry
+    @Override
+    public StorageFootprint footprint() {
+        lock.readLock().lock();
+        try {
+            return new StorageFootprint(reservedBytes(), Map.of(
+                    "slots", (long) highWaterMark,
+                    "hash_buckets", (long) index.mask + 1,
+                    "lsh_buckets", (long) similarity.buckets()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long reservedBytes() {
+        long columns = (long) capacity * (1 + 4 + 4 + 8 + 4 + 8 + 8 + 8);
+        return columns + index.bytes() + arena.bytes() + similarity.bytes();
+    }
+
+    @Override
+    public void attachJournal(StringJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void detachJournal() {
+        this.journal = null;
+    }
+
+    // Copying the corpus to the heap is what this storage avoids, so writers wait while the
+    // snapshot streams straight from native memory under the read lock
+    @Override
+    public long checkpoint(CheckpointWriter writer) throws IOException {
+        lock.readLock().lock();
+        try {
+            long segmentId = journal.roll().join();
+            writer.write(segmentId, size, liveEntries());
+            return segmentId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Streams from native memory under the read lock like a checkpoint, so writers wait until
+    // the consumer is done
+    @Override
+    public void forEachStored(StoredStringConsumer consumer) throws IOException {
+        lock.readLock().lock();
+        try {
+            for (AnalyzedString entry : liveEntries()) {
+                consumer.accept(entry);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reset() {
+        capacity = INITIAL_SLOTS;
+        flags = new Column(Byte.BYTES, capacity);
+        lengths = new Column(Integer.BYTES, capacity);
+        wordCounts = new Column(Integer.BYTES, capacity);
+        createdSeconds = new Column(Long.BYTES, capacity);
+        createdNanos = new Column(Integer.BYTES, capacity);
+        asciiLow = new Column(Long.BYTES, capacity);
+        asciiHigh = new Column(Long.BYTES, capacity);
+        records = new Column(Long.BYTES, capacity);
+        highWaterMark = 0;
+        freeSlots = new int[16];
+        freeCount = 0;
+        size = 0;
+        index = new HashIndex();
+        arena = new Arena(chunkSize);
+        similarity.clear();
+    }
+
+    private void insert(AnalyzedString analyzedString, byte[] value) {
+        int slot = allocateSlot();
+        int recordSize = AnalyzedStringCodec.encodedSize(value, analyzedString);
+        long address = arena.allocate(recordSize);
+        AnalyzedStringCodec.encode(value, analyzedString, arena.record(address));
+
+        long low = 0;
+        long high = 0;
+        byte flag = LIVE;
+        if (analyzedString.getIsPalindrome()) {
+            flag |= PALINDROME;
+        }
+        CharacterFrequencyTable frequencies = analyzedString.getCharacterFrequencies();
+        for (int i = 0; i < frequencies.size(); i++) {
+            int c = CharacterSignature.normalize(frequencies.codePointAt(i));
+            if (c < 64) {
+                low |= 1L << c;
+            } else if (c < 128) {
+                high |= 1L << (c - 64);
+            } else {
+                flag |= NON_ASCII;
+            }
+        }
+
+        flags.putByte(slot, flag);
+        lengths.putInt(slot, analyzedString.getLength());
+        wordCounts.putInt(slot, analyzedString.getWordCount());
+        createdSeconds.putLong(slot, analyzedString.getCreatedAtSecond());
+        createdNanos.putInt(slot, analyzedString.getCreatedAtNano());
+        asciiLow.putLong(slot, low);
+        asciiHigh.putLong(slot, high);
+        records.putLong(slot, address);
+
+        index.insert(hash(analyzedString.getValue()), slot);
+        similarity.add(slot, similarity.sketchOf(analyzedString));
+        size++;
+    }
+
+    private void release(int position) {
+        int slot = index.slotAt(position);
+        index.removeAt(position);
+        arena.free(records.getLong(slot));
+        similarity.remove(slot);
+        flags.putByte(slot, (byte) 0);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        size--;
+
+        if (arena.needsCompaction()) {
+            compact();
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWaterMark == capacity) {
+            if (capacity == MAX_SLOTS) {
+                throw new IllegalStateException("Off-heap storage is full");
+            }
+            capacity = (int) Math.min(MAX_SLOTS, (long) capacity * 2);
+            for (Column column : List.of(flags, lengths, wordCounts, createdSeconds, createdNanos, asciiLow, asciiHigh, records)) {
+                column.grow(capacity);
+            }
+        }
+        return highWaterMark++;
+    }
+
+    // Copies the live records into a fresh arena, dropping the space of deleted ones
+    private void compact() {
+        Arena compacted = new Arena(chunkSize);
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            if ((flags.getByte(slot) & LIVE) != 0) {
+                ByteBuffer record = arena.record(records.getLong(slot));
+                long address = compacted.allocate(record.remaining());
+                compacted.record(address).put(record);
+                records.putLong(slot, address);
+            }
+        }
+        arena = compacted;
+    }
+
+    private AnalyzedString materialize(int slot) {
+        return AnalyzedStringCodec.decode(arena.record(records.getLong(slot)));
+    }
+
+    private Iterable<AnalyzedString> liveEntries() {
+        return () -> new Iterator<>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < highWaterMark && (flags.getByte(from) & LIVE) == 0) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < highWaterMark;
+            }
+
+            @Override
+            public AnalyzedString next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                AnalyzedString entry = materialize(next);
+                next = advance(next + 1);
+                return entry;
+            }
+        };
+    }
+
+    private int compareSlots(SortField sort, int a, int b) {
+        int byKey = Integer.compare(sortKey(sort, a), sortKey(sort, b));
+        if (byKey != 0) {
+            return byKey;
+        }
+        int bySecond = Long.compare(createdSeconds.getLong(a), createdSeconds.getLong(b));
+        if (bySecond != 0) {
+            return bySecond;
+        }
+        int byNano = Integer.compare(createdNanos.getInt(a), createdNanos.getInt(b));
+        if (byNano != 0) {
+            return byNano;
+        }
+        return compareHashes(hashOf(a), 0, hashOf(b), 0);
+    }
+
+    // Where the slot sorts relative to a cursor position, in ascending order
+    private int compareToPosition(SortField sort, int slot, AnalyzedString position) {
+        int positionKey = switch (sort) {
+            case LENGTH -> position.getLength();
+            case WORD_COUNT -> position.getWordCount();
+            case CREATED_AT -> 0;
+        };
+        int byKey = Integer.compare(sortKey(sort, slot), positionKey);
+        if (byKey != 0) {
+            return byKey;
+        }
+        int bySecond = Long.compare(createdSeconds.getLong(slot), position.getCreatedAtSecond());
+        if (bySecond != 0) {
+            return bySecond;
+        }
+        int byNano = Integer.compare(createdNanos.getInt(slot), position.getCreatedAtNano());
+        if (byNano != 0) {
+            return byNano;
+        }
+        return compareHashes(hashOf(slot), 0, ByteBuffer.wrap(position.getSha256()), 0);
+    }
+
+    private int sortKey(SortField sort, int slot) {
+        return switch (sort) {
+            case LENGTH -> lengths.getInt(slot);
+            case WORD_COUNT -> wordCounts.getInt(slot);
+            case CREATED_AT -> 0;
+        };
+    }
+
+    private ByteBuffer hashOf(int slot) {
+        ByteBuffer record = arena.record(records.getLong(slot));
+        return record.slice(HASH_OFFSET + record.getInt(0), HASH_BYTES);
+    }
+
+    // Unsigned lexicographic order, the same as comparing the hex ids
+    private static int compareHashes(ByteBuffer a, int aOffset, ByteBuffer b, int bOffset) {
+        for (int i = 0; i < HASH_BYTES; i += Long.BYTES) {
+            int cmp = Long.compareUnsigned(a.getLong(aOffset + i), b.getLong(bOffset + i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private static int hash(String value) {
+        int h = value.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Large filter scans are split across this pool's workers
+    @Autowired
+    public void setParallelScan(ParallelScan parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+
+    // Sketch size and LSH band count for similarity lookups
+    @Autowired
+    public void setSimilarity(@Value("${string-analyzer.similarity.sketch-size:64}") int sketchSize,
+                              @Value("${string-analyzer.similarity.bands:16}") int bands) {
+        lock.writeLock().lock();
+        try {
+            LshIndex rebuilt = new LshIndex(sketchSize, bands, true);
+            for (int slot = 0; slot < highWaterMark; slot++) {
+                if ((flags.getByte(slot) & LIVE) != 0) {
+                    rebuilt.add(slot, rebuilt.sketchOf(materialize(slot)));
+                }
+            }
+            similarity = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addListener(StorageListener listener) {
+        listeners.add(listener);
+    }
+
+    private void notifyDeleted(AnalyzedString removed, long generation) {
+        for (StorageListener listener : listeners) {
+            listener.deleted(removed, generation);
+        }
+    }
+
+    private void notifySaved(List<AnalyzedString> saved, long generation) {
+        for (StorageListener listener : listeners) {
+            listener.saved(saved, generation);
+        }
+    }
+
+    private void notifySaved(boolean[] inserted, List<AnalyzedString> analyzedStrings, long generation) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        List<AnalyzedString> saved = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i]) {
+                saved.add(analyzedStrings.get(i));
+            }
+        }
+        if (!saved.isEmpty()) {
+            notifySaved(saved, generation);
+        }
+    }
+
+    private static void awaitDurable(CompletableFuture<Void> durable) {
+        if (durable == null) {
+            return;
+        }
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * The column checks of one filter. Palindrome, length, word count and ASCII characters are
+     * decided from the columns alone; a needle with other characters or more than one character,
+     * and every substring criterion, is confirmed against the full record once the columns pass.
+     */
+    private final class Scan {
+        // The filter unpacked into primitives, so the per-slot checks never unbox
+        private final int flagMask;
+        private final int flagValue;
+        private final boolean checkLength;
+        private final int minLength;
+        private final int maxLength;
+        private final boolean checkWordCount;
+        private final int wordCount;
+        private final long needLow;
+        private final long needHigh;
+        private final boolean recheck;
+
+        Scan(StringFilter filter) {
+            // A single contains_character must occur in a match. A longer needle is a substring
+            // compared with case folding, which matches characters the columns keep apart
+            // (ſ and s, ı and i), so like the other substrings only its length is checked here
+            long low = 0;
+            long high = 0;
+            boolean nonAscii = false;
+            String needle = filter.hasContainsCharacter() ? filter.getContainsCharacter() : null;
+            boolean singleCharacter = needle == null || needle.codePointCount(0, needle.length()) == 1;
+            if (needle != null && singleCharacter) {
+                int c = CharacterSignature.normalize(needle.codePointAt(0));
+                if (c < 64) {
+                    low |= 1L << c;
+                } else if (c < 128) {
+                    high |= 1L << (c - 64);
+                } else {
+                    nonAscii = true;
+                }
+            }
+            // A match is at least as long as each of its substrings
+            int longestSubstring = singleCharacter ? 0 : needle.length();
+            for (String part : new String[]{filter.getContains(), filter.getStartsWith(), filter.getEndsWith()}) {
+                if (part != null) {
+                    longestSubstring = Math.max(longestSubstring, part.length());
+                }
+            }
+            this.needLow = low;
+            this.needHigh = high;
+            this.recheck = nonAscii || longestSubstring > 0;
+
+            int mask = LIVE;
+            int value = LIVE;
+            if (filter.getIsPalindrome() != null) {
+                mask |= PALINDROME;
+                value |= filter.getIsPalindrome() ? PALINDROME : 0;
+            }
+            if (nonAscii) {
+                mask |= NON_ASCII;
+                value |= NON_ASCII;
+            }
+            this.flagMask = mask;
+            this.flagValue = value;
+
+            this.checkLength = filter.getMinLength() != null || filter.getMaxLength() != null || longestSubstring > 0;
+            this.minLength = Math.max(longestSubstring, filter.getMinLength() == null ? Integer.MIN_VALUE : filter.getMinLength());
+            this.maxLength = filter.getMaxLength() == null ? Integer.MAX_VALUE : filter.getMaxLength();
+            this.checkWordCount = filter.getWordCount() != null;
+            this.wordCount = checkWordCount ? filter.getWordCount() : 0;
+        }
+
+        boolean matchesColumns(int slot) {
+            if ((flags.getByte(slot) & flagMask) != flagValue) {
+                return false;
+            }
+            if (checkLength) {
+                int length = lengths.getInt(slot);
+                if (length < minLength || length > maxLength) {
+                    return false;
+                }
+            }
+            if (checkWordCount && wordCounts.getInt(slot) != wordCount) {
+                return false;
+            }
+            return (needLow == 0 || (asciiLow.getLong(slot) & needLow) == needLow)
+                    && (needHigh == 0 || (asciiHigh.getLong(slot) & needHigh) == needHigh);
+        }
+    }
+
+    /**
+     * Fixed-width values indexed by slot in one direct buffer.
+     */
+    private static final class Column {
+        private final int width;
+        private ByteBuffer buffer;
+
+        Column(int width, int capacity) {
+            this.width = width;
+            this.buffer = ByteBuffer.allocateDirect(width * capacity).order(ByteOrder.nativeOrder());
+        }
+
+        void grow(int capacity) {
+            ByteBuffer bigger = ByteBuffer.allocateDirect(Math.multiplyExact(width, capacity)).order(ByteOrder.nativeOrder());
+            bigger.put(0, buffer, 0, buffer.capacity());
+            buffer = bigger;
+        }
+
+        byte getByte(int slot) {
+            return buffer.get(slot);
+        }
+
+        void putByte(int slot, byte value) {
+            buffer.put(slot, value);
+        }
+
+        int getInt(int slot) {
+            return buffer.getInt(slot * width);
+        }
+
+        void putInt(int slot, int value) {
+            buffer.putInt(slot * width, value);
+        }
+
+        long getLong(int slot) {
+            return buffer.getLong(slot * width);
+        }
+
+        void putLong(int slot, long value) {
+            buffer.putLong(slot * width, value);
+        }
+    }
+
+    /**
+     * Linear-probing table of (value hash, slot + 1) pairs packed into longs; 0 marks an empty
+     * bucket. Deletes shift the following entries back, so no tombstones build up.
+     */
+    private final class HashIndex {
+        // Largest power of two whose table still fits in one buffer
+        private static final int MAX_BUCKETS = 1 << 27;
+
+        private ByteBuffer table;
+        private int mask;
+        private int entries;
+
+        HashIndex() {
+            allocate(1024);
+        }
+
+        // Returns the bucket holding the value, or -1
+        int find(String value, byte[] bytes) {
+            int h = hash(value);
+            for (int bucket = h & mask; ; bucket = (bucket + 1) & mask) {
+                long entry = table.getLong(bucket * Long.BYTES);
+                if (entry == 0) {
+                    return -1;
+                }
+                if ((int) (entry >>> 32) == h && valueEquals((int) entry - 1, bytes)) {
+                    return bucket;
+                }
+            }
+        }
+
+        int slotAt(int bucket) {
+            return (int) table.getLong(bucket * Long.BYTES) - 1;
+        }
+
+        void insert(int h, int slot) {
+            if ((entries + 1) * 10L > (mask + 1) * 7L) {
+                resize();
+            }
+            put(((long) h << 32) | (slot + 1L));
+            entries++;
+        }
+
+        void removeAt(int bucket) {
+            int hole = bucket;
+            for (int next = (hole + 1) & mask; ; next = (next + 1) & mask) {
+                long entry = table.getLong(next * Long.BYTES);
+                if (entry == 0) {
+                    break;
+                }
+                int home = (int) (entry >>> 32) & mask;
+                // The entry can fill the hole unless its home lies cyclically in (hole, next]
+                boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+                if (!stays) {
+                    table.putLong(hole * Long.BYTES, entry);
+                    hole = next;
+                }
+            }
+            table.putLong(hole * Long.BYTES, 0);
+            entries--;
+        }
+
+        long bytes() {
+            return table.capacity();
+        }
+
+        private boolean valueEquals(int slot, byte[] bytes) {
+            ByteBuffer record = arena.record(records.getLong(slot));
+            return record.getInt(0) == bytes.length
+                    && record.slice(4, bytes.length).mismatch(ByteBuffer.wrap(bytes)) == -1;
+        }
+
+        private void put(long entry) {
+            for (int bucket = (int) (entry >>> 32) & mask; ; bucket = (bucket + 1) & mask) {
+                if (table.getLong(bucket * Long.BYTES) == 0) {
+                    table.putLong(bucket * Long.BYTES, entry);
+                    return;
+                }
+            }
+        }
+
+        private void resize() {
+            if (mask + 1 >= MAX_BUCKETS) {
+                throw new IllegalStateException("Off-heap hash index is full");
+            }
+            ByteBuffer old = table;
+            allocate((mask + 1) * 2);
+            for (int i = 0; i < old.capacity(); i += Long.BYTES) {
+                long entry = old.getLong(i);
+                if (entry != 0) {
+                    put(entry);
+                }
+            }
+        }
+
+        private void allocate(int buckets) {
+            table = ByteBuffer.allocateDirect(buckets * Long.BYTES).order(ByteOrder.nativeOrder());
+            mask = buckets - 1;
+        }
+    }
+
+    /**
+     * Append-only record space in direct chunks. An address is the chunk number in the high
+     * 32 bits and the offset of the record's size prefix in the low 32 bits.
+     */
+    private static final class Arena {
+        private final int chunkSize;
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private long liveBytes;
+        private long deadBytes;
+
+        Arena(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        long allocate(int recordSize) {
+            int needed = Integer.BYTES + recordSize;
+            ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (chunk == null || chunk.remaining() < needed) {
+                chunk = ByteBuffer.allocateDirect(Math.max(chunkSize, needed));
+                chunks.add(chunk);
+            }
+            int offset = chunk.position();
+            chunk.putInt(recordSize);
+            chunk.position(offset + needed);
+            liveBytes += needed;
+            return ((long) (chunks.size() - 1) << 32) | offset;
+        }
+
+        // A buffer positioned over the record itself, without the size prefix
+        ByteBuffer record(long address) {
+            ByteBuffer chunk = chunks.get((int) (address >>> 32));
+            int offset = (int) address;
+            return chunk.slice(offset + Integer.BYTES, chunk.getInt(offset));
+        }
+
+        void free(long address) {
+            int needed = Integer.BYTES + chunks.get((int) (address >>> 32)).getInt((int) address);
+            liveBytes -= needed;
+            deadBytes += needed;
+        }
+
+        boolean needsCompaction() {
+            return deadBytes >= chunkSize && deadBytes > liveBytes;
+        }
+
+        long bytes() {
+            long total = 0;
+            for (ByteBuffer chunk : chunks) {
+                total += chunk.capacity();
+            }
+            return total;
+        }
+    }
+}
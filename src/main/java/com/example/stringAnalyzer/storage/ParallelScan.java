@@ -0,0 +1,186 @@
+package com.example.stringAnalyzer.storage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs large filter scans on a dedicated fork-join pool. A scan over a range of slots is cut
+ * into contiguous segments; each segment collects its matches into its own list, and the lists
+ * are concatenated in segment order, so the result is in the same order as a sequential scan.
+ * <p>
+ * Scans with less work than the threshold, and every scan when parallelism is 1, run on the
+ * calling thread. The caller keeps holding its storage read lock while the workers run, so the
+ * workers see a stable view without locking themselves.
+ * <p>
+ * Every scan is recorded: {@code strings.scan} times it by {@code mode}, and
+ * {@code strings.scan.entries} and {@code strings.scan.results} compare the entries it
+ * tested with the ones it collected, which shows how selective the indexes leave the scans.
+ */
+@Component
+public class ParallelScan {
+
+    // Smallest range worth handing to another thread
+    static final int MIN_SEGMENT = 4096;
+
+    /** Always scans on the calling thread; used by storages that were not given a pool. */
+    public static final ParallelScan SEQUENTIAL = new ParallelScan(Integer.MAX_VALUE, 1);
+
+    private final int threshold;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    private final Timer sequentialScans;
+    private final Timer parallelScans;
+    private final DistributionSummary scannedEntries;
+    private final DistributionSummary collectedResults;
+
+    public ParallelScan(int threshold, int parallelism) {
+        this(threshold, parallelism, new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public ParallelScan(
+            @Value("${string-analyzer.storage.scan.parallel-threshold:50000}") int threshold,
+            @Value("${string-analyzer.storage.scan.parallelism:0}") int parallelism,
+            MeterRegistry registry) {
+        this.threshold = threshold;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        if (this.parallelism > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.pool = new ForkJoinPool(this.parallelism, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("string-scan-" + threadNumber.incrementAndGet());
+                return thread;
+            }, null, false);
+        } else {
+            this.pool = null;
+        }
+
+        this.sequentialScans = scanTimer(registry, "sequential");
+        this.parallelScans = scanTimer(registry, "parallel");
+        this.scannedEntries = DistributionSummary.builder("strings.scan.entries")
+                .description("Entries tested by a filter scan")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.collectedResults = DistributionSummary.builder("strings.scan.results")
+                .description("Entries collected by a filter scan")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Collects the matches of {@code scan} over slots {@code [0, length)}.
+     */
+    public <T> List<T> collect(int length, RangeScan<T> scan) {
+        return collect(length, length, scan);
+    }
+
+    /**
+     * Collects the matches of {@code scan} over {@code [0, length)}, going parallel when
+     * {@code work}, the number of entries the scan will actually test, reaches the threshold.
+     */
+    public <T> List<T> collect(int length, long work, RangeScan<T> scan) {
+        long started = System.nanoTime();
+        int segments = pool == null || work < threshold
+                ? 1
+                : (int) Math.min(parallelism * 4L, (length + MIN_SEGMENT - 1L) / MIN_SEGMENT);
+        if (segments <= 1) {
+            List<T> out = new ArrayList<>();
+            scan.scan(0, length, out);
+            record(sequentialScans, started, work, out.size());
+            return out;
+        }
+
+        List<List<T>> parts = new ArrayList<>(segments);
+        for (int i = 0; i < segments; i++) {
+            parts.add(new ArrayList<>());
+        }
+        pool.invoke(new Segments<>(scan, parts, length, 0, segments));
+
+        int size = 0;
+        for (List<T> part : parts) {
+            size += part.size();
+        }
+        List<T> result = new ArrayList<>(size);
+        for (List<T> part : parts) {
+            result.addAll(part);
+        }
+        record(parallelScans, started, work, size);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private void record(Timer timer, long started, long work, int results) {
+        timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        scannedEntries.record(work);
+        collectedResults.record(results);
+    }
+
+    private static Timer scanTimer(MeterRegistry registry, String mode) {
+        return Timer.builder("strings.scan")
+                .description("Filter scans over the stored entries")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Scans the slots {@code [from, to)} and adds the matches to {@code out} in slot order.
+     * Called concurrently for disjoint ranges, so it must only read shared state.
+     */
+    @FunctionalInterface
+    public interface RangeScan<T> {
+        void scan(int from, int to, List<T> out);
+    }
+
+    // Splits the segment indexes in halves so idle workers can steal the larger pieces
+    private static final class Segments<T> extends RecursiveAction {
+        private final RangeScan<T> scan;
+        private final List<List<T>> parts;
+        private final int length;
+        private final int first;
+        private final int last;
+
+        Segments(RangeScan<T> scan, List<List<T>> parts, int length, int first, int last) {
+            this.scan = scan;
+            this.parts = parts;
+            this.length = length;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first == 1) {
+                int segments = parts.size();
+                int from = (int) ((long) length * first / segments);
+                int to = (int) ((long) length * last / segments);
+                scan.scan(from, to, parts.get(first));
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new Segments<>(scan, parts, length, first, middle),
+                    new Segments<>(scan, parts, length, middle, last));
+        }
+    }
+}
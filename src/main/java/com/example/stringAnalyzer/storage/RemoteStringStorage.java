@@ -0,0 +1,217 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.exception.ShardUnavailableException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.SimilarString;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One shard held by another instance, reached through its {@code /internal/shard} endpoints
+ * (see {@link ShardProtocol}). The other instance keeps the strings in its own configured
+ * storage, with its own indexes and persistence.
+ * <p>
+ * Listeners registered here are told about the changes made through this client. The endpoints
+ * return the replaced or removed string, so a listener sees the same events as with a local
+ * storage. The other instance's lock is out of reach, so generations are counted here: a write
+ * made through this client while a clear is in flight may be reported in either generation.
+ */
+class RemoteStringStorage implements StringStorage {
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    private final List<StorageListener> listeners = new CopyOnWriteArrayList<>();
+    // Read before each write is sent, incremented once a clear is acknowledged
+    private final AtomicLong generation = new AtomicLong();
+
+    RemoteStringStorage(HttpClient http, String baseUrl, Duration timeout) {
+        this.http = http;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void save(AnalyzedString analyzedString) {
+        replace(analyzedString);
+    }
+
+    @Override
+    public Optional<AnalyzedString> replace(AnalyzedString analyzedString) {
+        long generation = this.generation.get();
+        byte[] body = send(request("/string").PUT(strings(List.of(analyzedString))), 200);
+        List<AnalyzedString> previous = ShardProtocol.readStrings(body);
+        previous.forEach(removed -> notifyDeleted(removed, generation));
+        notifySaved(List.of(analyzedString), generation);
+        return previous.stream().findFirst();
+    }
+
+    @Override
+    public Optional<AnalyzedString> saveIfAbsent(AnalyzedString analyzedString) {
+        long generation = this.generation.get();
+        byte[] body = send(request("/string").POST(strings(List.of(analyzedString))), 200);
+        List<AnalyzedString> existing = ShardProtocol.readStrings(body);
+        if (existing.isEmpty()) {
+            notifySaved(List.of(analyzedString), generation);
+            return Optional.empty();
+        }
+        return Optional.of(existing.get(0));
+    }
+
+    @Override
+    public boolean[] saveAll(List<AnalyzedString> analyzedStrings) {
+        long generation = this.generation.get();
+        boolean[] inserted = ShardProtocol.readFlags(
+                send(request("/strings").POST(strings(analyzedStrings)), 200));
+        if (!listeners.isEmpty()) {
+            List<AnalyzedString> saved = new ArrayList<>();
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i]) {
+                    saved.add(analyzedStrings.get(i));
+                }
+            }
+            if (!saved.isEmpty()) {
+                notifySaved(saved, generation);
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public boolean existByValue(String value) {
+        return findByValue(value).isPresent();
+    }
+
+    @Override
+    public Optional<AnalyzedString> findByValue(String value) {
+        byte[] body = send(request("/string?value=" + encode(value)).GET(), 200);
+        List<AnalyzedString> found = ShardProtocol.readStrings(body);
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    @Override
+    public List<AnalyzedString> findByFilters(StringFilter filter) {
+        return findPage(filter, PageRequest.UNPAGED).getItems();
+    }
+
+    @Override
+    public StringPage findPage(StringFilter filter, PageRequest page) {
+        StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+        for (Map.Entry<String, Object> criterion : filter.toMap().entrySet()) {
+            query.add(criterion.getKey() + '=' + encode(String.valueOf(criterion.getValue())));
+        }
+        if (!page.isUnpaged()) {
+            query.add("sort=" + (page.isDescending() ? "-" : "") + page.getSort().getParameter());
+            if (page.getAfter() != null) {
+                query.add("cursor=" + page.cursorAfter(page.getAfter()));
+            }
+            if (page.getLimit() != null) {
+                query.add("limit=" + page.getLimit());
+            }
+        }
+        return ShardProtocol.readPage(send(request("/strings" + query).GET(), 200));
+    }
+
+    // The other instance builds the probe's sketch with its own settings
+    @Override
+    public List<SimilarString> findSimilar(String value, double threshold) {
+        return ShardProtocol.readSimilar(send(request("/similar?value=" + encode(value) + "&threshold=" + threshold).GET(), 200));
+    }
+
+    @Override
+    public boolean deleteByValue(String value) {
+        return remove(value).isPresent();
+    }
+
+    @Override
+    public Optional<AnalyzedString> remove(String value) {
+        long generation = this.generation.get();
+        byte[] body = send(request("/string?value=" + encode(value)).DELETE(), 200);
+        Optional<AnalyzedString> removed = ShardProtocol.readStrings(body).stream().findFirst();
+        removed.ifPresent(string -> notifyDeleted(string, generation));
+        return removed;
+    }
+
+    @Override
+    public int count() {
+        return Integer.parseInt(new String(send(request("/count").GET(), 200), StandardCharsets.US_ASCII).trim());
+    }
+
+    @Override
+    public void clear() {
+        send(request("/strings").DELETE(), 204);
+        long generation = this.generation.incrementAndGet();
+        for (StorageListener listener : listeners) {
+            listener.cleared(generation);
+        }
+    }
+
+    @Override
+    public void addListener(StorageListener listener) {
+        listeners.add(listener);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/internal/shard" + path))
+                .timeout(timeout)
+                .header("Content-Type", ShardProtocol.CONTENT_TYPE);
+    }
+
+    private static HttpRequest.BodyPublisher strings(List<AnalyzedString> strings) {
+        return HttpRequest.BodyPublishers.ofByteArray(ShardProtocol.writeStrings(strings));
+    }
+
+    private byte[] send(HttpRequest.Builder request, int expectedStatus) {
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new ShardUnavailableException("Shard " + baseUrl + " is unreachable", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardUnavailableException("Interrupted while waiting for shard " + baseUrl, e);
+        }
+        if (response.statusCode() != expectedStatus) {
+            throw new ShardUnavailableException("Shard " + baseUrl + " answered with status " + response.statusCode(), null);
+        }
+        return response.body();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private void notifyDeleted(AnalyzedString removed, long generation) {
+        for (StorageListener listener : listeners) {
+            listener.deleted(removed, generation);
+        }
+    }
+
+    private void notifySaved(List<AnalyzedString> saved, long generation) {
+        for (StorageListener listener : listeners) {
+            listener.saved(saved, generation);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.SimilarString;
+import com.example.stringAnalyzer.model.StringPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary bodies exchanged between a {@link ShardedStringStorage} and the shard endpoints of
+ * another instance. Strings travel as {@link AnalyzedStringCodec} records, so every computed
+ * property, the id and the creation time arrive unchanged and nothing is analyzed twice.
+ * <pre>
+ * strings: int count, then per string an int record size and the record
+ * page:    boolean has next cursor, [UTF next cursor], strings
+ * flags:   int count, then one byte per flag
+ * similar: strings, then one double similarity per string
+ * </pre>
+ */
+public final class ShardProtocol {
+
+    public static final String CONTENT_TYPE = "application/octet-stream";
+
+    private ShardProtocol() {
+    }
+
+    public static byte[] writeStrings(List<AnalyzedString> strings) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeStrings(strings, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<AnalyzedString> readStrings(byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            return readStrings(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] writePage(StringPage page) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeBoolean(page.getNextCursor() != null);
+            if (page.getNextCursor() != null) {
+                out.writeUTF(page.getNextCursor());
+            }
+            writeStrings(page.getItems(), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static StringPage readPage(byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            String nextCursor = in.readBoolean() ? in.readUTF() : null;
+            return new StringPage(readStrings(in), nextCursor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] writeSimilar(List<SimilarString> similar) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeStrings(similar.stream().map(SimilarString::getString).toList(), out);
+            for (SimilarString s : similar) {
+                out.writeDouble(s.getSimilarity());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<SimilarString> readSimilar(byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            List<AnalyzedString> strings = readStrings(in);
+            List<SimilarString> similar = new ArrayList<>(strings.size());
+            for (AnalyzedString string : strings) {
+                similar.add(new SimilarString(string, in.readDouble()));
+            }
+            return similar;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] writeFlags(boolean[] flags) {
+        ByteBuffer out = ByteBuffer.allocate(Integer.BYTES + flags.length);
+        out.putInt(flags.length);
+        for (boolean flag : flags) {
+            out.put((byte) (flag ? 1 : 0));
+        }
+        return out.array();
+    }
+
+    public static boolean[] readFlags(byte[] body) {
+        ByteBuffer in = ByteBuffer.wrap(body);
+        boolean[] flags = new boolean[in.getInt()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = in.get() != 0;
+        }
+        return flags;
+    }
+
+    private static void writeStrings(List<AnalyzedString> strings, DataOutputStream out) throws IOException {
+        out.writeInt(strings.size());
+        for (AnalyzedString analyzedString : strings) {
+            byte[] value = AnalyzedStringCodec.valueBytes(analyzedString);
+            ByteBuffer record = ByteBuffer.allocate(AnalyzedStringCodec.encodedSize(value, analyzedString));
+            AnalyzedStringCodec.encode(value, analyzedString, record);
+            out.writeInt(record.capacity());
+            out.write(record.array());
+        }
+    }
+
+    private static List<AnalyzedString> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<AnalyzedString> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] record = new byte[in.readInt()];
+            in.readFully(record);
+            strings.add(AnalyzedStringCodec.decode(ByteBuffer.wrap(record)));
+        }
+        return strings;
+    }
+}
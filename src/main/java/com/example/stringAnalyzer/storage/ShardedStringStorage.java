@@ -0,0 +1,316 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.exception.ShardUnavailableException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.SimilarString;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import com.example.stringAnalyzer.service.Sha256;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Partitions the strings over several shards by consistent hashing of their SHA-256 id (see
+ * {@link HashRing}). A shard is either an in-process heap or off-heap storage, or another
+ * instance reached over HTTP ({@link RemoteStringStorage}); both kinds can be mixed.
+ * <p>
+ * Writes and lookups by value go to the one shard that owns the value. Filter queries are sent
+ * to every shard at once and the answers merged: unpaged results are concatenated in shard
+ * order, and a page is the first {@code limit} strings of the shards' own pages in page order.
+ * Every sort order is total and cursors only carry sort keys, so the same cursor is valid on
+ * every shard.
+ * <p>
+ * Persistence is configured per shard: remote instances journal their own strings, while the
+ * in-process shards are not journaled.
+ */
+@Component
+@ConditionalOnProperty(name = "string-analyzer.storage.type", havingValue = "sharded")
+public class ShardedStringStorage implements StringStorage {
+
+    private final HashRing<StringStorage> ring;
+    // Scatter calls mostly wait on other instances, so each gets its own virtual thread
+    private final ExecutorService scatter = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedStringStorage(List<String> names, List<StringStorage> shards, int virtualNodes) {
+        this.ring = new HashRing<>(names, shards, virtualNodes);
+    }
+
+    @Autowired
+    public ShardedStringStorage(
+            @Value("${string-analyzer.storage.shards.local:4}") int localShards,
+            @Value("${string-analyzer.storage.shards.local-type:heap}") String localType,
+            @Value("${string-analyzer.storage.shards.remote:}") List<String> remoteUrls,
+            @Value("${string-analyzer.storage.shards.virtual-nodes:128}") int virtualNodes,
+            @Value("${string-analyzer.storage.shards.timeout:10s}") Duration timeout,
+            @Value("${string-analyzer.similarity.sketch-size:64}") int sketchSize,
+            @Value("${string-analyzer.similarity.bands:16}") int bands,
+            @Value("${string-analyzer.storage.trigram-max-length:4096}") int trigramMaxLength,
+            ParallelScan parallelScan) {
+        this(new Shards(localShards, localType, remoteUrls, timeout, sketchSize, bands, trigramMaxLength, parallelScan), virtualNodes);
+    }
+
+    private ShardedStringStorage(Shards shards, int virtualNodes) {
+        this(shards.names, shards.storages, virtualNodes);
+    }
+
+    @Override
+    public void save(AnalyzedString analyzedString) {
+        ring.shardFor(analyzedString.getSha256()).save(analyzedString);
+    }
+
+    @Override
+    public Optional<AnalyzedString> replace(AnalyzedString analyzedString) {
+        return ring.shardFor(analyzedString.getSha256()).replace(analyzedString);
+    }
+
+    @Override
+    public Optional<AnalyzedString> saveIfAbsent(AnalyzedString analyzedString) {
+        return ring.shardFor(analyzedString.getSha256()).saveIfAbsent(analyzedString);
+    }
+
+    // Each shard gets its part of the batch in one call, all shards at the same time
+    @Override
+    public boolean[] saveAll(List<AnalyzedString> analyzedStrings) {
+        Map<StringStorage, List<Integer>> positions = new IdentityHashMap<>();
+        for (int i = 0; i < analyzedStrings.size(); i++) {
+            positions.computeIfAbsent(ring.shardFor(analyzedStrings.get(i).getSha256()), k -> new ArrayList<>()).add(i);
+        }
+
+        List<StringStorage> shards = new ArrayList<>(positions.keySet());
+        List<boolean[]> results = scatter(shards, shard -> {
+            List<AnalyzedString> part = new ArrayList<>();
+            for (int position : positions.get(shard)) {
+                part.add(analyzedStrings.get(position));
+            }
+            return shard.saveAll(part);
+        });
+
+        boolean[] inserted = new boolean[analyzedStrings.size()];
+        for (int s = 0; s < shards.size(); s++) {
+            List<Integer> part = positions.get(shards.get(s));
+            boolean[] partInserted = results.get(s);
+            for (int i = 0; i < part.size(); i++) {
+                inserted[part.get(i)] = partInserted[i];
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public boolean existByValue(String value) {
+        return shardFor(value).existByValue(value);
+    }
+
+    @Override
+    public Optional<AnalyzedString> findByValue(String value) {
+        return shardFor(value).findByValue(value);
+    }
+
+    @Override
+    public List<AnalyzedString> findByFilters(StringFilter filter) {
+        List<AnalyzedString> result = new ArrayList<>();
+        for (List<AnalyzedString> part : scatter(ring.shards(), shard -> shard.findByFilters(filter))) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    // The first limit strings overall are among the first limit of some shard, so merging the
+    // shards' pages and cutting again gives the global page
+    @Override
+    public StringPage findPage(StringFilter filter, PageRequest page) {
+        if (page.isUnpaged()) {
+            return new StringPage(findByFilters(filter), null);
+        }
+
+        List<AnalyzedString> merged = new ArrayList<>();
+        boolean more = false;
+        for (StringPage part : scatter(ring.shards(), shard -> shard.findPage(filter, page))) {
+            merged.addAll(part.getItems());
+            more |= part.getNextCursor() != null;
+        }
+
+        Comparator<AnalyzedString> order = page.getSort().order();
+        merged.sort(page.isDescending() ? order.reversed() : order);
+        Integer limit = page.getLimit();
+        if (limit != null && merged.size() > limit) {
+            merged = new ArrayList<>(merged.subList(0, limit));
+            more = true;
+        }
+        String nextCursor = more ? page.cursorAfter(merged.get(merged.size() - 1)) : null;
+        return new StringPage(merged, nextCursor);
+    }
+
+    // Similar strings can sit on any shard, so every shard is asked and the answers merged
+    @Override
+    public List<SimilarString> findSimilar(String value, double threshold) {
+        List<SimilarString> merged = new ArrayList<>();
+        for (List<SimilarString> part : scatter(ring.shards(), shard -> shard.findSimilar(value, threshold))) {
+            merged.addAll(part);
+        }
+        merged.sort(SimilarString.ORDER);
+        return merged;
+    }
+
+    @Override
+    public boolean deleteByValue(String value) {
+        return shardFor(value).deleteByValue(value);
+    }
+
+    @Override
+    public Optional<AnalyzedString> remove(String value) {
+        return shardFor(value).remove(value);
+    }
+
+    @Override
+    public int count() {
+        int count = 0;
+        for (int shardCount : scatter(ring.shards(), StringStorage::count)) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    // Summed over the shards that can tell; remote ones answer for themselves
+    @Override
+    public StorageFootprint footprint() {
+        long bytes = 0;
+        boolean known = false;
+        Map<String, Long> indexSizes = new TreeMap<>();
+        for (StringStorage shard : ring.shards()) {
+            StorageFootprint footprint = shard.footprint();
+            if (footprint.getEstimatedBytes() >= 0) {
+                bytes += footprint.getEstimatedBytes();
+                known = true;
+            }
+            footprint.getIndexSizes().forEach((name, size) -> indexSizes.merge(name, size, Long::sum));
+        }
+        return new StorageFootprint(known ? bytes : -1, indexSizes);
+    }
+
+    // One shard after the other, each as of its own moment
+    @Override
+    public void forEachStored(StoredStringConsumer consumer) throws IOException {
+        for (StringStorage shard : ring.shards()) {
+            shard.forEachStored(consumer);
+        }
+    }
+
+    @Override
+    public void clear() {
+        scatter(ring.shards(), shard -> {
+            shard.clear();
+            return null;
+        });
+    }
+
+    // Every shard reports its own changes, in its own generations
+    @Override
+    public void addListener(StorageListener listener) {
+        for (StringStorage shard : ring.shards()) {
+            shard.addListener(listener.forPart());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scatter.shutdownNow();
+    }
+
+    private StringStorage shardFor(String value) {
+        return ring.shardFor(Sha256.hash(value));
+    }
+
+    // Runs the call on every shard concurrently; results are in shard order
+    private <R> List<R> scatter(List<StringStorage> shards, Function<StringStorage, R> call) {
+        if (shards.size() == 1) {
+            return Collections.singletonList(call.apply(shards.get(0)));
+        }
+        List<Future<R>> futures = new ArrayList<>(shards.size());
+        for (StringStorage shard : shards) {
+            futures.add(scatter.submit(() -> call.apply(shard)));
+        }
+        List<R> results = new ArrayList<>(shards.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardUnavailableException("Interrupted while waiting for the shards", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    // In-process shards first, then the remote ones, each named by a stable identity so a
+    // restart with the same configuration places every value on the same shard again
+    private static final class Shards {
+        final List<String> names = new ArrayList<>();
+        final List<StringStorage> storages = new ArrayList<>();
+
+        Shards(int localShards, String localType, List<String> remoteUrls, Duration timeout,
+               int sketchSize, int bands, int trigramMaxLength, ParallelScan parallelScan) {
+            for (int i = 0; i < localShards; i++) {
+                names.add("local-" + i);
+                storages.add(switch (localType) {
+                    case "heap" -> {
+                        HeapStringStorage shard = new HeapStringStorage();
+                        shard.setParallelScan(parallelScan);
+                        shard.setSimilarity(sketchSize, bands);
+                        shard.setTrigramMaxLength(trigramMaxLength);
+                        yield shard;
+                    }
+                    case "off-heap" -> {
+                        OffHeapStringStorage shard = new OffHeapStringStorage();
+                        shard.setParallelScan(parallelScan);
+                        shard.setSimilarity(sketchSize, bands);
+                        yield shard;
+                    }
+                    default -> throw new IllegalArgumentException("Unknown local shard type " + localType);
+                });
+            }
+
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(timeout)
+                    .build();
+            for (String url : remoteUrls) {
+                if (!url.isBlank()) {
+                    RemoteStringStorage shard = new RemoteStringStorage(http, url.trim(), timeout);
+                    names.add(shard.getBaseUrl());
+                    storages.add(shard);
+                }
+            }
+            if (storages.isEmpty()) {
+                throw new IllegalStateException("Sharded storage needs string-analyzer.storage.shards.local or .remote to configure at least one shard");
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.stringAnalyzer.storage;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * What a storage holds besides its entry count: an estimate of the memory its entries and
+ * indexes retain, and the number of keys in each of its indexes.
+ */
+@Value
+public class StorageFootprint {
+
+    public static final StorageFootprint UNKNOWN = new StorageFootprint(-1, Map.of());
+
+    // Negative when the storage cannot tell
+    long estimatedBytes;
+    Map<String, Long> indexSizes;
+}
@@ -0,0 +1,33 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+
+import java.util.List;
+
+/**
+ * Told about every change to a {@link StringStorage} once it is applied. Calls happen on the
+ * writing thread after the storage lock is released, so a listener must not assume it sees the
+ * changes in the same order as concurrent readers.
+ * <p>
+ * Every call carries the storage's generation at the moment the change was applied. Each clear
+ * starts a new, higher generation, so a change reported after a clear but applied before it
+ * has a lower generation than the clear, and a change applied after a clear never has a lower
+ * one, whichever call arrives first.
+ */
+public interface StorageListener {
+
+    // Strings inserted. A string replacing one with the same value comes after a deleted call
+    // for the replaced string.
+    void saved(List<AnalyzedString> strings, long generation);
+
+    void deleted(AnalyzedString removed, long generation);
+
+    void cleared(long generation);
+
+    // A storage made of independently locked parts (the shards of a ShardedStringStorage)
+    // registers the listener returned here once per part; generations of different parts are
+    // unrelated to each other.
+    default StorageListener forPart() {
+        return this;
+    }
+}
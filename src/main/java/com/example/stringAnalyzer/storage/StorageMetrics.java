@@ -0,0 +1,46 @@
+package com.example.stringAnalyzer.storage;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges over the configured storage, read when the registry is scraped:
+ * {@code strings.storage.entries}, {@code strings.storage.bytes} (the storage's own estimate,
+ * see {@link StringStorage#footprint()}) and {@code strings.storage.index.size} by
+ * {@code index}, the number of keys per index.
+ */
+@Component
+public class StorageMetrics implements MeterBinder {
+
+    private final StringStorage storage;
+
+    public StorageMetrics(StringStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("strings.storage.entries", storage, StringStorage::count)
+                .description("Strings stored")
+                .register(registry);
+        Gauge.builder("strings.storage.bytes", storage, StorageMetrics::estimatedBytes)
+                .description("Estimated memory retained by the stored strings and their indexes")
+                .baseUnit("bytes")
+                .register(registry);
+        // Every storage reports the same indexes for its whole lifetime
+        for (String index : storage.footprint().getIndexSizes().keySet()) {
+            Gauge.builder("strings.storage.index.size", storage,
+                            s -> s.footprint().getIndexSizes().getOrDefault(index, 0L))
+                    .description("Keys per storage index")
+                    .tag("index", index)
+                    .register(registry);
+        }
+    }
+
+    private static double estimatedBytes(StringStorage storage) {
+        long bytes = storage.footprint().getEstimatedBytes();
+        return bytes < 0 ? Double.NaN : bytes;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Optional durability for {@link StringStorage}: every change goes to an append-only journal,
+ * and a snapshot is taken periodically so the journal can be trimmed. On startup the newest
+ * snapshot is loaded and only the journal segments written after it are replayed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "string-analyzer.storage.persistence.enabled", havingValue = "true")
+public class StoragePersistence {
+
+    private static final int RESTORE_BATCH = 10_000;
+
+    private final JournaledStorage storage;
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final Duration snapshotInterval;
+
+    private final Lock snapshotLock = new ReentrantLock();
+    private StringJournal journal;
+    private ScheduledExecutorService snapshotter;
+
+    public StoragePersistence(
+            StringStorage storage,
+            @Value("${string-analyzer.storage.persistence.directory:data}") Path directory,
+            @Value("${string-analyzer.storage.persistence.segment-size:67108864}") long segmentSize,
+            @Value("${string-analyzer.storage.persistence.fsync:true}") boolean fsync,
+            @Value("${string-analyzer.storage.persistence.snapshot-interval:10m}") Duration snapshotInterval) {
+        if (!(storage instanceof JournaledStorage journaled)) {
+            throw new IllegalStateException(storage.getClass().getSimpleName() + " does not support persistence");
+        }
+        this.storage = journaled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        long started = System.nanoTime();
+
+        long firstSegment = loadNewestSnapshot();
+        List<Path> segments = files("journal-", ".log");
+        long lastSegment = firstSegment - 1;
+        for (Path segment : segments) {
+            long id = StringJournal.segmentId(segment);
+            lastSegment = Math.max(lastSegment, id);
+            if (id >= firstSegment) {
+                replay(segment);
+            }
+        }
+
+        log.info("Recovered {} strings from {} in {} ms", storage.count(), directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        // New writes always start a fresh segment; recovered segments are never appended to
+        journal = new StringJournal(directory, lastSegment + 1, segmentSize, fsync);
+        storage.attachJournal(journal);
+
+        snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "storage-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = snapshotInterval.toMillis();
+        snapshotter.scheduleWithFixedDelay(this::snapshotQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        snapshotter.shutdownNow();
+        snapshot();
+        storage.detachJournal();
+        journal.close();
+    }
+
+    /**
+     * Writes a snapshot of the current state and deletes the journal segments and snapshots
+     * it makes obsolete.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            int[] written = new int[1];
+            long segmentId = storage.checkpoint((segment, count, entries) -> {
+                StringSnapshots.write(directory, segment, count, entries);
+                written[0] = count;
+            });
+
+            for (Path segment : files("journal-", ".log")) {
+                if (StringJournal.segmentId(segment) < segmentId) {
+                    Files.deleteIfExists(segment);
+                }
+            }
+            for (Path snapshot : files("snapshot-", ".snap")) {
+                if (StringSnapshots.segmentId(snapshot) < segmentId) {
+                    Files.deleteIfExists(snapshot);
+                }
+            }
+            log.info("Snapshot of {} strings written at segment {}", written[0], segmentId);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Periodic snapshot failed", e);
+        }
+    }
+
+    // Returns the first journal segment the loaded snapshot does not cover (0 without a snapshot)
+    private long loadNewestSnapshot() throws IOException {
+        List<Path> snapshots = files("snapshot-", ".snap");
+        snapshots.sort(Comparator.comparingLong(StringSnapshots::segmentId).reversed());
+
+        for (Path snapshot : snapshots) {
+            List<AnalyzedString> batch = new ArrayList<>(RESTORE_BATCH);
+            try {
+                long segmentId = StringSnapshots.load(snapshot, entry -> {
+                    batch.add(entry);
+                    if (batch.size() == RESTORE_BATCH) {
+                        storage.saveAll(batch);
+                        batch.clear();
+                    }
+                });
+                storage.saveAll(batch);
+                return segmentId;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable snapshot {}", snapshot, e);
+                storage.clear();
+            }
+        }
+        return 0;
+    }
+
+    private void replay(Path segment) throws IOException {
+        StringJournal.replay(segment,
+                record -> storage.save(AnalyzedStringCodec.decode(record)),
+                storage::deleteByValue,
+                storage::clear);
+    }
+
+    private List<Path> files(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .filter(f -> f.getFileName().toString().startsWith(prefix) && f.getFileName().toString().endsWith(suffix))
+                    .sorted()
+                    .toList());
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.exception.InvalidExportException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.CharacterFrequencyTable;
+import com.example.stringAnalyzer.model.MinHash;
+import lombok.Value;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Export files for moving a corpus between instances. An export holds every stored string with
+ * all of its computed properties, so an import inserts the strings without analyzing them again.
+ * Any {@link StringStorage} can be exported or imported, also one without persistence.
+ * <p>
+ * The file is columnar: each property of all strings is stored as one contiguous array, and
+ * an import maps those arrays read-only and walks them side by side. Each column is checked
+ * against its checksum, and its length and offsets against the string count, before anything
+ * is inserted, so a damaged file is rejected as a whole.
+ * <pre>
+ * long   magic, int version, int column count, long string count, int sketch size (0 without sketches)
+ * column count x (int column id, long offset, long length, int crc32c)
+ * int    crc32c of everything above
+ * the columns, each starting at a multiple of 8 bytes
+ * </pre>
+ * Columns a reader does not know are skipped, so new ones can be added without a new version.
+ * Similarity sketches are exported only when every string carries one of the same size; the
+ * off-heap storage keeps none on the strings it returns, so an importing storage builds them.
+ */
+public final class StringExports {
+
+    private static final long MAGIC = 0x5341434F52505553L;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8 + 4 + 4 + 8 + 4;
+    private static final int COLUMN_ENTRY_BYTES = 4 + 8 + 8 + 4;
+    private static final int MAP_WINDOW = 1 << 30;
+    private static final int BATCH_SIZE = 10_000;
+
+    // Fixed-width columns hold one value per string; offsets hold one more, ending the last string
+    enum Column {
+        VALUE_OFFSETS(1),
+        VALUE_BYTES(2),
+        SHA256(3),
+        CREATED_AT_SECOND(4),
+        CREATED_AT_NANO(5),
+        LENGTH(6),
+        PALINDROME(7),
+        UNIQUE_CHARACTERS(8),
+        WORD_COUNT(9),
+        // Offsets in ints into the frequency pairs
+        FREQUENCY_OFFSETS(10),
+        // (code point, count) pairs
+        FREQUENCY_PAIRS(11),
+        // Sketch size x 16-bit bins per string; optional
+        MIN_HASH(12);
+
+        final int id;
+
+        Column(int id) {
+            this.id = id;
+        }
+    }
+
+    @Value
+    public static class Result {
+        long strings;
+        // Strings inserted by an import; the others were stored already
+        long inserted;
+        long bytes;
+    }
+
+    private StringExports() {
+    }
+
+    /**
+     * Writes every stored string to the file, replacing it only once it is complete. The strings
+     * come from {@link StringStorage#forEachStored}: the local storages hand over their entries
+     * as of one moment, the off-heap one holding off writers until the columns are written.
+     */
+    public static Result export(StringStorage storage, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path columns = Files.createTempDirectory(directory, ".export-");
+        try {
+            Map<Column, ColumnWriter> writers = new EnumMap<>(Column.class);
+            for (Column column : Column.values()) {
+                writers.put(column, new ColumnWriter(columns.resolve(column.name())));
+            }
+
+            ExportState state = new ExportState();
+            writers.get(Column.VALUE_OFFSETS).out.writeLong(0);
+            writers.get(Column.FREQUENCY_OFFSETS).out.writeLong(0);
+
+            storage.forEachStored(entry -> {
+                MinHash sketch = entry.getMinHash();
+                if (state.strings == 0 && sketch != null) {
+                    state.sketchSize = sketch.size();
+                }
+                byte[] value = AnalyzedStringCodec.valueBytes(entry);
+                state.valueOffset += value.length;
+                writers.get(Column.VALUE_OFFSETS).out.writeLong(state.valueOffset);
+                writers.get(Column.VALUE_BYTES).out.write(value);
+                writers.get(Column.SHA256).out.write(entry.getSha256());
+                writers.get(Column.CREATED_AT_SECOND).out.writeLong(entry.getCreatedAtSecond());
+                writers.get(Column.CREATED_AT_NANO).out.writeInt(entry.getCreatedAtNano());
+                writers.get(Column.LENGTH).out.writeInt(entry.getLength());
+                writers.get(Column.PALINDROME).out.writeByte(entry.getIsPalindrome() ? 1 : 0);
+                writers.get(Column.UNIQUE_CHARACTERS).out.writeInt(entry.getUniqueCharacters());
+                writers.get(Column.WORD_COUNT).out.writeInt(entry.getWordCount());
+
+                CharacterFrequencyTable frequencies = entry.getCharacterFrequencies();
+                for (int i = 0; i < frequencies.size(); i++) {
+                    writers.get(Column.FREQUENCY_PAIRS).out.writeInt(frequencies.codePointAt(i));
+                    writers.get(Column.FREQUENCY_PAIRS).out.writeInt(frequencies.countAt(i));
+                }
+                state.frequencyOffset += 2L * frequencies.size();
+                writers.get(Column.FREQUENCY_OFFSETS).out.writeLong(state.frequencyOffset);
+
+                // Sketches are kept only while every string has one of the same size
+                if (state.sketchSize > 0 && (sketch == null || sketch.size() != state.sketchSize)) {
+                    state.sketchSize = 0;
+                }
+                if (state.sketchSize > 0) {
+                    for (char bin : sketch.bins()) {
+                        writers.get(Column.MIN_HASH).out.writeChar(bin);
+                    }
+                }
+                state.strings++;
+            });
+
+            for (ColumnWriter writer : writers.values()) {
+                writer.out.close();
+            }
+            if (state.sketchSize == 0) {
+                writers.remove(Column.MIN_HASH);
+            }
+            long bytes = assemble(file, state.strings, state.sketchSize, writers);
+            return new Result(state.strings, state.strings, bytes);
+        } finally {
+            try (var files = Files.list(columns)) {
+                for (Path column : files.toList()) {
+                    Files.deleteIfExists(column);
+                }
+            }
+            Files.deleteIfExists(columns);
+        }
+    }
+
+    /**
+     * Verifies the file and inserts its strings in batches. Strings whose value is already
+     * stored are left as they are. Fails before inserting anything when the file is damaged or
+     * its columns do not fit together.
+     */
+    public static Result importInto(StringStorage storage, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 4) {
+                throw new InvalidExportException("Not an export file: " + file.getFileName());
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getLong() != MAGIC) {
+                throw new InvalidExportException("Not an export file: " + file.getFileName());
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new InvalidExportException("Unsupported export version " + version + " in " + file.getFileName());
+            }
+            int columnCount = header.getInt();
+            long strings = header.getLong();
+            int sketchSize = header.getInt();
+
+            long directoryBytes = (long) columnCount * COLUMN_ENTRY_BYTES;
+            if (columnCount < 0 || HEADER_BYTES + directoryBytes + 4 > size) {
+                throw new InvalidExportException("Export is truncated: " + file.getFileName());
+            }
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES + directoryBytes + 4);
+            CRC32C headCrc = new CRC32C();
+            headCrc.update(head.slice(0, (int) (HEADER_BYTES + directoryBytes)));
+            if (head.getInt((int) (HEADER_BYTES + directoryBytes)) != (int) headCrc.getValue()) {
+                throw new InvalidExportException("Export header checksum mismatch: " + file.getFileName());
+            }
+
+            Map<Column, MappedColumn> columns = new EnumMap<>(Column.class);
+            head.position(HEADER_BYTES);
+            for (int i = 0; i < columnCount; i++) {
+                int id = head.getInt();
+                long offset = head.getLong();
+                long length = head.getLong();
+                int crc = head.getInt();
+                if (offset < 0 || length < 0 || offset + length > size) {
+                    throw new InvalidExportException("Export is truncated: " + file.getFileName());
+                }
+                for (Column column : Column.values()) {
+                    if (column.id == id) {
+                        MappedColumn mapped = new MappedColumn(channel, offset, length);
+                        if (mapped.crc() != crc) {
+                            throw new InvalidExportException("Export checksum mismatch in column " + column + ": " + file.getFileName());
+                        }
+                        columns.put(column, mapped);
+                    }
+                }
+            }
+            for (Column column : Column.values()) {
+                if (column != Column.MIN_HASH && !columns.containsKey(column)) {
+                    throw new InvalidExportException("Export has no " + column + " column: " + file.getFileName());
+                }
+            }
+
+            if (!consistent(columns, strings, sketchSize)) {
+                throw new InvalidExportException("Export is inconsistent: " + file.getFileName());
+            }
+
+            long inserted = 0;
+            List<AnalyzedString> batch = new ArrayList<>(BATCH_SIZE);
+            MappedColumn sketches = sketchSize > 0 ? columns.get(Column.MIN_HASH) : null;
+            for (long i = 0; i < strings; i++) {
+                AnalyzedString entry = new AnalyzedString();
+                long valueStart = columns.get(Column.VALUE_OFFSETS).getLong(i * 8);
+                long valueEnd = columns.get(Column.VALUE_OFFSETS).getLong((i + 1) * 8);
+                entry.setValue(new String(columns.get(Column.VALUE_BYTES).bytes(valueStart, (int) (valueEnd - valueStart)), StandardCharsets.UTF_8));
+                entry.setSha256(columns.get(Column.SHA256).bytes(i * 32, 32));
+                entry.setCreatedAt(columns.get(Column.CREATED_AT_SECOND).getLong(i * 8), columns.get(Column.CREATED_AT_NANO).getInt(i * 4));
+                entry.setLength(columns.get(Column.LENGTH).getInt(i * 4));
+                entry.setIsPalindrome(columns.get(Column.PALINDROME).getByte(i) != 0);
+                entry.setUniqueCharacters(columns.get(Column.UNIQUE_CHARACTERS).getInt(i * 4));
+                entry.setWordCount(columns.get(Column.WORD_COUNT).getInt(i * 4));
+
+                long pairsStart = columns.get(Column.FREQUENCY_OFFSETS).getLong(i * 8);
+                long pairsEnd = columns.get(Column.FREQUENCY_OFFSETS).getLong((i + 1) * 8);
+                int[] pairs = new int[(int) (pairsEnd - pairsStart)];
+                for (int p = 0; p < pairs.length; p++) {
+                    pairs[p] = columns.get(Column.FREQUENCY_PAIRS).getInt((pairsStart + p) * 4);
+                }
+                entry.setCharacterFrequencies(new CharacterFrequencyTable(pairs));
+
+                if (sketches != null) {
+                    char[] bins = new char[sketchSize];
+                    for (int b = 0; b < sketchSize; b++) {
+                        bins[b] = sketches.getChar((i * sketchSize + b) * 2);
+                    }
+                    entry.setMinHash(MinHash.ofBins(bins));
+                }
+
+                batch.add(entry);
+                if (batch.size() == BATCH_SIZE) {
+                    inserted += insert(storage, batch);
+                }
+            }
+            inserted += insert(storage, batch);
+            return new Result(strings, inserted, size);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            // Should be caught by consistent() before anything is inserted
+            throw new InvalidExportException("Export is inconsistent: " + file.getFileName());
+        }
+    }
+
+    // A file whose checksums match can still disagree with itself. Every column has to hold
+    // exactly what the string count calls for, and the offsets have to climb from 0 to the end
+    // of the column they index, so that reading the rows cannot fail halfway through an import.
+    private static boolean consistent(Map<Column, MappedColumn> columns, long strings, int sketchSize) throws IOException {
+        if (strings < 0 || strings == Long.MAX_VALUE || sketchSize < 0 || sketchSize > MinHash.MAX_SIZE) {
+            return false;
+        }
+        if (sketchSize > 0 && !columns.containsKey(Column.MIN_HASH)) {
+            return false;
+        }
+        try {
+            long pairsLength = columns.get(Column.FREQUENCY_PAIRS).length;
+            return columns.get(Column.SHA256).length == Math.multiplyExact(strings, 32)
+                    && columns.get(Column.CREATED_AT_SECOND).length == Math.multiplyExact(strings, 8)
+                    && columns.get(Column.CREATED_AT_NANO).length == Math.multiplyExact(strings, 4)
+                    && columns.get(Column.LENGTH).length == Math.multiplyExact(strings, 4)
+                    && columns.get(Column.PALINDROME).length == strings
+                    && columns.get(Column.UNIQUE_CHARACTERS).length == Math.multiplyExact(strings, 4)
+                    && columns.get(Column.WORD_COUNT).length == Math.multiplyExact(strings, 4)
+                    && (sketchSize == 0 || columns.get(Column.MIN_HASH).length == Math.multiplyExact(strings, 2L * sketchSize))
+                    && offsetsConsistent(columns.get(Column.VALUE_OFFSETS), strings, 1, columns.get(Column.VALUE_BYTES).length)
+                    && pairsLength % 8 == 0
+                    && offsetsConsistent(columns.get(Column.FREQUENCY_OFFSETS), strings, 2, pairsLength / 4);
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    // Starts at 0, never goes down, spans whole steps of at most an array's worth per string and ends at end
+    private static boolean offsetsConsistent(MappedColumn offsets, long strings, int step, long end) throws IOException {
+        if (offsets.length != Math.multiplyExact(strings + 1, 8)) {
+            return false;
+        }
+        long previous = offsets.getLong(0);
+        if (previous != 0) {
+            return false;
+        }
+        for (long i = 1; i <= strings; i++) {
+            long next = offsets.getLong(i * 8);
+            long span = next - previous;
+            if (span < 0 || span > Integer.MAX_VALUE - 8 || span % step != 0) {
+                return false;
+            }
+            previous = next;
+        }
+        return previous == end;
+    }
+
+    private static int insert(StringStorage storage, List<AnalyzedString> batch) {
+        int inserted = 0;
+        for (boolean flag : storage.saveAll(batch)) {
+            if (flag) {
+                inserted++;
+            }
+        }
+        batch.clear();
+        return inserted;
+    }
+
+    // Header, directory and the column files padded to 8 bytes, then moved into place
+    private static long assemble(Path file, long strings, int sketchSize, Map<Column, ColumnWriter> writers) throws IOException {
+        int columnCount = writers.size();
+        long position = align(HEADER_BYTES + (long) columnCount * COLUMN_ENTRY_BYTES + 4);
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES + columnCount * COLUMN_ENTRY_BYTES + 4);
+        head.putLong(MAGIC).putInt(VERSION).putInt(columnCount).putLong(strings).putInt(sketchSize);
+        for (Map.Entry<Column, ColumnWriter> column : writers.entrySet()) {
+            long length = Files.size(column.getValue().path);
+            head.putInt(column.getKey().id).putLong(position).putLong(length).putInt((int) column.getValue().crc.getValue());
+            position = align(position + length);
+        }
+        CRC32C headCrc = new CRC32C();
+        headCrc.update(head.array(), 0, head.position());
+        head.putInt((int) headCrc.getValue());
+        head.flip();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.write(head);
+            for (ColumnWriter column : writers.values()) {
+                out.position(align(out.position()));
+                try (FileChannel in = FileChannel.open(column.path, StandardOpenOption.READ)) {
+                    long length = in.size();
+                    for (long copied = 0; copied < length; ) {
+                        copied += in.transferTo(copied, length - copied, out);
+                    }
+                }
+            }
+            out.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(file);
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    // Running totals of an export, updated from the storage's callback
+    private static final class ExportState {
+        long strings;
+        int sketchSize;
+        long valueOffset;
+        long frequencyOffset;
+    }
+
+    private static final class ColumnWriter {
+        final Path path;
+        final CRC32C crc = new CRC32C();
+        final DataOutputStream out;
+
+        ColumnWriter(Path path) throws IOException {
+            this.path = path;
+            this.out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(path), 1 << 16), crc));
+        }
+    }
+
+    // A column mapped read-only in windows of up to MAP_WINDOW bytes, remapped as reads move on
+    private static final class MappedColumn {
+        private final FileChannel channel;
+        private final long start;
+        private final long length;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        MappedColumn(FileChannel channel, long start, long length) {
+            this.channel = channel;
+            this.start = start;
+            this.length = length;
+        }
+
+        int crc() throws IOException {
+            CRC32C crc = new CRC32C();
+            for (long position = 0; position < length; position += MAP_WINDOW) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, start + position, Math.min(MAP_WINDOW, length - position)));
+            }
+            return (int) crc.getValue();
+        }
+
+        byte getByte(long position) throws IOException {
+            return window(position, 1).get(offset(position));
+        }
+
+        char getChar(long position) throws IOException {
+            return window(position, 2).getChar(offset(position));
+        }
+
+        int getInt(long position) throws IOException {
+            return window(position, 4).getInt(offset(position));
+        }
+
+        long getLong(long position) throws IOException {
+            return window(position, 8).getLong(offset(position));
+        }
+
+        byte[] bytes(long position, int count) throws IOException {
+            byte[] bytes = new byte[count];
+            window(position, count).get(offset(position), bytes);
+            return bytes;
+        }
+
+        private int offset(long position) {
+            return (int) (position - windowStart);
+        }
+
+        private MappedByteBuffer window(long position, int size) throws IOException {
+            if (position < 0 || size < 0 || position + size > length) {
+                throw new IndexOutOfBoundsException("Read past the end of a column");
+            }
+            if (window == null || position < windowStart || position + size > windowStart + window.limit()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start + position, Math.max(size, Math.min(MAP_WINDOW, length - position)));
+            }
+            return window;
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.CharacterSignature;
+import com.example.stringAnalyzer.model.MinHash;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.SimilarString;
+import com.example.stringAnalyzer.model.SortField;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Secondary indexes over the stored strings. Every entry gets a dense slot number and each
+ * index is a bitmap of slots, so a query only visits the slots of its most selective filter.
+ * <p>
+ * Not thread-safe on its own; {@link HeapStringStorage} guards it with a read/write lock.
+ */
+class StringIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Paged queries whose candidates are at most this fraction of the entries sort the
+    // candidates rather than walk the ordered index
+    private static final int SELECTIVE_RATIO = 16;
+
+    // Retained heap per entry besides its value's characters and its analysis' per-character
+    // tables, as measured by the HeapFootprint benchmark: the value and analysis objects, the
+    // storage map and every index
+    private static final long ENTRY_BYTES = 456;
+    private static final long DISTINCT_CHARACTER_BYTES = 8;
+    // A posting per char plus its share of the key map and of the lists' spare capacity
+    private static final long TRIGRAM_BYTES_PER_CHARACTER = 6;
+    // The sketch object and its array header, besides two bytes per bin
+    private static final long SKETCH_BYTES = 32;
+
+    private AnalyzedString[] entries = new AnalyzedString[INITIAL_CAPACITY];
+    private final Map<String, Integer> slotsByValue = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int highWaterMark;
+    private long estimatedBytes;
+
+    private final Bucket live = new Bucket();
+    private final Bucket palindromes = new Bucket();
+    private final Map<Integer, Bucket> byWordCount = new HashMap<>();
+    private final NavigableMap<Integer, Bucket> byLength = new TreeMap<>();
+    // Inverted posting list per lower-cased code point
+    private final Map<Integer, Bucket> byCharacter = new HashMap<>();
+    // Sorted slot list per trigram key (see Trigrams); kept sparse, as most keys are rare
+    private final Map<Long, Postings> byTrigram = new HashMap<>();
+    // Values longer than this get no trigram keys, so a huge value cannot stall writers on
+    // building them; they are kept in their own bucket and checked by scanning
+    private volatile int trigramMaxLength = Trigrams.DEFAULT_MAX_LENGTH;
+    private final Bucket unindexed = new Bucket();
+    // LSH buckets over the MinHash sketches, for similarity lookups
+    private LshIndex similarity = new LshIndex(MinHash.DEFAULT_SIZE, LshIndex.DEFAULT_BANDS, false);
+    // One ordered set per sort field for cursor-based paging
+    private final Map<SortField, NavigableSet<AnalyzedString>> ordered = new EnumMap<>(SortField.class);
+
+    StringIndex() {
+        for (SortField field : SortField.values()) {
+            ordered.put(field, new TreeSet<>(field.order()));
+        }
+    }
+
+    // Trigram keys for a value about to be added, or null when it is too long to be indexed.
+    // Thread-safe, so writers can build them before taking the lock.
+    long[] trigramKeys(String value) {
+        return value.length() <= trigramMaxLength ? Trigrams.of(value) : null;
+    }
+
+    void add(AnalyzedString analyzedString) {
+        add(analyzedString, trigramKeys(analyzedString.getValue()));
+    }
+
+    // trigramKeys as returned by trigramKeys(value); rebuilt if the limit changed since
+    void add(AnalyzedString analyzedString, long[] trigramKeys) {
+        int slot = allocateSlot();
+        entries[slot] = analyzedString;
+        slotsByValue.put(analyzedString.getValue(), slot);
+
+        live.add(slot);
+        if (analyzedString.getIsPalindrome()) {
+            palindromes.add(slot);
+        }
+        byWordCount.computeIfAbsent(analyzedString.getWordCount(), k -> new Bucket()).add(slot);
+        byLength.computeIfAbsent(analyzedString.getLength(), k -> new Bucket()).add(slot);
+        analyzedString.getCharacterSignature()
+                .forEach(c -> byCharacter.computeIfAbsent(c, k -> new Bucket()).add(slot));
+        addTrigrams(slot, analyzedString.getValue(), trigramKeys);
+        // Kept on the entry, so lookups compare sketches without rebuilding them
+        MinHash sketch = similarity.sketchOf(analyzedString);
+        analyzedString.setMinHash(sketch);
+        similarity.add(slot, sketch);
+        for (NavigableSet<AnalyzedString> set : ordered.values()) {
+            set.add(analyzedString);
+        }
+        estimatedBytes += estimatedSize(analyzedString);
+    }
+
+    void remove(AnalyzedString analyzedString) {
+        Integer slot = slotsByValue.remove(analyzedString.getValue());
+        if (slot == null) {
+            return;
+        }
+
+        live.remove(slot);
+        palindromes.remove(slot);
+        removeFrom(byWordCount, analyzedString.getWordCount(), slot);
+        removeFrom(byLength, analyzedString.getLength(), slot);
+        analyzedString.getCharacterSignature().forEach(c -> removeFrom(byCharacter, c, slot));
+        removeTrigrams(slot, analyzedString.getValue());
+        similarity.remove(slot);
+        for (NavigableSet<AnalyzedString> set : ordered.values()) {
+            set.remove(analyzedString);
+        }
+
+        entries[slot] = null;
+        freeSlots.push(slot);
+        estimatedBytes -= estimatedSize(analyzedString);
+    }
+
+    void clear() {
+        entries = new AnalyzedString[INITIAL_CAPACITY];
+        slotsByValue.clear();
+        freeSlots.clear();
+        highWaterMark = 0;
+        estimatedBytes = 0;
+        live.clear();
+        palindromes.clear();
+        byWordCount.clear();
+        byLength.clear();
+        byCharacter.clear();
+        byTrigram.clear();
+        unindexed.clear();
+        similarity.clear();
+        for (NavigableSet<AnalyzedString> set : ordered.values()) {
+            set.clear();
+        }
+    }
+
+    // Trigram keys for every entry no longer than the new limit, rebuilt in place
+    void configureTrigrams(int maxLength) {
+        for (int slot = live.bits.nextSetBit(0); slot >= 0; slot = live.bits.nextSetBit(slot + 1)) {
+            estimatedBytes -= estimatedSize(entries[slot]);
+            removeTrigrams(slot, entries[slot].getValue());
+        }
+        trigramMaxLength = maxLength;
+        for (int slot = live.bits.nextSetBit(0); slot >= 0; slot = live.bits.nextSetBit(slot + 1)) {
+            addTrigrams(slot, entries[slot].getValue(), null);
+            estimatedBytes += estimatedSize(entries[slot]);
+        }
+    }
+
+    private void addTrigrams(int slot, String value, long[] keys) {
+        if (value.length() > trigramMaxLength) {
+            unindexed.add(slot);
+            return;
+        }
+        for (long key : keys != null ? keys : Trigrams.of(value)) {
+            byTrigram.computeIfAbsent(key, k -> new Postings()).add(slot);
+        }
+    }
+
+    // Bounded by the length limit, so cheap enough to run under the lock
+    private void removeTrigrams(int slot, String value) {
+        if (value.length() > trigramMaxLength) {
+            unindexed.remove(slot);
+            return;
+        }
+        for (long key : Trigrams.of(value)) {
+            Postings postings = byTrigram.get(key);
+            if (postings != null && postings.remove(slot) && postings.size == 0) {
+                byTrigram.remove(key);
+            }
+        }
+    }
+
+    // Sketches of a new size or band layout for every entry, rebuilt in place
+    void configureSimilarity(int sketchSize, int bands) {
+        LshIndex rebuilt = new LshIndex(sketchSize, bands, false);
+        for (int slot = live.bits.nextSetBit(0); slot >= 0; slot = live.bits.nextSetBit(slot + 1)) {
+            AnalyzedString analyzedString = entries[slot];
+            estimatedBytes -= estimatedSize(analyzedString);
+            MinHash sketch = rebuilt.sketchOf(analyzedString);
+            analyzedString.setMinHash(sketch);
+            rebuilt.add(slot, sketch);
+            estimatedBytes += estimatedSize(analyzedString);
+        }
+        similarity = rebuilt;
+    }
+
+    // Strings other than the value itself whose sketch agrees with the value's on at least
+    // threshold of the bins, most similar first. Only the slots sharing an LSH bucket with the
+    // value are compared.
+    List<SimilarString> similar(String value, double threshold) {
+        MinHash probe = MinHash.of(value, similarity.sketchSize());
+        List<SimilarString> result = new ArrayList<>();
+        for (int slot : similarity.candidates(probe)) {
+            AnalyzedString candidate = entries[slot];
+            double estimate = probe.similarity(candidate.getMinHash());
+            if (estimate >= threshold && !candidate.getValue().equals(value)) {
+                result.add(new SimilarString(candidate, estimate));
+            }
+        }
+        result.sort(SimilarString.ORDER);
+        return result;
+    }
+
+    // Results come in slot order. Large scans are split into slot ranges that run in parallel;
+    // when the candidates span several buckets each range merges them by sorting its slots.
+    List<AnalyzedString> query(StringFilter filter, ParallelScan parallelScan) {
+        List<Bucket> candidates = List.copyOf(planCandidates(filter));
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long work = 0;
+        for (Bucket bucket : candidates) {
+            work += bucket.size;
+        }
+
+        return parallelScan.collect(highWaterMark, work, (from, to, out) -> {
+            if (candidates.size() == 1) {
+                BitSet bits = slice(candidates.get(0).bits, from, to);
+                for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                    AnalyzedString s = entries[from + i];
+                    if (filter.matches(s)) {
+                        out.add(s);
+                    }
+                }
+                return;
+            }
+            int[] slots = new int[16];
+            int count = 0;
+            for (Bucket bucket : candidates) {
+                BitSet bits = slice(bucket.bits, from, to);
+                for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                    if (count == slots.length) {
+                        slots = Arrays.copyOf(slots, count * 2);
+                    }
+                    slots[count++] = from + i;
+                }
+            }
+            Arrays.sort(slots, 0, count);
+            for (int i = 0; i < count; i++) {
+                AnalyzedString s = entries[slots[i]];
+                if (filter.matches(s)) {
+                    out.add(s);
+                }
+            }
+        });
+    }
+
+    // The bits of [from, to) shifted down by from, so a search for the next bit stops at the end
+    // of the range instead of running on into the following ones
+    private static BitSet slice(BitSet bits, int from, int to) {
+        return from == 0 && to >= bits.length() ? bits : bits.get(from, to);
+    }
+
+    // Walks the ordered index from the cursor onwards and stops as soon as the page is full
+    // (plus one look-ahead match to know whether a next page exists). A selective filter, such
+    // as a rare substring, is answered from its candidates instead, so the walk does not pass
+    // over every non-match to fill the page.
+    StringPage page(StringFilter filter, PageRequest page) {
+        Collection<Bucket> candidates = planCandidates(filter);
+        long candidateCount = 0;
+        for (Bucket bucket : candidates) {
+            candidateCount += bucket.size;
+        }
+        if (candidateCount * SELECTIVE_RATIO <= live.size) {
+            return pageOf(candidates, filter, page);
+        }
+
+        SortField sort = page.getSort();
+        NavigableSet<AnalyzedString> view = page.isDescending()
+                ? ordered.get(sort).descendingSet()
+                : ordered.get(sort);
+
+        Integer lowerKey = null;
+        Integer upperKey = null;
+        if (sort == SortField.LENGTH) {
+            lowerKey = filter.getMinLength();
+            upperKey = filter.getMaxLength();
+        } else if (sort == SortField.WORD_COUNT) {
+            lowerKey = filter.getWordCount();
+            upperKey = filter.getWordCount();
+        }
+
+        // Jump straight to the first key the filter allows, unless the cursor is already past it
+        AnalyzedString start = page.getAfter();
+        boolean inclusive = false;
+        Integer firstKey = page.isDescending() ? upperKey : lowerKey;
+        if (firstKey != null) {
+            AnalyzedString boundary = boundary(sort, firstKey, page.isDescending());
+            if (start == null || view.comparator().compare(boundary, start) > 0) {
+                start = boundary;
+                inclusive = true;
+            }
+        }
+        if (start != null) {
+            view = view.tailSet(start, inclusive);
+        }
+
+        Integer lastKey = page.isDescending() ? lowerKey : upperKey;
+        Integer limit = page.getLimit();
+        List<AnalyzedString> items = new ArrayList<>();
+        boolean more = false;
+        for (AnalyzedString s : view) {
+            if (lastKey != null) {
+                int key = sort == SortField.LENGTH ? s.getLength() : s.getWordCount();
+                if (page.isDescending() ? key < lastKey : key > lastKey) {
+                    break;
+                }
+            }
+            if (!filter.matches(s)) {
+                continue;
+            }
+            if (limit != null && items.size() == limit) {
+                more = true;
+                break;
+            }
+            items.add(s);
+        }
+
+        String nextCursor = more ? page.cursorAfter(items.get(items.size() - 1)) : null;
+        return new StringPage(items, nextCursor);
+    }
+
+    private StringPage pageOf(Collection<Bucket> candidates, StringFilter filter, PageRequest page) {
+        Comparator<AnalyzedString> order = page.isDescending() ? page.getSort().order().reversed() : page.getSort().order();
+        AnalyzedString after = page.getAfter();
+        List<AnalyzedString> matches = new ArrayList<>();
+        for (Bucket bucket : candidates) {
+            for (int i = bucket.bits.nextSetBit(0); i >= 0; i = bucket.bits.nextSetBit(i + 1)) {
+                AnalyzedString s = entries[i];
+                if (filter.matches(s) && (after == null || order.compare(s, after) > 0)) {
+                    matches.add(s);
+                }
+            }
+        }
+        matches.sort(order);
+
+        Integer limit = page.getLimit();
+        boolean more = limit != null && matches.size() > limit;
+        List<AnalyzedString> items = more ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        String nextCursor = more ? page.cursorAfter(items.get(items.size() - 1)) : null;
+        return new StringPage(items, nextCursor);
+    }
+
+    // A position that sorts before (or, descending, after) every string with the given key
+    private static AnalyzedString boundary(SortField sort, int key, boolean descending) {
+        AnalyzedString boundary = new AnalyzedString();
+        boundary.setLength(key);
+        boundary.setWordCount(key);
+        // No stored string has these creation times, so the (unset) id is never compared
+        boundary.setCreatedAt(descending ? LocalDateTime.MAX : LocalDateTime.MIN);
+        return boundary;
+    }
+
+    // Pick the smallest set of buckets that covers every possible match. The remaining
+    // filters are then checked only against those candidates.
+    private Collection<Bucket> planCandidates(StringFilter filter) {
+        Collection<Bucket> best = List.of(live);
+        long bestSize = live.size;
+
+        if (Boolean.TRUE.equals(filter.getIsPalindrome()) && palindromes.size < bestSize) {
+            best = List.of(palindromes);
+            bestSize = palindromes.size;
+        }
+
+        if (filter.getWordCount() != null) {
+            Bucket bucket = byWordCount.get(filter.getWordCount());
+            if (bucket == null) {
+                return List.of();
+            }
+            if (bucket.size < bestSize) {
+                best = List.of(bucket);
+                bestSize = bucket.size;
+            }
+        }
+
+        // A single contains_character must be present, so its bucket bounds the result. Not for
+        // longer needles or substrings: they compare chars with case folding, which matches
+        // characters these buckets keep apart (ſ and s, ı and i).
+        if (filter.hasContainsCharacter()) {
+            String needle = filter.getContainsCharacter();
+            int codePoint = needle.codePointAt(0);
+            if (Character.charCount(codePoint) == needle.length()) {
+                Bucket bucket = byCharacter.get(CharacterSignature.normalize(codePoint));
+                if (bucket == null) {
+                    return List.of();
+                }
+                if (bucket.size < bestSize) {
+                    best = List.of(bucket);
+                    bestSize = bucket.size;
+                }
+            }
+        }
+
+        // Substring criteria: an indexed match has every key of the needles, so the
+        // intersection of their postings holds those matches and is found in time bound by the
+        // rarest key. Values too long to be indexed are added as candidates of their own.
+        long[] keys = Trigrams.required(filter);
+        if (keys.length > 0) {
+            Postings[] lists = new Postings[keys.length];
+            boolean missing = false;
+            for (int i = 0; i < keys.length; i++) {
+                lists[i] = byTrigram.get(keys[i]);
+                missing |= lists[i] == null;
+            }
+            if (missing) {
+                if (unindexed.size == 0) {
+                    return List.of();
+                }
+                if (unindexed.size < bestSize) {
+                    best = List.of(unindexed);
+                    bestSize = unindexed.size;
+                }
+            } else {
+                Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+                if (lists[0].size + unindexed.size < bestSize) {
+                    Bucket intersection = Postings.intersect(lists);
+                    if (intersection.size == 0 && unindexed.size == 0) {
+                        return List.of();
+                    }
+                    best = unindexed.size == 0 ? List.of(intersection) : List.of(intersection, unindexed);
+                    bestSize = intersection.size + unindexed.size;
+                }
+            }
+        }
+
+        if (filter.getMinLength() != null || filter.getMaxLength() != null) {
+            int from = filter.getMinLength() != null ? filter.getMinLength() : Integer.MIN_VALUE;
+            int to = filter.getMaxLength() != null ? filter.getMaxLength() : Integer.MAX_VALUE;
+            if (from > to) {
+                return List.of();
+            }
+            Collection<Bucket> range = byLength.subMap(from, true, to, true).values();
+            long rangeSize = 0;
+            for (Bucket bucket : range) {
+                rangeSize += bucket.size;
+            }
+            if (rangeSize < bestSize) {
+                best = range;
+            }
+        }
+
+        return best;
+    }
+
+    StorageFootprint footprint() {
+        return new StorageFootprint(estimatedBytes + (long) entries.length * 4 + similarity.bytes(), Map.of(
+                "slots", (long) highWaterMark,
+                "length", (long) byLength.size(),
+                "word_count", (long) byWordCount.size(),
+                "character", (long) byCharacter.size(),
+                "trigram", (long) byTrigram.size(),
+                "trigram_unindexed", (long) unindexed.size,
+                "lsh_buckets", (long) similarity.buckets()));
+    }
+
+    // Latin-1 values take a byte per character, any other value two
+    private long estimatedSize(AnalyzedString analyzedString) {
+        String value = analyzedString.getValue();
+        long characters = value.chars().allMatch(c -> c < 256) ? value.length() : 2L * value.length();
+        MinHash sketch = analyzedString.getMinHash();
+        return ENTRY_BYTES + characters + DISTINCT_CHARACTER_BYTES * analyzedString.getUniqueCharacters()
+                + (value.length() <= trigramMaxLength ? TRIGRAM_BYTES_PER_CHARACTER * value.length() : 0)
+                + (sketch != null ? SKETCH_BYTES + 2L * sketch.size() : 0);
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (highWaterMark == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        return highWaterMark++;
+    }
+
+    private static void removeFrom(Map<Integer, Bucket> buckets, Integer key, int slot) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.remove(slot);
+            if (bucket.size == 0) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    // A bitmap of slots together with its cardinality, so the planner never has to count bits
+    private static final class Bucket {
+        private final BitSet bits = new BitSet();
+        private int size;
+
+        void add(int slot) {
+            if (!bits.get(slot)) {
+                bits.set(slot);
+                size++;
+            }
+        }
+
+        void remove(int slot) {
+            if (bits.get(slot)) {
+                bits.clear(slot);
+                size--;
+            }
+        }
+
+        void clear() {
+            bits.clear();
+            size = 0;
+        }
+    }
+
+    // Slots in ascending order in a plain array; inserting a reused slot shifts the larger ones
+    private static final class Postings {
+        private int[] slots = new int[2];
+        private int size;
+
+        void add(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        // Walks the shortest list and looks each slot up in the others, so the cost follows
+        // the rarest key rather than the common ones
+        static Bucket intersect(Postings[] bySize) {
+            Bucket result = new Bucket();
+            Postings shortest = bySize[0];
+            int[] from = new int[bySize.length];
+            outer:
+            for (int i = 0; i < shortest.size; i++) {
+                int slot = shortest.slots[i];
+                for (int j = 1; j < bySize.length; j++) {
+                    Postings other = bySize[j];
+                    int at = Arrays.binarySearch(other.slots, from[j], other.size, slot);
+                    if (at < 0) {
+                        from[j] = -at - 1;
+                        continue outer;
+                    }
+                    from[j] = at + 1;
+                }
+                result.add(slot);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead log of storage mutations, split into numbered segment files.
+ * <p>
+ * Appends are queued and written by a single writer thread. Whatever accumulates while one
+ * fsync is in progress is written and synced together (group commit), and each caller's
+ * future completes once its record is durable.
+ * <p>
+ * Record layout: {@code int payloadLength, byte op, payload, int crc32c(op + payload)}.
+ * <p>
+ * A failed write stops the journal: that batch and every later append fail. A write can fail
+ * halfway through a record, and replay treats such a record as the crash tail and drops
+ * everything after it, so nothing may be acknowledged behind one.
+ */
+@Slf4j
+final class StringJournal implements AutoCloseable {
+
+    static final byte OP_SAVE = 1;
+    static final byte OP_DELETE = 2;
+    static final byte OP_CLEAR = 3;
+
+    private static final int HEADER_BYTES = 5;
+    private static final int TRAILER_BYTES = 4;
+    private static final int MAX_BATCH = 4096;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean fsync;
+
+    private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+    // Set once by the writer when a write fails; from then on every append fails with it
+    private volatile UncheckedIOException failure;
+
+    // Owned by the writer thread
+    private FileChannel channel;
+    private long segmentId;
+
+    StringJournal(Path directory, long firstSegmentId, long segmentSize, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        openSegment(firstSegmentId);
+
+        this.writer = new Thread(this::writeLoop, "string-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    static Path segmentPath(Path directory, long segmentId) {
+        return directory.resolve(String.format("journal-%012d.log", segmentId));
+    }
+
+    static long segmentId(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+
+    CompletableFuture<Void> appendSave(AnalyzedString analyzedString) {
+        byte[] value = AnalyzedStringCodec.valueBytes(analyzedString);
+        ByteBuffer record = newRecord(OP_SAVE, AnalyzedStringCodec.encodedSize(value, analyzedString));
+        AnalyzedStringCodec.encode(value, analyzedString, record);
+        return enqueue(record);
+    }
+
+    CompletableFuture<Void> appendDelete(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = newRecord(OP_DELETE, bytes.length);
+        record.put(bytes);
+        return enqueue(record);
+    }
+
+    CompletableFuture<Void> appendClear() {
+        return enqueue(newRecord(OP_CLEAR, 0));
+    }
+
+    // Starts a new segment after everything queued so far; completes with the new segment id
+    CompletableFuture<Long> roll() {
+        Roll roll = new Roll(new CompletableFuture<>());
+        if (failure != null) {
+            roll.done.completeExceptionally(failure);
+            return roll.done;
+        }
+        queue.add(roll);
+        return roll.done;
+    }
+
+    /**
+     * Replays one segment, stopping at the first torn or corrupt record. A damaged tail can
+     * only come from a crash during the last write, so the file is truncated there.
+     */
+    static void replay(Path segment, Consumer<ByteBuffer> saves, Consumer<String> deletes, Runnable clears) throws IOException {
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            CRC32C crc = new CRC32C();
+            long position = 0;
+            long size = in.size();
+
+            while (position + HEADER_BYTES + TRAILER_BYTES <= size) {
+                header.clear();
+                in.read(header, position);
+                header.flip();
+                int payloadLength = header.getInt();
+                byte op = header.get();
+                if (payloadLength < 0 || position + HEADER_BYTES + payloadLength + TRAILER_BYTES > size) {
+                    break;
+                }
+
+                ByteBuffer body = ByteBuffer.allocate(payloadLength + TRAILER_BYTES);
+                in.read(body, position + HEADER_BYTES);
+                body.flip();
+                crc.reset();
+                crc.update(op);
+                crc.update(body.slice(0, payloadLength));
+                if ((int) crc.getValue() != body.getInt(payloadLength)) {
+                    break;
+                }
+
+                ByteBuffer payload = body.slice(0, payloadLength);
+                switch (op) {
+                    case OP_SAVE -> saves.accept(payload);
+                    case OP_DELETE -> deletes.accept(StandardCharsets.UTF_8.decode(payload).toString());
+                    case OP_CLEAR -> clears.run();
+                    default -> throw new IOException("Unknown journal operation " + op + " in " + segment);
+                }
+                position += HEADER_BYTES + payloadLength + TRAILER_BYTES;
+            }
+
+            if (position < size) {
+                log.warn("Truncating {} at byte {} of {} after an incomplete record", segment, position, size);
+                in.truncate(position);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private static ByteBuffer newRecord(byte op, int payloadLength) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payloadLength + TRAILER_BYTES);
+        record.putInt(payloadLength).put(op);
+        return record;
+    }
+
+    private CompletableFuture<Void> enqueue(ByteBuffer record) {
+        int payloadEnd = record.position();
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 4, payloadEnd - 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        Append append = new Append(record, new CompletableFuture<>());
+        if (!running) {
+            append.done.completeExceptionally(new IllegalStateException("Journal is closed"));
+            return append.done;
+        }
+        if (failure != null) {
+            append.done.completeExceptionally(failure);
+            return append.done;
+        }
+        queue.add(append);
+        return append.done;
+    }
+
+    private void writeLoop() {
+        List<Command> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Command> batch) {
+        if (failure != null) {
+            // Queued before the failure was noticed
+            for (Command command : batch) {
+                command.done().completeExceptionally(failure);
+            }
+            return;
+        }
+        List<Append> written = new ArrayList<>(batch.size());
+        try {
+            for (Command command : batch) {
+                if (command instanceof Append append) {
+                    if (channel.position() > 0 && channel.position() + append.record.remaining() > segmentSize) {
+                        sync();
+                        openSegment(segmentId + 1);
+                    }
+                    while (append.record.hasRemaining()) {
+                        channel.write(append.record);
+                    }
+                    written.add(append);
+                } else if (command instanceof Roll roll) {
+                    sync();
+                    openSegment(segmentId + 1);
+                    roll.done.complete(segmentId);
+                }
+            }
+            sync();
+            for (Append append : written) {
+                append.done.complete(null);
+            }
+        } catch (IOException e) {
+            log.error("Journal write failed; rejecting all further changes until restart", e);
+            failure = new UncheckedIOException("Journal write failed", e);
+            for (Command command : batch) {
+                command.done().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private void sync() throws IOException {
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    private void openSegment(long id) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        Files.createDirectories(directory);
+        channel = FileChannel.open(segmentPath(directory, id),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentId = id;
+    }
+
+    private sealed interface Command permits Append, Roll {
+        CompletableFuture<?> done();
+    }
+
+    private record Append(ByteBuffer record, CompletableFuture<Void> done) implements Command {
+    }
+
+    private record Roll(CompletableFuture<Long> done) implements Command {
+    }
+}
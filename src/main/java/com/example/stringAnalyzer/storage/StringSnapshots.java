@@ -0,0 +1,133 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact point-in-time copies of the storage. A snapshot named after segment N holds the
+ * state produced by every journal segment before N, so recovery loads the newest snapshot and
+ * replays only the segments from N on.
+ * <pre>
+ * long   magic, int version, long first uncovered segment, long record count
+ * record count x (int size, AnalyzedStringCodec record)
+ * int    crc32c of all records
+ * </pre>
+ * Loading maps the file read-only in windows of up to {@value #MAP_WINDOW} bytes.
+ */
+final class StringSnapshots {
+
+    private static final long MAGIC = 0x53414E4150534854L;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8 + 4 + 8 + 8;
+    private static final int MAP_WINDOW = 1 << 30;
+
+    private StringSnapshots() {
+    }
+
+    static Path snapshotPath(Path directory, long segmentId) {
+        return directory.resolve(String.format("snapshot-%012d.snap", segmentId));
+    }
+
+    static long segmentId(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring("snapshot-".length(), name.length() - ".snap".length()));
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves a partial snapshot
+    static Path write(Path directory, long segmentId, int count, Iterable<AnalyzedString> entries) throws IOException {
+        Path target = snapshotPath(directory, segmentId);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel file = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(file), 1 << 20))) {
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(segmentId);
+            out.writeLong(count);
+
+            CRC32C crc = new CRC32C();
+            CheckedOutputStream records = new CheckedOutputStream(out, crc);
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            for (AnalyzedString entry : entries) {
+                byte[] value = AnalyzedStringCodec.valueBytes(entry);
+                int size = AnalyzedStringCodec.encodedSize(value, entry);
+                if (buffer.capacity() < size + 4) {
+                    buffer = ByteBuffer.allocate(Math.max(size + 4, buffer.capacity() * 2));
+                }
+                buffer.clear();
+                buffer.putInt(size);
+                AnalyzedStringCodec.encode(value, entry, buffer);
+                records.write(buffer.array(), 0, buffer.position());
+            }
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            file.force(true);
+        }
+
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    /**
+     * Streams every record of the snapshot to the consumer and verifies the checksum.
+     * Returns the first segment not covered by the snapshot.
+     */
+    static long load(Path snapshot, Consumer<AnalyzedString> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getLong() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a snapshot file: " + snapshot);
+            }
+            long segmentId = header.getLong();
+            long count = header.getLong();
+
+            CRC32C crc = new CRC32C();
+            long position = HEADER_BYTES;
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+
+            for (long i = 0; i < count; i++) {
+                if (window == null || position + 4 > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                }
+                int recordSize = window.getInt((int) (position - windowStart));
+                if (position + 4 + recordSize > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                }
+
+                int offset = (int) (position - windowStart);
+                ByteBuffer record = window.slice(offset, 4 + recordSize);
+                crc.update(record.duplicate());
+                consumer.accept(AnalyzedStringCodec.decode(record.position(4)));
+                position += 4 + recordSize;
+            }
+
+            if (position + 4 > size) {
+                throw new IOException("Snapshot is truncated: " + snapshot);
+            }
+            ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, position, 4);
+            if (trailer.getInt() != (int) crc.getValue()) {
+                throw new IOException("Snapshot checksum mismatch: " + snapshot);
+            }
+            return segmentId;
+        }
+    }
+}
@@ -1,56 +1,86 @@
 package com.example.stringAnalyzer.storage;
 
-import com.example.stringAnalyzer.dto.StringListResponse;
 import com.example.stringAnalyzer.model.AnalyzedString;
-import org.springframework.stereotype.Component;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.SimilarString;
+import com.example.stringAnalyzer.model.SortField;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
-@Component
-public class StringStorage{
+/**
+ * Store of analyzed strings keyed by value. The implementation is picked with
+ * {@code string-analyzer.storage.type}: {@code heap} (default) keeps entries as Java objects with
+ * bitmap indexes, {@code off-heap} keeps them in packed native memory outside the GC's reach,
+ * and {@code sharded} partitions them over several of those, in-process or in other instances.
+ */
+public interface StringStorage {
 
-    private final Map<String, AnalyzedString> storage = new ConcurrentHashMap<>();
+    void save(AnalyzedString analyzedString);
 
-    public void save(AnalyzedString analyzedString) {
-        storage.put(analyzedString.getValue(), analyzedString);
-    }
+    // Like save, and returns the string it replaced, read in the same atomic step as the write
+    Optional<AnalyzedString> replace(AnalyzedString analyzedString);
 
-    public boolean existByValue(String value){
-        return storage.containsKey(value);
-    }
+    // Inserts the string unless its value is already stored, as one atomic step with a single
+    // lookup. Returns the string already stored, or empty when this one was inserted.
+    Optional<AnalyzedString> saveIfAbsent(AnalyzedString analyzedString);
 
-    public Optional<AnalyzedString> findByValue(String value) {
-        return Optional.ofNullable(storage.get(value));
-    }
+    // Inserts every string whose value is not stored yet as one operation.
+    // The returned flags tell, per position, whether that string was inserted.
+    boolean[] saveAll(List<AnalyzedString> analyzedStrings);
+
+    boolean existByValue(String value);
 
-    public List<AnalyzedString> findByFilters(Boolean isPalindrome, Integer minLength, Integer maxLength, Integer wordCount){
-        return storage.values().stream()
-                .filter(s -> isPalindrome == null || s.getIsPalindrome().equals(isPalindrome))
-                .filter(s -> minLength == null || s.getLength() >= minLength)
-                .filter(s -> maxLength == null || s.getLength() <= maxLength)
-                .filter(s -> wordCount == null || s.getWordCount().equals(wordCount))
-                .collect(Collectors.toList());
+    Optional<AnalyzedString> findByValue(String value);
+
+    default List<AnalyzedString> findByFilters(Boolean isPalindrome, Integer minLength, Integer maxLength, Integer wordCount) {
+        return findByFilters(StringFilter.of(isPalindrome, minLength, maxLength, wordCount, null));
     }
 
-    public boolean deleteByValue(String value) {
-        AnalyzedString analyzedString = storage.remove(value);
+    List<AnalyzedString> findByFilters(StringFilter filter);
 
-        if (analyzedString != null) {
-            storage.remove(analyzedString.getValue());
-            return true;
-        }
-        return false;
+    StringPage findPage(StringFilter filter, PageRequest page);
+
+    // Stored strings other than the value whose estimated similarity to it (see MinHash) is at
+    // least the threshold, most similar first. Found through LSH buckets, so a string just over
+    // the threshold can be missed while one much more similar practically never is.
+    List<SimilarString> findSimilar(String value, double threshold);
+
+    boolean deleteByValue(String value);
+
+    // Like deleteByValue, and returns the string it removed, read in the same atomic step
+    Optional<AnalyzedString> remove(String value);
+
+    int count();
+
+    void clear();
+
+    void addListener(StorageListener listener);
+
+    // Estimated memory and index sizes, for monitoring
+    default StorageFootprint footprint() {
+        return StorageFootprint.UNKNOWN;
     }
 
-    public int count() {
-        return storage.size();
+    // Hands every stored string to the consumer once, for exports. This default pages through
+    // findPage in creation order, missing strings added or removed meanwhile; local storages
+    // walk their entries instead, as of one moment.
+    default void forEachStored(StoredStringConsumer consumer) throws IOException {
+        PageRequest request = PageRequest.first(SortField.CREATED_AT, 10_000);
+        while (request != null) {
+            StringPage page = findPage(StringFilter.NONE, request);
+            List<AnalyzedString> items = page.getItems();
+            for (AnalyzedString item : items) {
+                consumer.accept(item);
+            }
+            request = page.getNextCursor() == null || items.isEmpty() ? null : request.after(items.get(items.size() - 1));
+        }
     }
 
-    public void clear() {
-        storage.clear();
+    interface StoredStringConsumer {
+        void accept(AnalyzedString string) throws IOException;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.StringFilter;
+
+import java.util.Arrays;
+
+/**
+ * Keys of the substring index. A value is indexed by every run of three case-folded chars in
+ * it, plus its first two and last two chars as anchored keys, so a prefix or suffix of two
+ * chars can be looked up as well.
+ * <p>
+ * Folding maps each char the way {@link String#regionMatches(boolean, int, String, int, int)}
+ * compares it when ignoring case, so any two chars it treats as equal get the same key and a
+ * lookup never misses a match. A key is only a necessary condition; candidates are confirmed
+ * with {@link StringFilter#matches}.
+ */
+final class Trigrams {
+
+    // Longest value indexed by default; see StringIndex
+    static final int DEFAULT_MAX_LENGTH = 4096;
+
+    private static final long START = 1L << 48;
+    private static final long END = 1L << 49;
+    private static final long[] NONE = new long[0];
+
+    private Trigrams() {
+    }
+
+    // Distinct keys of a stored value, in no particular order
+    static long[] of(String value) {
+        int length = value.length();
+        if (length < 2) {
+            return NONE;
+        }
+        long[] keys = new long[length];
+        int count = 0;
+        keys[count++] = START | pair(value, 0);
+        keys[count++] = END | pair(value, length - 2);
+        for (int i = 0; i + 3 <= length; i++) {
+            keys[count++] = triple(value, i);
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    /**
+     * Keys every match of the filter's substring criteria has. Empty when those criteria are
+     * too short to be looked up this way.
+     */
+    static long[] required(StringFilter filter) {
+        long[] keys = new long[0];
+        if (filter.hasContains()) {
+            keys = concat(keys, inner(filter.getContains()));
+        }
+        if (filter.hasStartsWith()) {
+            String prefix = filter.getStartsWith();
+            keys = concat(keys, inner(prefix));
+            if (prefix.length() >= 2) {
+                keys = concat(keys, new long[]{START | pair(prefix, 0)});
+            }
+        }
+        if (filter.hasEndsWith()) {
+            String suffix = filter.getEndsWith();
+            keys = concat(keys, inner(suffix));
+            if (suffix.length() >= 2) {
+                keys = concat(keys, new long[]{END | pair(suffix, suffix.length() - 2)});
+            }
+        }
+        return keys;
+    }
+
+    private static long[] inner(String part) {
+        if (part.length() < 3) {
+            return NONE;
+        }
+        long[] keys = new long[part.length() - 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = triple(part, i);
+        }
+        return keys;
+    }
+
+    private static long pair(String s, int i) {
+        return ((long) fold(s.charAt(i)) << 16) | fold(s.charAt(i + 1));
+    }
+
+    private static long triple(String s, int i) {
+        return ((long) fold(s.charAt(i)) << 32) | ((long) fold(s.charAt(i + 1)) << 16) | fold(s.charAt(i + 2));
+    }
+
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        long[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+}
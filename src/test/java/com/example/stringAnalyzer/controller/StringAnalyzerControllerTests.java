@@ -0,0 +1,102 @@
+package com.example.stringAnalyzer.controller;
+
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StringAnalyzerControllerTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	StringStorage storage;
+
+	@BeforeEach
+	void clear() {
+		storage.clear();
+	}
+
+	@Test
+	void batchTakesAJsonArray() throws Exception {
+		mvc.perform(post("/strings/batch").contentType(MediaType.APPLICATION_JSON)
+						.content("[\"racecar\", {\"value\": \"level\"}, {\"value\": 7}, \"racecar\", \"noon\", \"noon\"]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.created").value(3))
+				.andExpect(jsonPath("$.duplicates").value(2))
+				.andExpect(jsonPath("$.invalid").value(1))
+				.andExpect(jsonPath("$.results[*].index").value(contains(0, 1, 2, 3, 4, 5)))
+				.andExpect(jsonPath("$.results[*].status").value(contains(
+						"created", "created", "invalid", "duplicate", "created", "duplicate")))
+				.andExpect(jsonPath("$.results[2].message").value("Invalid data type for 'value' (must be string)"))
+				.andExpect(jsonPath("$.results[3].id").isString());
+	}
+
+	@Test
+	void batchTakesNdjsonUpToAMalformedTail() throws Exception {
+		mvc.perform(post("/strings/batch").contentType(MediaType.APPLICATION_NDJSON)
+						.content("{\"value\": \"racecar\"}\n{}\n\"hello world\"\n{\"value\": "))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.created").value(2))
+				.andExpect(jsonPath("$.invalid").value(2))
+				.andExpect(jsonPath("$.results[1].message").value("Missing 'value' field"))
+				.andExpect(jsonPath("$.results[3].index").value(3))
+				.andExpect(jsonPath("$.results[3].message").value(startsWith("Malformed JSON: ")));
+	}
+
+	@Test
+	void rejectsValuesWithUnpairedSurrogates() throws Exception {
+		mvc.perform(post("/strings").contentType(MediaType.APPLICATION_JSON).content("{\"value\": \"a\\uD800\"}"))
+				.andExpect(status().isUnprocessableEntity())
+				.andExpect(jsonPath("$.message").value(startsWith("Value contains an unpaired surrogate")));
+		assertThat(storage.count()).isZero();
+	}
+
+	@Test
+	void listStreamsNdjsonWhenAskedFor() throws Exception {
+		mvc.perform(post("/strings/batch").contentType(MediaType.APPLICATION_JSON)
+						.content("[\"racecar\", \"level\", \"hello world\", \"noon\"]"))
+				.andExpect(status().isOk());
+
+		// The body is written from a StreamingResponseBody after the handler returns
+		MvcResult started = mvc.perform(get("/strings?is_palindrome=true&fields=value&sort=length&limit=2")
+						.accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String body = mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andExpect(header().string("X-Total-Count", "2"))
+				.andExpect(header().exists("X-Next-Cursor"))
+				.andReturn().getResponse().getContentAsString();
+		assertThat(body).isEqualTo("{\"value\":\"noon\"}\n{\"value\":\"level\"}\n");
+
+		// Without NDJSON in Accept the same query is answered with the JSON list
+		mvc.perform(get("/strings?is_palindrome=true&fields=value").accept(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(header().doesNotExist("X-Total-Count"))
+				.andExpect(jsonPath("$.count").value(3));
+	}
+}
@@ -0,0 +1,24 @@
+package com.example.stringAnalyzer.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static com.example.stringAnalyzer.controller.ZstdCompressionFilter.acceptsZstd;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZstdCompressionFilterTests {
+
+	@Test
+	void acceptsZstdUnlessItsWeightIsZeroOrMalformed() {
+		assertThat(acceptsZstd("gzip, ZSTD")).isTrue();
+		assertThat(acceptsZstd("zstd;q=0.5, gzip;q=1")).isTrue();
+		assertThat(acceptsZstd("gzip, deflate")).isFalse();
+		assertThat(acceptsZstd(null)).isFalse();
+		assertThat(acceptsZstd("zstd;q=0")).isFalse();
+		assertThat(acceptsZstd("zstd; q=0.000")).isFalse();
+		// A malformed weight is no reason to fail the request
+		assertThat(acceptsZstd("zstd;q=x")).isFalse();
+		assertThat(acceptsZstd("zstd;q=")).isFalse();
+		assertThat(acceptsZstd("zstd;q=NaN")).isFalse();
+		assertThat(acceptsZstd("zstd;q=-1")).isFalse();
+	}
+}
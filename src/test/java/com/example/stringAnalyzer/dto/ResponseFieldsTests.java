@@ -0,0 +1,72 @@
+package com.example.stringAnalyzer.dto;
+
+import com.example.stringAnalyzer.exception.InvalidQueryException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.service.Sha256;
+import com.example.stringAnalyzer.service.SinglePassAnalysisEngine;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseFieldsTests {
+
+	private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+
+	@Test
+	void leavesOutFieldsThatWereNotSelected() throws Exception {
+		AnalyzedString racecar = analyzed("racecar");
+
+		JsonNode all = json.valueToTree(StringResponse.of(racecar, ResponseFields.ALL));
+		assertThat(all.fieldNames()).toIterable().containsExactlyInAnyOrder("id", "value", "properties", "createdAt");
+		assertThat(all.get("properties").get("characterFrequencyMap").get("r").asInt()).isEqualTo(2);
+
+		JsonNode projected = json.valueToTree(StringResponse.of(racecar, ResponseFields.parse("id, length,is_palindrome")));
+		assertThat(projected.fieldNames()).toIterable().containsExactlyInAnyOrder("id", "properties");
+		assertThat(projected.get("id").asText()).isEqualTo(all.get("id").asText());
+		assertThat(projected.get("properties").fieldNames()).toIterable().containsExactlyInAnyOrder("length", "palindrome");
+		assertThat(projected.get("properties").get("palindrome").asBoolean()).isTrue();
+
+		JsonNode noProperties = json.valueToTree(StringResponse.of(racecar, ResponseFields.parse("value,created_at")));
+		assertThat(noProperties.fieldNames()).toIterable().containsExactlyInAnyOrder("value", "createdAt");
+
+		// The keys of the response select the same fields as the spec's snake_case names
+		JsonNode byKey = json.valueToTree(StringResponse.of(racecar, ResponseFields.parse("id,length,palindrome,createdAt")));
+		assertThat(byKey.fieldNames()).toIterable().containsExactlyInAnyOrder("id", "properties", "createdAt");
+		assertThat(byKey.get("properties")).isEqualTo(projected.get("properties"));
+		JsonNode frequencies = json.valueToTree(StringResponse.of(racecar, ResponseFields.parse("uniqueCharacters,characterFrequencyMap")));
+		assertThat(frequencies.get("properties").fieldNames()).toIterable().containsExactlyInAnyOrder("uniqueCharacters", "characterFrequencyMap");
+
+		JsonNode everyProperty = json.valueToTree(StringResponse.of(racecar, ResponseFields.parse("properties")));
+		assertThat(everyProperty.get("properties")).isEqualTo(all.get("properties"));
+	}
+
+	@Test
+	void rejectsUnknownFields() throws Exception {
+		assertThat(ResponseFields.parse(" ")).isSameAs(ResponseFields.ALL);
+		assertThatThrownBy(() -> ResponseFields.parse("id,colour"))
+				.isInstanceOf(InvalidQueryException.class)
+				.hasMessageContaining("colour");
+	}
+
+	@Test
+	void binaryFormatsCarryTheSameFields() throws Exception {
+		ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+		StringResponse response = StringResponse.of(analyzed("hello world"), ResponseFields.ALL);
+
+		byte[] encoded = cbor.writeValueAsBytes(response);
+
+		assertThat(encoded.length).isLessThan(json.writeValueAsBytes(response).length);
+		assertThat(cbor.readTree(encoded)).isEqualTo(json.valueToTree(response));
+	}
+
+	private static AnalyzedString analyzed(String value) throws Exception {
+		AnalyzedString analyzed = new SinglePassAnalysisEngine().analyze(value);
+		analyzed.setSha256(Sha256.hash(value));
+		return analyzed;
+	}
+}
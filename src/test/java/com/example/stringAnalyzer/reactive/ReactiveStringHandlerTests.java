@@ -0,0 +1,144 @@
+package com.example.stringAnalyzer.reactive;
+
+import com.example.stringAnalyzer.dto.StringResponse;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import com.example.stringAnalyzer.service.BatchIngestionService;
+import com.example.stringAnalyzer.service.QueryResultCache;
+import com.example.stringAnalyzer.service.SinglePassAnalysisEngine;
+import com.example.stringAnalyzer.service.StringAnalyzerService;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ReactiveStringHandlerTests {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final AtomicInteger pagesRead = new AtomicInteger();
+	private final HeapStringStorage storage = new HeapStringStorage() {
+		@Override
+		public StringPage findPage(StringFilter filter, PageRequest page) {
+			pagesRead.incrementAndGet();
+			return super.findPage(filter, page);
+		}
+	};
+	private final StringAnalyzerService analyzerService = analyzerService();
+	private final ReactiveStringHandler handler = handler(10);
+
+	@Test
+	void readsStoragePagesOnlyAsTheClientTakesThem() throws Exception {
+		for (int i = 0; i < 95; i++) {
+			analyzerService.createAndSave("value " + i);
+		}
+		List<StringResponse> received = new CopyOnWriteArrayList<>();
+		BaseSubscriber<StringResponse> client = new BaseSubscriber<>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				request(5);
+			}
+
+			@Override
+			protected void hookOnNext(StringResponse response) {
+				received.add(response);
+			}
+		};
+
+		handler.responses(new ReactiveStringHandler.Query(MockServerRequest.builder().build(), 10)).subscribe(client);
+
+		await().atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 5);
+		assertThat(pagesRead.get()).isEqualTo(1);
+
+		client.request(Long.MAX_VALUE);
+		await().atMost(5, TimeUnit.SECONDS).until(client::isDisposed);
+		assertThat(received).extracting(StringResponse::getValue)
+				.hasSize(95)
+				.startsWith("value 0", "value 1")
+				.endsWith("value 94");
+		assertThat(pagesRead.get()).isEqualTo(10);
+	}
+
+	@Test
+	void servesTheServletApiShapes() {
+		WebTestClient client = WebTestClient.bindToRouterFunction(server().routes()).build();
+
+		client.post().uri("/strings/batch").contentType(MediaType.APPLICATION_NDJSON)
+				.bodyValue("\"racecar\"\n{\"value\":\"hello world\"}\n{\"value\":5}\n\"racecar\"\n")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.created").isEqualTo(2)
+				.jsonPath("$.duplicates").isEqualTo(1)
+				.jsonPath("$.invalid").isEqualTo(1)
+				.jsonPath("$.results[2].index").isEqualTo(2);
+
+		// Streamed without a limit, and still one JSON document with the count at the end
+		client.get().uri("/strings?is_palindrome=true&fields=value").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.data.length()").isEqualTo(1)
+				.jsonPath("$.data[0].value").isEqualTo("racecar")
+				.jsonPath("$.count").isEqualTo(1)
+				.jsonPath("$.filtersApplied.is_palindrome").isEqualTo(true);
+
+		// Batch items are analyzed concurrently, so their creation order is not fixed
+		String lines = client.get().uri("/strings?fields=value").accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class).returnResult().getResponseBody();
+		assertThat(lines).endsWith("\n");
+		assertThat(lines.split("\n")).containsExactlyInAnyOrder("{\"value\":\"racecar\"}", "{\"value\":\"hello world\"}");
+
+		client.post().uri("/strings").contentType(MediaType.APPLICATION_JSON).bodyValue("{\"value\":\"racecar\"}").exchange()
+				.expectStatus().isEqualTo(409);
+		client.get().uri("/strings/missing").exchange()
+				.expectStatus().isNotFound()
+				.expectBody().jsonPath("$.status").isEqualTo(404);
+		client.get().uri("/strings?min_length=long").exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	private StringAnalyzerService analyzerService() {
+		StringAnalyzerService service = new StringAnalyzerService();
+		ReflectionTestUtils.setField(service, "storage", storage);
+		ReflectionTestUtils.setField(service, "analysisEngine", new SinglePassAnalysisEngine());
+		ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(service, "resultCache", new QueryResultCache(storage, 0, Duration.ZERO));
+		return service;
+	}
+
+	private ReactiveStringHandler handler(int chunkSize) {
+		BatchIngestionService batch = new BatchIngestionService(2, 2);
+		ReflectionTestUtils.setField(batch, "analyzerService", analyzerService);
+		ReflectionTestUtils.setField(batch, "storage", storage);
+		ReflectionTestUtils.setField(batch, "objectMapper", objectMapper);
+
+		ReactiveStringHandler handler = new ReactiveStringHandler();
+		handler.analyzerService = analyzerService;
+		handler.batchIngestionService = batch;
+		handler.objectMapper = objectMapper;
+		handler.chunkSize = chunkSize;
+		return handler;
+	}
+
+	private ReactiveServer server() {
+		return new ReactiveServer(handler, objectMapper, new ServerProperties(), 0, DataSize.ofMegabytes(1));
+	}
+}
@@ -0,0 +1,102 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.dto.BatchItemResult;
+import com.example.stringAnalyzer.dto.BatchItemStatus;
+import com.example.stringAnalyzer.dto.BatchResponse;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BatchIngestionServiceTests {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final HeapStringStorage storage = new HeapStringStorage();
+	private final StringAnalyzerService analyzerService = analyzerService();
+	// Chunks of two, so that the items below span several chunks
+	private final BatchIngestionService batch = batch(2);
+
+	@AfterEach
+	void shutdown() {
+		batch.shutdown();
+	}
+
+	@Test
+	void reportsEveryItemOfAnArrayInSubmissionOrder() throws Exception {
+		storage.save(analyzerService.analyzeString("stored"));
+
+		BatchResponse response = ingest("""
+				["racecar", {"value": "level"}, 42, {"other": "x"}, "stored", "racecar", "noon", "noon"]
+				""");
+
+		assertThat(response.getResults()).extracting(BatchItemResult::getIndex, BatchItemResult::getStatus).containsExactly(
+				tuple(0, BatchItemStatus.CREATED),
+				tuple(1, BatchItemStatus.CREATED),
+				tuple(2, BatchItemStatus.INVALID),
+				tuple(3, BatchItemStatus.INVALID),
+				tuple(4, BatchItemStatus.DUPLICATE),
+				tuple(5, BatchItemStatus.DUPLICATE),
+				// Both in one chunk: analyzed twice, inserted once
+				tuple(6, BatchItemStatus.CREATED),
+				tuple(7, BatchItemStatus.DUPLICATE));
+		assertThat(response.getResults().get(2).getMessage()).isEqualTo("Invalid data type for 'value' (must be string)");
+		assertThat(response.getResults().get(3).getMessage()).isEqualTo("Missing 'value' field");
+		assertThat(response.getResults().get(5).getId()).isEqualTo(response.getResults().get(0).getId());
+		assertThat(response.getResults().get(7).getId()).isEqualTo(response.getResults().get(6).getId());
+		assertThat(response.getCreated()).isEqualTo(3);
+		assertThat(response.getDuplicates()).isEqualTo(3);
+		assertThat(response.getInvalid()).isEqualTo(2);
+		assertThat(storage.count()).isEqualTo(4);
+	}
+
+	@Test
+	void ingestsNdjsonUpToAMalformedTail() throws Exception {
+		BatchResponse response = ingest("""
+				"racecar"
+				{"value": "hello world"}
+				{"value": "level"}
+				"lone \\uD800 surrogate"
+				{"value": "unfinished
+				""");
+
+		assertThat(response.getResults()).extracting(BatchItemResult::getIndex, BatchItemResult::getStatus).containsExactly(
+				tuple(0, BatchItemStatus.CREATED),
+				tuple(1, BatchItemStatus.CREATED),
+				tuple(2, BatchItemStatus.CREATED),
+				tuple(3, BatchItemStatus.INVALID),
+				tuple(4, BatchItemStatus.INVALID));
+		assertThat(response.getResults().get(3).getMessage()).contains("unpaired surrogate");
+		assertThat(response.getResults().get(4).getMessage()).startsWith("Malformed JSON: ");
+		assertThat(storage.existByValue("level")).isTrue();
+		assertThat(storage.count()).isEqualTo(3);
+	}
+
+	private BatchResponse ingest(String body) throws Exception {
+		return batch.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private StringAnalyzerService analyzerService() {
+		StringAnalyzerService service = new StringAnalyzerService();
+		service.storage = storage;
+		service.analysisEngine = new SinglePassAnalysisEngine();
+		service.objectMapper = objectMapper;
+		service.resultCache = new QueryResultCache(storage, 0, Duration.ZERO);
+		return service;
+	}
+
+	private BatchIngestionService batch(int chunkSize) {
+		BatchIngestionService batch = new BatchIngestionService(2, chunkSize);
+		batch.analyzerService = analyzerService;
+		batch.storage = storage;
+		batch.objectMapper = objectMapper;
+		return batch;
+	}
+}
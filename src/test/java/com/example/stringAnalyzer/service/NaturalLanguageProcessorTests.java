@@ -0,0 +1,82 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.model.StringFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NaturalLanguageProcessorTests {
+
+	private final NaturalLanguageProcessor processor = new NaturalLanguageProcessor(2);
+
+	@Test
+	void parsesSupportedPhrasings() {
+		assertThat(filters("all single word palindromic strings"))
+				.containsExactly(Map.entry("is_palindrome", true), Map.entry("word_count", 1));
+		assertThat(filters("strings longer than 10 characters")).containsExactly(Map.entry("min_length", 11));
+		assertThat(filters("strings containing the letter z")).containsExactly(Map.entry("contains_character", "z"));
+		assertThat(filters("palindromic strings that contain the first vowel"))
+				.containsExactly(Map.entry("is_palindrome", true), Map.entry("contains_character", "a"));
+		assertThat(filters("two word strings")).containsExactly(Map.entry("word_count", 2));
+		assertThat(filters("show me everything")).isEmpty();
+	}
+
+	@Test
+	void ignoresIncompletePhrasesAndCapsHugeNumbers() {
+		assertThat(filters("strings longer than ten")).isEmpty();
+		assertThat(filters("strings shorter than 5 characters")).isEmpty();
+		assertThat(filters("strings containing the letters ab")).isEmpty();
+		assertThat(filters("longer than 99999999999")).containsExactly(Map.entry("min_length", Integer.MAX_VALUE));
+	}
+
+	@Test
+	void producesTheMatchingFilter() {
+		StringFilter filter = processor.plan("two word strings longer than 20 containing the letter e").getFilter();
+
+		assertThat(filter).isEqualTo(StringFilter.of(null, 21, null, 2, "e"));
+	}
+
+	@Test
+	void repeatedPhrasingsAreServedFromTheCache() {
+		QueryPlan first = processor.plan("Strings  longer than 10");
+		QueryPlan second = processor.plan(" strings longer THAN 10 ");
+
+		assertThat(second).isSameAs(first);
+		assertThat(processor.getPlanCache().misses()).isEqualTo(1);
+		assertThat(processor.getPlanCache().hits()).isEqualTo(1);
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedPlan() {
+		QueryPlan palindromes = processor.plan("palindromes");
+		processor.plan("single word strings");
+		processor.plan("palindromes");
+		processor.plan("two word strings");
+
+		QueryPlanCache cache = processor.getPlanCache();
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.evictions()).isEqualTo(1);
+		assertThat(processor.plan("palindromes")).isSameAs(palindromes);
+		assertThat(cache.hits()).isEqualTo(2);
+	}
+
+	@Test
+	void timesOnlyTheParsesTheCacheDidNotSave() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(processor, "metrics", new AnalyzerMetrics(registry));
+
+		processor.plan("palindromes");
+		processor.plan("Palindromes ");
+		processor.plan("two word strings");
+
+		assertThat(registry.get("strings.nl.parse").timer().count()).isEqualTo(2);
+	}
+
+	private Map<String, Object> filters(String query) {
+		return processor.plan(query).getParsedFilters();
+	}
+}
@@ -0,0 +1,124 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryResultCacheTests {
+
+	private static final StringFilter PALINDROMES = StringFilter.of(true, null, null, null, null);
+	private static final StringFilter LONG = StringFilter.of(null, 10, null, null, null);
+
+	private final SinglePassAnalysisEngine engine = new SinglePassAnalysisEngine();
+	private final StringStorage storage = new HeapStringStorage();
+	private final QueryResultCache cache = new QueryResultCache(storage, 16, Duration.ofMinutes(1));
+	private final AtomicInteger scans = new AtomicInteger();
+
+	@Test
+	void repeatedQueriesAreServedFromTheCache() {
+		storage.save(analyze("level"));
+
+		StringPage first = query(PALINDROMES);
+		StringPage second = query(PALINDROMES);
+
+		assertThat(second).isSameAs(first);
+		assertThat(scans).hasValue(1);
+		assertThat(cache.hits()).isEqualTo(1);
+		assertThat(cache.misses()).isEqualTo(1);
+	}
+
+	@Test
+	void writesOnlyEvictTheFiltersTheyMatch() {
+		storage.save(analyze("level"));
+		query(PALINDROMES);
+		query(LONG);
+
+		storage.save(analyze("a rather long sentence"));
+		assertThat(query(PALINDROMES).getItems()).hasSize(1);
+		assertThat(query(LONG).getItems()).hasSize(1);
+		assertThat(scans).hasValue(3);
+
+		storage.deleteByValue("level");
+		assertThat(query(PALINDROMES).getItems()).isEmpty();
+		assertThat(query(LONG).getItems()).hasSize(1);
+		assertThat(scans).hasValue(4);
+		assertThat(cache.invalidations()).isEqualTo(2);
+	}
+
+	@Test
+	void clearEvictsEverything() {
+		storage.save(analyze("level"));
+		query(PALINDROMES);
+		query(LONG);
+
+		storage.clear();
+
+		assertThat(cache.size()).isZero();
+		assertThat(query(PALINDROMES).getItems()).isEmpty();
+	}
+
+	@Test
+	void pagesAreCachedPerCursor() throws Exception {
+		storage.save(analyze("level"));
+		storage.save(analyze("kayak"));
+		PageRequest firstPage = PageRequest.of("length", null, 1);
+
+		StringPage page = cache.get(PALINDROMES, firstPage, counted(() -> storage.findPage(PALINDROMES, firstPage)));
+		PageRequest next = PageRequest.of("length", page.getNextCursor(), 1);
+		cache.get(PALINDROMES, next, counted(() -> storage.findPage(PALINDROMES, next)));
+		PageRequest sameCursor = PageRequest.of("length", page.getNextCursor(), 1);
+		cache.get(PALINDROMES, sameCursor, counted(() -> storage.findPage(PALINDROMES, sameCursor)));
+
+		assertThat(scans).hasValue(2);
+	}
+
+	@Test
+	void resultsOfQueriesRacingAMatchingWriteAreNotCached() {
+		cache.get(PALINDROMES, PageRequest.UNPAGED, counted(() -> {
+			StringPage stale = storage.findPage(PALINDROMES, PageRequest.UNPAGED);
+			storage.save(analyze("level"));
+			return stale;
+		}));
+
+		assertThat(cache.size()).isZero();
+		assertThat(query(PALINDROMES).getItems()).hasSize(1);
+	}
+
+	@Test
+	void expiredEntriesAreQueriedAgain() {
+		QueryResultCache expiring = new QueryResultCache(storage, 16, Duration.ZERO);
+
+		expiring.get(PALINDROMES, PageRequest.UNPAGED, counted(() -> storage.findPage(PALINDROMES, PageRequest.UNPAGED)));
+		expiring.get(PALINDROMES, PageRequest.UNPAGED, counted(() -> storage.findPage(PALINDROMES, PageRequest.UNPAGED)));
+
+		assertThat(scans).hasValue(2);
+		assertThat(expiring.evictions()).isEqualTo(1);
+	}
+
+	private StringPage query(StringFilter filter) {
+		return cache.get(filter, PageRequest.UNPAGED, counted(() -> storage.findPage(filter, PageRequest.UNPAGED)));
+	}
+
+	private Supplier<StringPage> counted(Supplier<StringPage> query) {
+		return () -> {
+			scans.incrementAndGet();
+			return query.get();
+		};
+	}
+
+	private AnalyzedString analyze(String value) {
+		AnalyzedString analyzed = engine.analyze(value);
+		analyzed.setSha256Hash("%064x".formatted(value.hashCode()));
+		return analyzed;
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.stringAnalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Sha256Tests {
+
+	@Test
+	void matchesDigestOfUtf8Bytes() throws Exception {
+		assertSameHash("");
+		assertSameHash("hello world");
+		assertSameHash("x".repeat(Sha256.CHUNK));
+		assertSameHash("héllo wörld ".repeat(5000));
+		assertSameHash("日本語のテキスト".repeat(3000));
+	}
+
+	@Test
+	void keepsSurrogatePairsAcrossChunkBoundaries() throws Exception {
+		// An emoji straddling the first chunk boundary, and unpaired surrogates around others
+		assertSameHash("a".repeat(Sha256.CHUNK - 1) + "😀" + "b".repeat(Sha256.CHUNK));
+		assertSameHash("a".repeat(Sha256.CHUNK - 1) + '\uD83D' + "b".repeat(Sha256.CHUNK));
+		assertSameHash("a".repeat(Sha256.CHUNK) + '\uDE00' + "😀".repeat(Sha256.CHUNK));
+		assertSameHash("😀".repeat(Sha256.CHUNK * 2) + '\uD83D');
+	}
+
+	@Test
+	void pooledDigestsAreSafeAcrossThreads() throws Exception {
+		String[] values = new String[64];
+		byte[][] expected = new byte[values.length][];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = ("value " + i + ' ').repeat(i * 400 + 1);
+			expected[i] = reference(values[i]);
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				results.add(pool.submit(() -> {
+					for (int round = 0; round < 50; round++) {
+						for (int i = 0; i < values.length; i++) {
+							if (!MessageDigest.isEqual(Sha256.hash(values[i]), expected[i])) {
+								return false;
+							}
+						}
+					}
+					return true;
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertThat(result.get()).isTrue();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static void assertSameHash(String value) throws Exception {
+		assertThat(Sha256.hash(value)).isEqualTo(reference(value));
+	}
+
+	private static byte[] reference(String value) throws Exception {
+		return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+	}
+}
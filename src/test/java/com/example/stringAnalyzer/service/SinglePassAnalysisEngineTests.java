@@ -0,0 +1,66 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SinglePassAnalysisEngineTests {
+
+	private final SinglePassAnalysisEngine engine = new SinglePassAnalysisEngine();
+
+	@Test
+	void analyzesAllPropertiesInOnePass() {
+		AnalyzedString analyzed = engine.analyze("racecar");
+
+		assertThat(analyzed.getLength()).isEqualTo(7);
+		assertThat(analyzed.getIsPalindrome()).isTrue();
+		assertThat(analyzed.getUniqueCharacters()).isEqualTo(4);
+		assertThat(analyzed.getWordCount()).isEqualTo(1);
+		assertThat(analyzed.getCharacterFrequencyMap()).containsExactly(
+				entry("r", 2), entry("a", 2), entry("c", 2), entry("e", 1));
+	}
+
+	@Test
+	void palindromeIgnoresCaseAndNonAlphanumerics() {
+		assertThat(engine.analyze("A man, a plan, a canal: Panama").getIsPalindrome()).isTrue();
+		assertThat(engine.analyze("No 'x' in Nixon").getIsPalindrome()).isTrue();
+		assertThat(engine.analyze("hello").getIsPalindrome()).isFalse();
+		assertThat(engine.analyze("").getIsPalindrome()).isTrue();
+		assertThat(engine.analyze("!!").getIsPalindrome()).isTrue();
+	}
+
+	@Test
+	void wordsAreSeparatedByWhitespaceRuns() {
+		assertThat(engine.analyze("").getWordCount()).isZero();
+		assertThat(engine.analyze("   ").getWordCount()).isZero();
+		assertThat(engine.analyze("  hello \t\n world  ").getWordCount()).isEqualTo(2);
+		assertThat(engine.analyze("one,two three").getWordCount()).isEqualTo(2);
+	}
+
+	@Test
+	void countsCodePointsRatherThanSurrogateHalves() {
+		AnalyzedString analyzed = engine.analyze("😀a😀");
+
+		assertThat(analyzed.getLength()).isEqualTo(5);
+		assertThat(analyzed.getUniqueCharacters()).isEqualTo(2);
+		assertThat(analyzed.getCharacterFrequencyMap()).containsExactly(entry("😀", 2), entry("a", 1));
+		assertThat(analyzed.getCharacterSignature().contains("😀".codePointAt(0))).isTrue();
+	}
+
+	@Test
+	void rejectsUnpairedSurrogates() {
+		for (String value : new String[]{"a\uD83D", "\uDE00b", "a\uDE00\uD83D"}) {
+			assertThatThrownBy(() -> engine.analyze(value))
+					.isInstanceOf(IllegalArgumentException.class)
+					.hasMessageContaining("unpaired surrogate");
+		}
+	}
+
+	private static Map.Entry<String, Integer> entry(String key, int value) {
+		return Map.entry(key, value);
+	}
+}
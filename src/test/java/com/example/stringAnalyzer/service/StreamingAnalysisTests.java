@@ -0,0 +1,90 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.exception.ValueTooLargeException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingAnalysisTests {
+
+	private final SinglePassAnalysisEngine engine = new SinglePassAnalysisEngine();
+
+	@Test
+	void matchesTheWholeValueAnalysisAcrossChunkBoundaries() throws IOException {
+		String[] values = {
+				"",
+				"racecar",
+				"A man, a plan, a canal: Panama",
+				"  hello \t\n world  ",
+				"😀a😀 naïve café 😀",
+				"ab😀".repeat(500) + " " + "€".repeat(777),
+		};
+		// Small chunks split multi-byte characters and surrogate pairs in every possible place
+		for (int chunkSize : new int[]{4, 5, 7, 64, StreamingAnalysis.CHUNK}) {
+			for (String value : values) {
+				assertSameAnalysis(value, stream(value, StandardCharsets.UTF_8, chunkSize));
+				assertSameAnalysis(value, stream(value, StandardCharsets.UTF_16BE, chunkSize));
+			}
+		}
+	}
+
+	@Test
+	void rejectsMalformedInput() {
+		byte[] truncated = {'a', (byte) 0xE2, (byte) 0x82};
+
+		assertThatThrownBy(() -> StreamingAnalysis.analyze(new ByteArrayInputStream(truncated), StandardCharsets.UTF_8, -1, 1024))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void stopsReadingAtTheSizeLimit() {
+		byte[] body = "a".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+		assertThatThrownBy(() -> StreamingAnalysis.analyze(new ByteArrayInputStream(body), StandardCharsets.UTF_8, body.length, 99))
+				.isInstanceOf(ValueTooLargeException.class);
+		// Without a declared length the limit is only found while reading
+		assertThatThrownBy(() -> StreamingAnalysis.analyze(new ByteArrayInputStream(body), StandardCharsets.UTF_8, -1, 99, 8))
+				.isInstanceOf(ValueTooLargeException.class);
+	}
+
+	@Test
+	void declaredLengthDoesNotReserveTheWholeBody() throws IOException {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		// Loads and initializes everything the analysis uses, so only the body is measured
+		StreamingAnalysis.analyze(InputStream.nullInputStream(), StandardCharsets.UTF_8, 0, 1);
+		long before = threads.getCurrentThreadAllocatedBytes();
+
+		// Declares 256MB and sends nothing
+		AnalyzedString analyzed = StreamingAnalysis.analyze(InputStream.nullInputStream(), StandardCharsets.UTF_8, 256L << 20, 512L << 20);
+
+		assertThat(analyzed.getLength()).isZero();
+		assertThat(threads.getCurrentThreadAllocatedBytes() - before).isLessThan(8L << 20);
+	}
+
+	private static AnalyzedString stream(String value, Charset charset, int chunkSize) throws IOException {
+		byte[] body = value.getBytes(charset);
+		return StreamingAnalysis.analyze(new ByteArrayInputStream(body), charset, body.length, body.length, chunkSize);
+	}
+
+	private void assertSameAnalysis(String value, AnalyzedString streamed) {
+		AnalyzedString expected = engine.analyze(value);
+
+		assertThat(streamed.getValue()).isEqualTo(value);
+		assertThat(streamed.getLength()).isEqualTo(expected.getLength());
+		assertThat(streamed.getIsPalindrome()).isEqualTo(expected.getIsPalindrome());
+		assertThat(streamed.getUniqueCharacters()).isEqualTo(expected.getUniqueCharacters());
+		assertThat(streamed.getWordCount()).isEqualTo(expected.getWordCount());
+		assertThat(streamed.getCharacterFrequencyMap()).containsExactlyEntriesOf(expected.getCharacterFrequencyMap());
+		assertThat(streamed.getCharacterSignature()).isEqualTo(expected.getCharacterSignature());
+		assertThat(streamed.getSha256()).isEqualTo(Sha256.hash(value));
+	}
+}
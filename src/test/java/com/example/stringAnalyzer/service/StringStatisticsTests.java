@@ -0,0 +1,85 @@
+package com.example.stringAnalyzer.service;
+
+import com.example.stringAnalyzer.dto.StringStatsResponse;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.storage.HeapStringStorage;
+import com.example.stringAnalyzer.storage.OffHeapStringStorage;
+import com.example.stringAnalyzer.storage.StorageListener;
+import com.example.stringAnalyzer.storage.StringStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringStatisticsTests {
+
+	private final SinglePassAnalysisEngine engine = new SinglePassAnalysisEngine();
+
+	@ParameterizedTest
+	@ValueSource(strings = {"heap", "off-heap"})
+	void followsSavesReplacementsAndDeletes(String type) {
+		StringStorage storage = type.equals("heap") ? new HeapStringStorage() : new OffHeapStringStorage(4096);
+		StringStatistics statistics = new StringStatistics(storage);
+
+		storage.save(analyze("level"));
+		storage.saveAll(List.of(analyze("hello world"), analyze("ab"), analyze("level")));
+		storage.save(analyze("ab"));
+
+		StringStatsResponse stats = statistics.summary();
+		assertThat(stats.getCount()).isEqualTo(3);
+		assertThat(stats.getPalindromes()).isEqualTo(1);
+		assertThat(stats.getAverageLength()).isEqualTo(6.0);
+		assertThat(stats.getLengthHistogram()).containsExactly(Map.entry("2-3", 1L), Map.entry("4-7", 1L), Map.entry("8-15", 1L));
+		assertThat(stats.getWordCountDistribution()).containsExactly(Map.entry("1", 2L), Map.entry("2", 1L));
+		assertThat(stats.getCharacterFrequencies().entrySet()).startsWith(Map.entry("l", 5L), Map.entry("e", 3L), Map.entry("o", 2L));
+
+		storage.deleteByValue("level");
+		stats = statistics.summary();
+		assertThat(stats.getCount()).isEqualTo(2);
+		assertThat(stats.getPalindromes()).isZero();
+		assertThat(stats.getCharacterFrequencies()).containsEntry("l", 3L).doesNotContainKey("v");
+
+		storage.clear();
+		assertThat(statistics.summary().getCount()).isZero();
+		assertThat(statistics.summary().getCharacterFrequencies()).isEmpty();
+	}
+
+	@Test
+	void ordersChangesAroundAClearByGeneration() {
+		StringStatistics statistics = new StringStatistics(new HeapStringStorage());
+		statistics.saved(List.of(analyze("level")), 0);
+		// A save applied after the clear but reported before it
+		statistics.saved(List.of(analyze("noon")), 1);
+		statistics.cleared(1);
+		// A delete applied before the clear but reported after it
+		statistics.deleted(analyze("level"), 0);
+
+		StringStatsResponse stats = statistics.summary();
+		assertThat(stats.getCount()).isEqualTo(1);
+		assertThat(stats.getCharacterFrequencies()).containsOnlyKeys("n", "o");
+	}
+
+	@Test
+	void keepsTheGenerationsOfEachPartApart() {
+		StringStatistics statistics = new StringStatistics(new HeapStringStorage());
+		StorageListener first = statistics.forPart();
+		StorageListener second = statistics.forPart();
+		first.saved(List.of(analyze("level")), 0);
+		second.saved(List.of(analyze("noon")), 3);
+		first.cleared(1);
+		first.saved(List.of(analyze("ab")), 1);
+
+		assertThat(statistics.summary().getCount()).isEqualTo(2);
+		assertThat(statistics.summary().getPalindromes()).isEqualTo(1);
+	}
+
+	private AnalyzedString analyze(String value) {
+		AnalyzedString analyzed = engine.analyze(value);
+		analyzed.setSha256Hash("%064x".formatted(value.hashCode()));
+		return analyzed;
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.StringFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeapStringStorageTests extends StringStorageTests {
+
+	@Override
+	protected StringStorage createStorage() {
+		return new HeapStringStorage();
+	}
+
+	@Override
+	protected StringStorage createStorage(ParallelScan parallelScan) {
+		HeapStringStorage storage = new HeapStringStorage();
+		storage.setParallelScan(parallelScan);
+		return storage;
+	}
+
+	@Test
+	void footprintFollowsTheStoredEntries() {
+		StringStorage storage = createStorage();
+		long empty = storage.footprint().getEstimatedBytes();
+
+		storage.save(entry("racecar", 7, true, 1));
+		storage.save(entry("hello world", 11, false, 2));
+		StorageFootprint filled = storage.footprint();
+
+		assertThat(filled.getEstimatedBytes()).isGreaterThan(empty + 2 * 400);
+		assertThat(filled.getIndexSizes())
+				.containsEntry("slots", 2L)
+				.containsEntry("length", 2L)
+				.containsEntry("word_count", 2L);
+
+		storage.deleteByValue("racecar");
+		storage.deleteByValue("hello world");
+
+		assertThat(storage.footprint().getEstimatedBytes()).isEqualTo(empty);
+		assertThat(storage.footprint().getIndexSizes()).containsEntry("length", 0L);
+	}
+
+	@Test
+	void valuesOverTheTrigramLimitAreScannedInstead() {
+		HeapStringStorage storage = new HeapStringStorage();
+		storage.setTrigramMaxLength(8);
+		storage.save(entry("shell", 5, false, 1));
+		storage.save(entry("a long hello, unindexed", 23, false, 4));
+
+		assertThat(storage.footprint().getIndexSizes()).containsEntry("trigram_unindexed", 1L);
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("ELL").build())))
+				.containsExactly("shell", "a long hello, unindexed");
+		// No indexed value has these keys, but the long one still matches
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("unindex").build())))
+				.containsExactly("a long hello, unindexed");
+		assertThat(values(storage.findByFilters(StringFilter.builder().startsWith("a l").endsWith("ed").build())))
+				.containsExactly("a long hello, unindexed");
+
+		// Raising the limit indexes the long value too
+		storage.setTrigramMaxLength(64);
+		assertThat(storage.footprint().getIndexSizes()).containsEntry("trigram_unindexed", 0L);
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("unindex").build())))
+				.containsExactly("a long hello, unindexed");
+
+		storage.setTrigramMaxLength(8);
+		storage.deleteByValue("a long hello, unindexed");
+		assertThat(storage.footprint().getIndexSizes()).containsEntry("trigram_unindexed", 0L);
+		assertThat(storage.findByFilters(StringFilter.builder().contains("unindex").build())).isEmpty();
+	}
+}
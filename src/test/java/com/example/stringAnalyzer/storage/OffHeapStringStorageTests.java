@@ -0,0 +1,60 @@
+package com.example.stringAnalyzer.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapStringStorageTests extends StringStorageTests {
+
+	@Override
+	protected StringStorage createStorage() {
+		// Small chunks so the tests cross chunk boundaries and trigger compaction
+		return new OffHeapStringStorage(4096);
+	}
+
+	@Override
+	protected StringStorage createStorage(ParallelScan parallelScan) {
+		OffHeapStringStorage storage = new OffHeapStringStorage(4096);
+		storage.setParallelScan(parallelScan);
+		return storage;
+	}
+
+	@Test
+	void survivesGrowthDeletesAndCompaction() {
+		for (int i = 0; i < 5000; i++) {
+			storage.save(entry("value-" + i, 6 + String.valueOf(i).length(), false, 1));
+		}
+		for (int i = 0; i < 5000; i++) {
+			if (i % 10 != 0) {
+				assertThat(storage.deleteByValue("value-" + i)).isTrue();
+			}
+		}
+
+		assertThat(storage.count()).isEqualTo(500);
+		assertThat(storage.findByValue("value-4990")).hasValueSatisfying(s -> assertThat(s.getLength()).isEqualTo(10));
+		assertThat(storage.existByValue("value-4991")).isFalse();
+		assertThat(storage.findByFilters(null, 10, 10, null)).hasSize(400);
+
+		storage.save(entry("value-4991", 10, true, 1));
+		assertThat(values(storage.findByFilters(true, null, null, null))).containsExactly("value-4991");
+	}
+
+	@Test
+	void snapshotsStreamFromNativeMemory(@TempDir Path directory) throws Exception {
+		StoragePersistence persistence = new StoragePersistence(storage, directory, 1 << 20, false, Duration.ofHours(1));
+		persistence.start();
+		storage.save(entry("racecar", 7, true, 1));
+		storage.save(entry("hello world", 11, false, 2));
+		persistence.stop();
+
+		OffHeapStringStorage recovered = new OffHeapStringStorage(4096);
+		StoragePersistence reopened = new StoragePersistence(recovered, directory, 1 << 20, false, Duration.ofHours(1));
+		reopened.start();
+		assertThat(values(recovered.findByFilters(null, null, null, null))).containsExactlyInAnyOrder("racecar", "hello world");
+		reopened.stop();
+	}
+}
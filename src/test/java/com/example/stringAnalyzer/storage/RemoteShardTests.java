@@ -0,0 +1,194 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.StringAnalyzerApplication;
+import com.example.stringAnalyzer.exception.InvalidQueryException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.SimilarString;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.stringAnalyzer.storage.StringStorageTests.entry;
+import static com.example.stringAnalyzer.storage.StringStorageTests.values;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two shard instances on local ports plus one in-process shard behind a sharded storage,
+ * checked against a single heap storage holding the same strings.
+ */
+class RemoteShardTests {
+
+	private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+	private static final List<String> urls = new ArrayList<>();
+
+	private ShardedStringStorage sharded;
+	private final StringStorage reference = new HeapStringStorage();
+
+	@BeforeAll
+	static void startNodes() {
+		for (int i = 0; i < 2; i++) {
+			ConfigurableApplicationContext node = new SpringApplicationBuilder(StringAnalyzerApplication.class)
+					.run("--server.port=0", "--spring.main.banner-mode=off",
+							"--string-analyzer.storage.shard-endpoints.enabled=true");
+			nodes.add(node);
+			urls.add("http://localhost:" + ((ServletWebServerApplicationContext) node).getWebServer().getPort());
+		}
+	}
+
+	@AfterAll
+	static void stopNodes() {
+		nodes.forEach(ConfigurableApplicationContext::close);
+	}
+
+	@BeforeEach
+	void connect() {
+		HttpClient http = HttpClient.newHttpClient();
+		List<String> names = new ArrayList<>(List.of("local-0"));
+		List<StringStorage> shards = new ArrayList<>(List.of(new HeapStringStorage()));
+		for (String url : urls) {
+			names.add(url);
+			shards.add(new RemoteStringStorage(http, url, Duration.ofSeconds(10)));
+		}
+		sharded = new ShardedStringStorage(names, shards, 64);
+		sharded.clear();
+	}
+
+	@Test
+	void answersLikeASingleStorage() throws InvalidQueryException {
+		List<AnalyzedString> strings = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			String value = i % 10 == 0 ? "a" + "b".repeat(i % 7) + "a" : "value " + i + " of set";
+			strings.add(entry(value, value.length(), i % 10 == 0, value.split(" ").length));
+		}
+		assertThat(sharded.saveAll(strings)).isEqualTo(reference.saveAll(strings));
+		AnalyzedString extra = entry("level", 5, true, 1);
+		assertThat(sharded.saveIfAbsent(extra)).isEmpty();
+		assertThat(sharded.saveIfAbsent(extra)).isPresent();
+		reference.saveIfAbsent(extra);
+		assertThat(sharded.deleteByValue("value 7 of set")).isTrue();
+		assertThat(sharded.deleteByValue("value 7 of set")).isFalse();
+		reference.deleteByValue("value 7 of set");
+
+		assertThat(sharded.count()).isEqualTo(reference.count());
+		for (int i = 0; i < nodes.size(); i++) {
+			StringStorage node = nodes.get(i).getBean(StringStorage.class);
+			assertThat(node.count()).isPositive();
+		}
+		assertThat(sharded.findByValue("value 12 of set").orElseThrow().getId())
+				.isEqualTo(reference.findByValue("value 12 of set").orElseThrow().getId());
+		assertThat(sharded.existByValue("value 7 of set")).isFalse();
+
+		StringFilter palindromes = StringFilter.builder().isPalindrome(true).build();
+		assertThat(values(sharded.findByFilters(palindromes)))
+				.containsExactlyInAnyOrderElementsOf(values(reference.findByFilters(palindromes)));
+
+		// Walk every page of both and compare them page by page
+		StringFilter longer = StringFilter.builder().minLength(14).containsCharacter("1").build();
+		String shardedCursor = null;
+		String referenceCursor = null;
+		int pages = 0;
+		do {
+			StringPage expected = reference.findPage(longer, PageRequest.of("-length", referenceCursor, 7));
+			StringPage actual = sharded.findPage(longer, PageRequest.of("-length", shardedCursor, 7));
+			assertThat(values(actual.getItems())).containsExactlyElementsOf(values(expected.getItems()));
+			shardedCursor = actual.getNextCursor();
+			referenceCursor = expected.getNextCursor();
+			assertThat(shardedCursor).isEqualTo(referenceCursor);
+			pages++;
+		} while (referenceCursor != null);
+		assertThat(pages).isGreaterThan(3);
+
+		// Near-duplicates live on every shard; the merged answer matches one storage holding them all
+		List<SimilarString> similar = sharded.findSimilar("value 12 of set", 0.5);
+		assertThat(similar).hasSizeGreaterThan(3);
+		assertThat(similar).extracting(s -> s.getString().getValue())
+				.containsExactlyElementsOf(reference.findSimilar("value 12 of set", 0.5).stream().map(s -> s.getString().getValue()).toList());
+	}
+
+	@Test
+	void remoteChangesReachListeners() {
+		List<String> events = new ArrayList<>();
+		sharded.addListener(new StorageListener() {
+			@Override
+			public void saved(List<AnalyzedString> strings, long generation) {
+				strings.forEach(s -> events.add("saved " + s.getValue()));
+			}
+
+			@Override
+			public void deleted(AnalyzedString removed, long generation) {
+				events.add("deleted " + removed.getValue());
+			}
+
+			@Override
+			public void cleared(long generation) {
+			}
+		});
+
+		for (int i = 0; i < 20; i++) {
+			sharded.save(entry("string " + i, 8, false, 2));
+		}
+		sharded.save(entry("string 3", 8, false, 2));
+		sharded.deleteByValue("string 4");
+
+		assertThat(events).hasSize(23);
+		assertThat(events.subList(20, 23)).containsExactly("deleted string 3", "saved string 3", "deleted string 4");
+	}
+
+	@Test
+	void concurrentOverwritesKeepListenerEventsBalanced() throws Exception {
+		AtomicInteger stored = new AtomicInteger();
+		sharded.addListener(new StorageListener() {
+			@Override
+			public void saved(List<AnalyzedString> strings, long generation) {
+				stored.addAndGet(strings.size());
+			}
+
+			@Override
+			public void deleted(AnalyzedString removed, long generation) {
+				stored.decrementAndGet();
+			}
+
+			@Override
+			public void cleared(long generation) {
+			}
+		});
+
+		// Each save of a value after the first reports the string it replaced, whichever thread wins
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> done = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				done.add(pool.submit(() -> {
+					for (int i = 0; i < 50; i++) {
+						sharded.save(entry("string " + i % 10, 8, false, 2));
+					}
+				}));
+			}
+			for (Future<?> future : done) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(sharded.count()).isEqualTo(10);
+		assertThat(stored).hasValue(10);
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.service.Sha256;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedStringStorageTests extends StringStorageTests {
+
+	private static final int SHARDS = 4;
+
+	// Shards of the storage the inherited tests use; set while the superclass is constructed,
+	// so it must not have an initializer
+	private List<StringStorage> shards;
+
+	@Override
+	protected StringStorage createStorage() {
+		return createStorage(ParallelScan.SEQUENTIAL);
+	}
+
+	@Override
+	protected StringStorage createStorage(ParallelScan parallelScan) {
+		List<String> names = new ArrayList<>();
+		List<StringStorage> storages = new ArrayList<>();
+		for (int i = 0; i < SHARDS; i++) {
+			HeapStringStorage shard = new HeapStringStorage();
+			shard.setParallelScan(parallelScan);
+			names.add("local-" + i);
+			storages.add(shard);
+		}
+		if (shards == null) {
+			shards = storages;
+		}
+		return new ShardedStringStorage(names, storages, 64);
+	}
+
+	@Test
+	void spreadsValuesOverEveryShard() {
+		List<AnalyzedString> strings = new ArrayList<>();
+		for (int i = 0; i < 4000; i++) {
+			strings.add(entry("value " + i, 6 + String.valueOf(i).length(), false, 2));
+		}
+		boolean[] inserted = storage.saveAll(strings);
+
+		assertThat(inserted).doesNotContain(false);
+		assertThat(storage.count()).isEqualTo(4000);
+		for (StringStorage shard : shards) {
+			// Within a fifth of an even share with 64 points per shard
+			assertThat(shard.count()).isBetween(800, 1200);
+		}
+		for (AnalyzedString string : strings) {
+			assertThat(storage.findByValue(string.getValue())).isPresent();
+		}
+		assertThat(storage.findByFilters(StringFilter.NONE)).hasSize(4000);
+	}
+
+	@Test
+	void addingAShardOnlyMovesTheValuesItTakesOver() {
+		List<String> names = List.of("a", "b", "c", "d");
+		HashRing<String> four = new HashRing<>(names, names, 128);
+		HashRing<String> five = new HashRing<>(List.of("a", "b", "c", "d", "e"), List.of("a", "b", "c", "d", "e"), 128);
+
+		int moved = 0;
+		for (int i = 0; i < 10_000; i++) {
+			byte[] hash = Sha256.hash("value " + i);
+			String before = four.shardFor(hash);
+			String after = five.shardFor(hash);
+			if (!before.equals(after)) {
+				assertThat(after).isEqualTo("e");
+				moved++;
+			}
+		}
+		// About a fifth of the values belong to the new shard
+		assertThat(moved).isBetween(1500, 2500);
+	}
+}
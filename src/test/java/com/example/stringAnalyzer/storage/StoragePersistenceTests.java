@@ -0,0 +1,98 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.stringAnalyzer.storage.StringStorageTests.analyzed;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StoragePersistenceTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recoversFromSnapshotAndJournalTail() throws Exception {
+		StringStorage storage = new HeapStringStorage();
+		StoragePersistence persistence = open(storage);
+		storage.save(analyzed("racecar"));
+		storage.save(analyzed("hello world"));
+		persistence.snapshot();
+		storage.save(analyzed("level"));
+		storage.deleteByValue("hello world");
+		// No stop(): the second instance recovers as it would after a crash
+		StringStorage recovered = new HeapStringStorage();
+		StoragePersistence reopened = open(recovered);
+
+		assertThat(recovered.count()).isEqualTo(2);
+		assertThat(recovered.existByValue("hello world")).isFalse();
+		AnalyzedString level = recovered.findByValue("level").orElseThrow();
+		AnalyzedString original = analyzed("level");
+		assertThat(level.getIsPalindrome()).isTrue();
+		assertThat(level.getCharacterFrequencyMap()).isEqualTo(original.getCharacterFrequencyMap());
+		assertThat(level.getId()).isEqualTo(original.getId());
+		assertThat(recovered.findByFilters(true, null, null, null)).hasSize(2);
+		reopened.stop();
+	}
+
+	@Test
+	void ignoresTornRecordAtEndOfJournal() throws Exception {
+		StringStorage storage = new HeapStringStorage();
+		open(storage);
+		storage.save(analyzed("noon"));
+		try (var files = Files.list(directory)) {
+			Path segment = files.filter(f -> f.toString().endsWith(".log")).findFirst().orElseThrow();
+			Files.write(segment, new byte[]{0, 0, 0, 42, 1, 7}, StandardOpenOption.APPEND);
+		}
+
+		StringStorage recovered = new HeapStringStorage();
+		open(recovered).stop();
+		assertThat(recovered.existByValue("noon")).isTrue();
+		assertThat(recovered.count()).isEqualTo(1);
+	}
+
+	@Test
+	void stopsAcceptingChangesAfterAFailedWrite() throws Exception {
+		// A directory where the second segment should go makes the roll-over write fail
+		Files.createDirectories(StringJournal.segmentPath(directory, 2));
+		StringJournal journal = new StringJournal(directory, 1, 64, false);
+		journal.appendSave(analyzed("first")).get(5, TimeUnit.SECONDS);
+
+		assertThatThrownBy(() -> journal.appendSave(analyzed("second")).get(5, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(UncheckedIOException.class);
+		// Stays stopped even once the cause is gone
+		Files.delete(StringJournal.segmentPath(directory, 2));
+		assertThatThrownBy(() -> journal.roll().get(5, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(UncheckedIOException.class);
+		assertThatThrownBy(() -> journal.appendDelete("first").get(5, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(UncheckedIOException.class);
+		journal.close();
+
+		List<String> saved = new ArrayList<>();
+		List<String> deleted = new ArrayList<>();
+		StringJournal.replay(StringJournal.segmentPath(directory, 1),
+				record -> saved.add(AnalyzedStringCodec.decode(record).getValue()), deleted::add, () -> {});
+		assertThat(saved).containsExactly("first");
+		assertThat(deleted).isEmpty();
+	}
+
+	private StoragePersistence open(StringStorage storage) throws IOException {
+		StoragePersistence persistence = new StoragePersistence(storage, directory, 1 << 20, false, Duration.ofHours(1));
+		persistence.start();
+		return persistence;
+	}
+}
@@ -0,0 +1,104 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.exception.InvalidExportException;
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.model.MinHash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+import static com.example.stringAnalyzer.storage.StringStorageTests.analyzed;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StringExportsTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void importRestoresEveryPropertyWithoutAnalyzing() throws Exception {
+		StringStorage source = new HeapStringStorage();
+		source.save(sketched("racecar"));
+		source.save(sketched("hello wörld 👋"));
+		source.save(sketched("level"));
+		Path file = directory.resolve("corpus");
+
+		StringExports.Result exported = StringExports.export(source, file);
+		StringStorage target = new HeapStringStorage();
+		target.save(sketched("level"));
+		StringExports.Result imported = StringExports.importInto(target, file);
+
+		assertThat(exported.getStrings()).isEqualTo(3);
+		assertThat(imported.getInserted()).isEqualTo(2);
+		assertThat(target.count()).isEqualTo(3);
+		AnalyzedString original = source.findByValue("hello wörld 👋").orElseThrow();
+		AnalyzedString restored = target.findByValue("hello wörld 👋").orElseThrow();
+		assertThat(restored.getId()).isEqualTo(original.getId());
+		assertThat(restored.getCreatedAt()).isEqualTo(original.getCreatedAt());
+		assertThat(restored.getWordCount()).isEqualTo(original.getWordCount());
+		assertThat(restored.getUniqueCharacters()).isEqualTo(original.getUniqueCharacters());
+		assertThat(restored.getCharacterFrequencyMap()).isEqualTo(original.getCharacterFrequencyMap());
+		assertThat(restored.getMinHash().bins()).containsExactly(original.getMinHash().bins());
+		assertThat(target.findByFilters(true, null, null, null)).hasSize(2);
+		try (var files = Files.list(directory)) {
+			assertThat(files).containsExactly(file);
+		}
+	}
+
+	@Test
+	void rejectsCorruptedExportBeforeInserting() throws Exception {
+		StringStorage source = new HeapStringStorage();
+		source.save(sketched("noon"));
+		source.save(sketched("madam"));
+		Path file = directory.resolve("corpus");
+		StringExports.export(source, file);
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(file, bytes);
+
+		StringStorage target = new HeapStringStorage();
+		assertThatThrownBy(() -> StringExports.importInto(target, file))
+				.isInstanceOf(InvalidExportException.class)
+				.hasMessageContaining("checksum");
+		assertThat(target.count()).isZero();
+	}
+
+	@Test
+	void rejectsExportWhoseColumnsDisagreeWithItsCount() throws Exception {
+		StringStorage source = new HeapStringStorage();
+		source.save(sketched("noon"));
+		source.save(sketched("madam"));
+		Path file = directory.resolve("corpus");
+		StringExports.export(source, file);
+
+		// Claim one string fewer or more and fix up the header checksum, so that only the lengths tell
+		for (long strings : new long[]{1, 3}) {
+			ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+			int columnCount = bytes.getInt(12);
+			int headerEnd = 28 + columnCount * 24;
+			bytes.putLong(16, strings);
+			CRC32C crc = new CRC32C();
+			crc.update(bytes.array(), 0, headerEnd);
+			bytes.putInt(headerEnd, (int) crc.getValue());
+			Path changed = directory.resolve("corpus-" + strings);
+			Files.write(changed, bytes.array());
+
+			StringStorage target = new HeapStringStorage();
+			assertThatThrownBy(() -> StringExports.importInto(target, changed))
+					.isInstanceOf(InvalidExportException.class)
+					.hasMessageContaining("inconsistent");
+			assertThat(target.count()).isZero();
+		}
+	}
+
+	private static AnalyzedString sketched(String value) {
+		AnalyzedString analyzed = analyzed(value);
+		analyzed.setMinHash(MinHash.of(value, 64));
+		return analyzed;
+	}
+}
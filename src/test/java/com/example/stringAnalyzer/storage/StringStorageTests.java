@@ -0,0 +1,358 @@
+package com.example.stringAnalyzer.storage;
+
+import com.example.stringAnalyzer.model.AnalyzedString;
+import com.example.stringAnalyzer.exception.InvalidQueryException;
+import com.example.stringAnalyzer.model.CharacterFrequencyTable;
+import com.example.stringAnalyzer.model.CharacterSignature;
+import com.example.stringAnalyzer.model.PageRequest;
+import com.example.stringAnalyzer.model.SimilarString;
+import com.example.stringAnalyzer.model.StringFilter;
+import com.example.stringAnalyzer.model.StringPage;
+import com.example.stringAnalyzer.service.Sha256;
+import com.example.stringAnalyzer.service.SinglePassAnalysisEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+abstract class StringStorageTests {
+
+	private static final SinglePassAnalysisEngine ENGINE = new SinglePassAnalysisEngine();
+
+	protected final StringStorage storage = createStorage();
+
+	protected abstract StringStorage createStorage();
+
+	protected abstract StringStorage createStorage(ParallelScan parallelScan);
+
+	@Test
+	void indexedQueriesMatchFilters() {
+		storage.save(entry("racecar", 7, true, 1));
+		storage.save(entry("level", 5, true, 1));
+		storage.save(entry("hello world", 11, false, 2));
+		storage.save(entry("a man a plan", 12, false, 4));
+
+		assertThat(values(storage.findByFilters(true, null, null, null))).containsExactlyInAnyOrder("racecar", "level");
+		assertThat(values(storage.findByFilters(true, 6, null, null))).containsExactly("racecar");
+		assertThat(values(storage.findByFilters(false, null, 11, 2))).containsExactly("hello world");
+		assertThat(values(storage.findByFilters(null, 12, 5, null))).isEmpty();
+		assertThat(values(storage.findByFilters(null, null, null, 3))).isEmpty();
+		assertThat(storage.findByFilters(null, null, null, null)).hasSize(4);
+	}
+
+	@Test
+	void indexesFollowDeletesAndOverwrites() {
+		storage.save(entry("level", 5, true, 1));
+		storage.save(entry("hello", 5, false, 1));
+
+		assertThat(storage.deleteByValue("level")).isTrue();
+		assertThat(storage.deleteByValue("level")).isFalse();
+		assertThat(values(storage.findByFilters(true, null, null, null))).isEmpty();
+
+		storage.save(entry("hello", 5, false, 1));
+		storage.save(entry("noon", 4, true, 1));
+		assertThat(values(storage.findByFilters(null, null, null, 1))).containsExactlyInAnyOrder("hello", "noon");
+	}
+
+	@Test
+	void containsCharacterUsesPostingLists() {
+		storage.save(entry("Racecar", 7, true, 1));
+		storage.save(entry("héllo wörld", 11, false, 2));
+		storage.save(entry("noon", 4, true, 1));
+
+		assertThat(values(storage.findByFilters(withCharacter("r")))).containsExactlyInAnyOrder("Racecar", "héllo wörld");
+		assertThat(values(storage.findByFilters(withCharacter("R")))).containsExactlyInAnyOrder("Racecar", "héllo wörld");
+		assertThat(values(storage.findByFilters(withCharacter("Ö")))).containsExactly("héllo wörld");
+		assertThat(values(storage.findByFilters(withCharacter("oo")))).containsExactly("noon");
+		assertThat(values(storage.findByFilters(withCharacter("z")))).isEmpty();
+		assertThat(storage.findByFilters(withCharacter(""))).hasSize(3);
+	}
+
+	@Test
+	void substringFiltersIgnoreCaseAndFollowDeletes() throws InvalidQueryException {
+		// Enough non-matches that the paged query below is answered from the index candidates
+		for (int i = 0; i < 100; i++) {
+			storage.save(entry("filler " + i, 9, false, 2));
+		}
+		storage.save(entry("Hello World", 11, false, 2));
+		storage.save(entry("say hello", 9, false, 2));
+		storage.save(entry("shell", 5, false, 1));
+		storage.save(entry("ÉCOLE élève", 11, false, 2));
+		storage.save(entry("ab", 2, false, 1));
+
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("HELL").build())))
+				.containsExactlyInAnyOrder("Hello World", "say hello", "shell");
+		assertThat(values(storage.findByFilters(StringFilter.builder().startsWith("hel").build()))).containsExactly("Hello World");
+		assertThat(values(storage.findByFilters(StringFilter.builder().endsWith("LLO").build()))).containsExactly("say hello");
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("école").build()))).containsExactly("ÉCOLE élève");
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("lo w").wordCount(2).build()))).containsExactly("Hello World");
+		// Needles shorter than a trigram
+		assertThat(values(storage.findByFilters(StringFilter.builder().startsWith("s").build()))).containsExactlyInAnyOrder("say hello", "shell");
+		assertThat(values(storage.findByFilters(StringFilter.builder().startsWith("ab").endsWith("AB").build()))).containsExactly("ab");
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("b").build()))).containsExactly("ab");
+		assertThat(storage.findByFilters(StringFilter.builder().contains("hellos").build())).isEmpty();
+
+		storage.deleteByValue("say hello");
+		storage.save(entry("hello again", 11, false, 2));
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("hello").build())))
+				.containsExactlyInAnyOrder("Hello World", "hello again");
+
+		StringPage first = storage.findPage(StringFilter.builder().contains("ell").build(), PageRequest.of("length", null, 2));
+		assertThat(values(first.getItems())).containsExactly("shell", "Hello World");
+		StringPage second = storage.findPage(StringFilter.builder().contains("ell").build(), PageRequest.of("length", first.getNextCursor(), 2));
+		assertThat(values(second.getItems())).containsExactly("hello again");
+		assertThat(second.getNextCursor()).isNull();
+	}
+
+	@Test
+	void substringFiltersFoldCaseLikeRegionMatches() {
+		storage.save(entry("σοφία", 5, false, 1));
+		storage.save(entry("kiss", 4, false, 1));
+		storage.save(entry("abc", 3, false, 1));
+		storage.save(entry("ſun", 3, false, 1));
+
+		// ς, σ and Σ fold together, as do ſ and s, and ı and i, so each finds what matches() accepts
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("ς").build()))).containsExactly("σοφία");
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("ſ").build()))).containsExactlyInAnyOrder("kiss", "ſun");
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("ı").build()))).containsExactly("kiss");
+		assertThat(values(storage.findByFilters(StringFilter.builder().contains("s").build()))).containsExactlyInAnyOrder("kiss", "ſun");
+		assertThat(values(storage.findByFilters(StringFilter.builder().startsWith("SUN").build()))).containsExactly("ſun");
+		assertThat(values(storage.findByFilters(StringFilter.builder().endsWith("ıss").build()))).containsExactly("kiss");
+		// A single contains_character keeps comparing lower case only; a longer one is a substring
+		assertThat(values(storage.findByFilters(withCharacter("s")))).containsExactly("kiss");
+		assertThat(values(storage.findByFilters(withCharacter("su")))).containsExactly("ſun");
+		assertThat(values(storage.findByFilters(withCharacter("ıs")))).containsExactly("kiss");
+		for (String needle : List.of("su", "ıs", "SS", "ſs")) {
+			StringFilter filter = withCharacter(needle);
+			assertThat(values(storage.findByFilters(filter)))
+					.containsExactlyInAnyOrderElementsOf(values(storage.findByFilters(StringFilter.builder().build()).stream().filter(filter::matches).toList()));
+		}
+	}
+
+	@Test
+	void similarStringsComeFromLshBucketsAndFollowDeletes() {
+		// More entries than the initial bucket tables hold, so they grow while filling
+		for (int i = 0; i < 2000; i++) {
+			storage.save(entry("filler number " + i, 14, false, 3));
+		}
+		String probe = "the quick brown fox jumps over the lazy dog";
+		storage.save(entry(probe, probe.length(), false, 9));
+		storage.save(entry("THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG", probe.length(), false, 9));
+		storage.save(entry("the quick brown fox jumps over the lazy cat", probe.length(), false, 9));
+		storage.save(entry("pack my box with five dozen liquor jugs", 39, false, 8));
+
+		List<SimilarString> similar = storage.findSimilar(probe, 0.5);
+		// Case is folded, so the upper-cased copy has the same shingles; the stored probe itself is left out
+		assertThat(similar).extracting(s -> s.getString().getValue())
+				.containsExactly("THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG", "the quick brown fox jumps over the lazy cat");
+		assertThat(similar.get(0).getSimilarity()).isEqualTo(1.0);
+		assertThat(similar.get(1).getSimilarity()).isBetween(0.5, 1.0);
+		assertThat(storage.findSimilar("zebras crossing at night", 0.5)).isEmpty();
+
+		storage.deleteByValue("THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG");
+		assertThat(storage.findSimilar(probe, 0.5)).extracting(s -> s.getString().getValue())
+				.containsExactly("the quick brown fox jumps over the lazy cat");
+		storage.clear();
+		assertThat(storage.findSimilar(probe, 0.1)).isEmpty();
+	}
+
+	@Test
+	void pagesFollowSortOrderAndCursor() throws InvalidQueryException {
+		storage.save(entry("aaaa", 4, true, 1));
+		storage.save(entry("bb", 2, true, 1));
+		storage.save(entry("c c c", 5, false, 3));
+		storage.save(entry("ddd", 3, true, 1));
+		storage.save(entry("eeeeee", 6, true, 1));
+
+		StringFilter palindromes = StringFilter.builder().isPalindrome(true).build();
+		StringPage first = storage.findPage(palindromes, PageRequest.of("length", null, 2));
+		assertThat(values(first.getItems())).containsExactly("bb", "ddd");
+		assertThat(first.getNextCursor()).isNotNull();
+
+		StringPage second = storage.findPage(palindromes, PageRequest.of("length", first.getNextCursor(), 2));
+		assertThat(values(second.getItems())).containsExactly("aaaa", "eeeeee");
+		assertThat(second.getNextCursor()).isNull();
+
+		StringPage descending = storage.findPage(StringFilter.builder().maxLength(5).build(), PageRequest.of("-length", null, 2));
+		assertThat(values(descending.getItems())).containsExactly("c c c", "aaaa");
+		StringPage rest = storage.findPage(StringFilter.builder().maxLength(5).build(), PageRequest.of("-length", descending.getNextCursor(), 10));
+		assertThat(values(rest.getItems())).containsExactly("ddd", "bb");
+	}
+
+	@Test
+	void replaceAndRemoveReturnWhatTheyOverwrote() {
+		AnalyzedString first = entry("noon", 4, true, 1);
+		first.setCreatedAt(1, 0);
+		AnalyzedString second = entry("noon", 4, true, 1);
+		second.setCreatedAt(2, 0);
+
+		assertThat(storage.replace(first)).isEmpty();
+		assertThat(storage.replace(second).orElseThrow().getCreatedAtSecond()).isEqualTo(1);
+		assertThat(storage.remove("noon").orElseThrow().getCreatedAtSecond()).isEqualTo(2);
+		assertThat(storage.remove("noon")).isEmpty();
+		assertThat(storage.count()).isZero();
+	}
+
+	@Test
+	void forEachStoredVisitsEveryStringOnce() throws Exception {
+		for (int i = 0; i < 50; i++) {
+			storage.save(entry("string " + i, 9, false, 2));
+		}
+		storage.deleteByValue("string 7");
+		storage.save(entry("string 8", 8, false, 2));
+
+		List<String> visited = new ArrayList<>();
+		storage.forEachStored(s -> visited.add(s.getValue()));
+		assertThat(visited).hasSize(49).doesNotHaveDuplicates().doesNotContain("string 7");
+		assertThat(visited).containsAll(values(storage.findByFilters(null, null, null, null)));
+	}
+
+	@Test
+	void saveIfAbsentInsertsEachValueOnceUnderContention() throws Exception {
+		int threads = 8;
+		int values = 2000;
+		AtomicInteger notified = new AtomicInteger();
+		storage.addListener(new StorageListener() {
+			@Override
+			public void saved(List<AnalyzedString> strings, long generation) {
+				notified.addAndGet(strings.size());
+			}
+
+			@Override
+			public void deleted(AnalyzedString removed, long generation) {
+				notified.decrementAndGet();
+			}
+
+			@Override
+			public void cleared(long generation) {
+			}
+		});
+
+		Map<String, Long> winners = new ConcurrentHashMap<>();
+		AtomicInteger doubleWins = new AtomicInteger();
+		CyclicBarrier start = new CyclicBarrier(threads);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> done = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				long thread = t;
+				done.add(pool.submit(() -> {
+					start.await();
+					// Every thread walks the values from a different offset to mix up who gets there first
+					for (int i = 0; i < values; i++) {
+						String value = "value-" + (i + thread * values / threads) % values;
+						AnalyzedString candidate = entry(value, value.length(), false, 1);
+						candidate.setCreatedAt(thread, 0);
+						Optional<AnalyzedString> existing = storage.saveIfAbsent(candidate);
+						if (existing.isEmpty() && winners.putIfAbsent(value, thread) != null) {
+							doubleWins.incrementAndGet();
+						}
+						existing.ifPresent(stored -> assertThat(stored.getValue()).isEqualTo(value));
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : done) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(doubleWins).hasValue(0);
+		assertThat(winners).hasSize(values);
+		assertThat(storage.count()).isEqualTo(values);
+		assertThat(notified).hasValue(values);
+		// The first insert is kept; later attempts never overwrite its creation time
+		winners.forEach((value, thread) ->
+				assertThat(storage.findByValue(value).orElseThrow().getCreatedAtSecond()).isEqualTo(thread));
+	}
+
+	@Test
+	void parallelScansReturnTheSequentialResultInTheSameOrder() throws InvalidQueryException {
+		ParallelScan parallelScan = new ParallelScan(1, 4);
+		try {
+			List<AnalyzedString> first = new ArrayList<>();
+			for (int i = 0; i < 20_000; i++) {
+				String value = "v" + i + " x".repeat(i % 4);
+				first.add(entry(value, value.length(), i % 7 == 0, 1 + i % 4));
+			}
+			List<AnalyzedString> late = new ArrayList<>();
+			for (int i = 0; i < 2_000; i++) {
+				late.add(entry("late " + i, 5 + String.valueOf(i).length(), false, 2));
+			}
+
+			StringStorage parallel = createStorage(parallelScan);
+			for (StringStorage target : List.of(storage, parallel)) {
+				first.forEach(target::save);
+				// Leaves holes that the later saves reuse, so slot order differs from insertion order
+				for (int i = 0; i < first.size(); i += 3) {
+					target.deleteByValue(first.get(i).getValue());
+				}
+				late.forEach(target::save);
+			}
+
+			List<StringFilter> filters = List.of(
+					StringFilter.NONE,
+					StringFilter.builder().isPalindrome(true).build(),
+					StringFilter.builder().minLength(6).maxLength(9).build(),
+					StringFilter.builder().wordCount(2).containsCharacter("x").build(),
+					withCharacter("9"));
+			for (StringFilter filter : filters) {
+				assertThat(values(parallel.findByFilters(filter))).containsExactlyElementsOf(values(storage.findByFilters(filter)));
+
+				StringPage expected = storage.findPage(filter, PageRequest.of("-length", null, 50));
+				StringPage actual = parallel.findPage(filter, PageRequest.of("-length", null, 50));
+				assertThat(values(actual.getItems())).containsExactlyElementsOf(values(expected.getItems()));
+				assertThat(actual.getNextCursor()).isEqualTo(expected.getNextCursor());
+
+				PageRequest next = PageRequest.of("-length", expected.getNextCursor(), 50);
+				assertThat(values(parallel.findPage(filter, next).getItems()))
+						.containsExactlyElementsOf(values(storage.findPage(filter, next).getItems()));
+			}
+		} finally {
+			parallelScan.shutdown();
+		}
+	}
+
+	private static StringFilter withCharacter(String character) {
+		return StringFilter.builder().containsCharacter(character).build();
+	}
+
+	static AnalyzedString entry(String value, int length, boolean palindrome, int words) {
+		AnalyzedString s = new AnalyzedString(value);
+		s.setLength(length);
+		s.setIsPalindrome(palindrome);
+		s.setWordCount(words);
+		CharacterFrequencyTable.Counter counter = new CharacterFrequencyTable.Counter();
+		value.codePoints().forEach(counter::add);
+		s.setCharacterFrequencies(counter.build());
+		s.setUniqueCharacters(counter.distinct());
+		s.setCharacterSignature(CharacterSignature.of(s.getCharacterFrequencies()));
+		// The real id, since a sharded storage routes by it
+		s.setSha256(Sha256.hash(value));
+		return s;
+	}
+
+	// Analyzed the way the service does it, for tests that need every property to be real
+	static AnalyzedString analyzed(String value) {
+		AnalyzedString analyzed = ENGINE.analyze(value);
+		analyzed.setSha256(Sha256.hash(value));
+		return analyzed;
+	}
+
+	static List<String> values(List<AnalyzedString> strings) {
+		return strings.stream().map(AnalyzedString::getValue).toList();
+	}
+}